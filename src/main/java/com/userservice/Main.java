@@ -1,23 +1,58 @@
 package com.userservice;
 
+import com.userservice.bulk.BulkCli;
+import com.userservice.bulk.BulkFormat;
+import com.userservice.bulk.ProgressListener;
+import com.userservice.bulk.TransferResult;
+import com.userservice.bulk.UserExporter;
+import com.userservice.bulk.UserImporter;
 import com.userservice.util.HibernateUtil;
 import com.userservice.dao.UserDao;
+import com.userservice.dao.InstrumentedUserDao;
 import com.userservice.dao.UserDaoImpl;
+import com.userservice.http.UserHttpServer;
+import com.userservice.metrics.MetricsHttpServer;
+import com.userservice.metrics.MetricsRegistry;
 import com.userservice.model.User;
+import com.userservice.model.UserPatch;
+import com.userservice.service.UserService;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import java.util.List;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Iterator;
 import java.util.Scanner;
+import java.util.stream.Stream;
 
 public class Main {
 
     private static final Logger logger = LogManager.getLogger(Main.class);
-    private static final UserDao userDao = new UserDaoImpl();
+    private static final MetricsRegistry metrics = new MetricsRegistry();
+    private static final UserDao userDao = new InstrumentedUserDao(new UserDaoImpl(), metrics);
     private static final Scanner scanner = new Scanner(System.in);
 
     public static void main(String[] args) {
         logger.info("Starting User Service Console Application...");
+        // The JDK HTTP server writes headers and body as separate segments; with Nagle's algorithm on, the body
+        // waits for the client's delayed ACK, ~40 ms per response. Read once, when the first server starts
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+        // The menu comes up right away; the SessionFactory builds in the background until the first query needs it
+        if (!Boolean.getBoolean("userservice.bootstrap.lazy")) {
+            HibernateUtil.holder().warmUp();
+            if (HibernateUtil.replicaHolder() != null) {
+                HibernateUtil.replicaHolder().warmUp();
+            }
+        }
+        Integer httpPort = Integer.getInteger("userservice.http.port");
+        UserHttpServer httpServer = httpPort == null ? null : startHttpServer(httpPort);
+        MetricsHttpServer metricsServer = startMetricsServer();
+        if (httpServer != null) {
+            addShutdownHook(httpServer, metricsServer);
+            return;
+        }
 
         while (true) {
             showMenu();
@@ -30,8 +65,13 @@ public class Main {
                     case 3 -> updateUser();
                     case 4 -> deleteUser();
                     case 5 -> listAllUsers();
+                    case 6 -> importUsers();
+                    case 7 -> exportUsers();
                     case 0 -> {
                         logger.info("Shutting down application...");
+                        if (metricsServer != null) {
+                            metricsServer.close();
+                        }
                         HibernateUtil.shutdown();
                         System.out.println("Goodbye!");
                         return;
@@ -45,6 +85,29 @@ public class Main {
         }
     }
 
+    private static MetricsHttpServer startMetricsServer() {
+        Integer port = Integer.getInteger("userservice.metrics.port");
+        return port == null ? null : MetricsHttpServer.start(port, metrics, HibernateUtil.holder());
+    }
+
+    /** Serves the JSON API instead of the console menu; the server threads keep the JVM alive until it's stopped. */
+    private static UserHttpServer startHttpServer(int port) {
+        Duration requestTimeout = Duration.ofMillis(Long.getLong("userservice.http.request_timeout_ms", 10_000));
+        Duration statisticsStaleness = Duration.ofMillis(Long.getLong("userservice.statistics.staleness_ms", 30_000));
+        return UserHttpServer.start(port, new UserService(userDao, null, null, statisticsStaleness), requestTimeout);
+    }
+
+    private static void addShutdownHook(UserHttpServer httpServer, MetricsHttpServer metricsServer) {
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            logger.info("Shutting down application...");
+            httpServer.close();
+            if (metricsServer != null) {
+                metricsServer.close();
+            }
+            HibernateUtil.shutdown();
+        }));
+    }
+
     private static void showMenu() {
         System.out.println("\n=== User Service ===");
         System.out.println("1. Create User");
@@ -52,6 +115,8 @@ public class Main {
         System.out.println("3. Update User");
         System.out.println("4. Delete User");
         System.out.println("5. List All Users");
+        System.out.println("6. Import Users from File");
+        System.out.println("7. Export Users to File");
         System.out.println("0. Exit");
         System.out.print("Choose an option: ");
     }
@@ -80,24 +145,28 @@ public class Main {
 
     private static void updateUser() {
         Long id = getLongInput("Enter user ID to update");
+        System.out.println("Leave a field blank to keep the current value.");
 
         System.out.print("Enter new name: ");
-        String name = scanner.nextLine();
+        String name = scanner.nextLine().trim();
 
         System.out.print("Enter new email: ");
-        String email = scanner.nextLine();
-
-        int age = getIntInput("Enter new age");
+        String email = scanner.nextLine().trim();
 
-        User user = new User();
-        user.setId(id);
-        user.setName(name);
-        user.setEmail(email);
-        user.setAge(age);
+        System.out.print("Enter new age: ");
+        String age = scanner.nextLine().trim();
 
         try {
-            userDao.update(user);
-            System.out.println("User updated: " + user);
+            UserPatch patch = new UserPatch(name.isEmpty() ? null : name,
+                    email.isEmpty() ? null : email,
+                    age.isEmpty() ? null : Integer.valueOf(age));
+            if (patch.isEmpty()) {
+                System.out.println("Nothing to update.");
+            } else if (userDao.patch(id, patch) > 0) {
+                System.out.println("User updated with ID: " + id);
+            } else {
+                System.out.println("User not found with ID: " + id);
+            }
         } catch (Exception e) {
             System.out.println("Error updating user: " + e.getMessage());
         }
@@ -105,19 +174,49 @@ public class Main {
 
     private static void deleteUser() {
         Long id = getLongInput("Enter user ID to delete");
-        userDao.deleteById(id);
-        System.out.println("User deleted (if existed).");
+        if (userDao.deleteById(id) > 0) {
+            System.out.println("User deleted with ID: " + id);
+        } else {
+            System.out.println("User not found with ID: " + id);
+        }
     }
 
     private static void listAllUsers() {
-        List<User> users = userDao.findAll();
-        if (users.isEmpty()) {
-            System.out.println("No users found.");
-        } else {
-            users.forEach(System.out::println);
+        try (Stream<User> users = userDao.streamAll()) {
+            Iterator<User> iterator = users.iterator();
+            if (!iterator.hasNext()) {
+                System.out.println("No users found.");
+            }
+            while (iterator.hasNext()) {
+                System.out.println(iterator.next());
+            }
         }
     }
 
+    private static void importUsers() {
+        System.out.print("Enter file to import (.csv or .jsonl): ");
+        Path file = Path.of(scanner.nextLine().trim());
+        TransferResult result = new UserImporter(userDao, HibernateUtil.getSessionFactory())
+                .importFile(file, BulkFormat.of(file), BulkCli.checkpointFile(file), consoleProgress());
+        System.out.printf("Imported %,d users, %,d rejected (%,.0f users/s)%n",
+                result.records(), result.rejected(), result.recordsPerSecond());
+        if (result.rejected() > 0) {
+            System.out.println("Rejected rows: " + UserImporter.rejectsFile(file));
+        }
+    }
+
+    private static void exportUsers() {
+        System.out.print("Enter file to export to (.csv or .jsonl): ");
+        Path file = Path.of(scanner.nextLine().trim());
+        TransferResult result = new UserExporter(userDao)
+                .export(file, BulkFormat.of(file), BulkCli.checkpointFile(file), consoleProgress());
+        System.out.printf("Exported %,d users (%,.0f users/s)%n", result.records(), result.recordsPerSecond());
+    }
+
+    private static ProgressListener consoleProgress() {
+        return ProgressListener.console(System.out, Duration.ofSeconds(1));
+    }
+
     private static int getIntInput(String prompt) {
         while (true) {
             try {
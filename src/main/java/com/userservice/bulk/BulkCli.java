@@ -0,0 +1,101 @@
+package com.userservice.bulk;
+
+import com.userservice.dao.UserDaoImpl;
+import com.userservice.util.HibernateUtil;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * Command line entry point for bulk transfers:
+ * <pre>
+ * import &lt;file&gt; [--format csv|json] [--chunk-size N] [--parallelism N] [--no-copy] [--no-checkpoint]
+ * export &lt;file&gt; [--format csv|json] [--no-checkpoint]
+ * </pre>
+ * The format defaults to the file extension. Progress is checkpointed to {@code <file>.checkpoint}, so rerunning
+ * an interrupted command continues where it stopped.
+ */
+public final class BulkCli {
+
+    private static final Logger logger = LogManager.getLogger(BulkCli.class);
+
+    private BulkCli() {
+    }
+
+    public static void main(String[] args) {
+        int status;
+        try {
+            status = run(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            printUsage();
+            status = 2;
+        } catch (Exception e) {
+            logger.error("Bulk transfer failed", e);
+            System.err.println("Error: " + e.getMessage());
+            status = 1;
+        } finally {
+            HibernateUtil.shutdown();
+        }
+        System.exit(status);
+    }
+
+    private static int run(String[] args) {
+        if (args.length < 2) {
+            throw new IllegalArgumentException("Missing command or file");
+        }
+        String command = args[0];
+        Path file = Path.of(args[1]);
+        BulkFormat format = BulkFormat.of(file);
+        int chunkSize = UserImporter.DEFAULT_CHUNK_SIZE;
+        int parallelism = Runtime.getRuntime().availableProcessors();
+        boolean copy = true;
+        Path checkpoint = checkpointFile(file);
+        for (int i = 2; i < args.length; i++) {
+            switch (args[i]) {
+                case "--format" -> format = BulkFormat.valueOf(value(args, ++i).toUpperCase(Locale.ROOT));
+                case "--chunk-size" -> chunkSize = Integer.parseInt(value(args, ++i));
+                case "--parallelism" -> parallelism = Integer.parseInt(value(args, ++i));
+                case "--no-copy" -> copy = false;
+                case "--no-checkpoint" -> checkpoint = null;
+                default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+
+        ProgressListener progress = ProgressListener.console(System.out, Duration.ofSeconds(1));
+        TransferResult result = switch (command) {
+            case "import" -> new UserImporter(new UserDaoImpl(), copy ? HibernateUtil.getSessionFactory() : null,
+                    chunkSize, parallelism).importFile(file, format, checkpoint, progress);
+            case "export" -> new UserExporter(new UserDaoImpl())
+                    .export(file, format, checkpoint, progress);
+            default -> throw new IllegalArgumentException("Unknown command " + command);
+        };
+        System.out.printf("%s finished: %,d records, %,d rejected in %.1f s (%,.0f records/s)%n", command,
+                result.records(), result.rejected(), result.elapsed().toMillis() / 1000.0, result.recordsPerSecond());
+        if (result.rejected() > 0) {
+            System.out.println("Rejected rows: " + UserImporter.rejectsFile(file));
+        }
+        return 0;
+    }
+
+    /** Default checkpoint location for a transfer of {@code file}. */
+    public static Path checkpointFile(Path file) {
+        return file.resolveSibling(file.getFileName() + ".checkpoint");
+    }
+
+    private static String value(String[] args, int index) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException("Missing value for " + args[index - 1]);
+        }
+        return args[index];
+    }
+
+    private static void printUsage() {
+        System.err.println("Usage: BulkCli import <file> [--format csv|json] [--chunk-size N] [--parallelism N]"
+                + " [--no-copy] [--no-checkpoint]");
+        System.err.println("       BulkCli export <file> [--format csv|json] [--no-checkpoint]");
+    }
+}
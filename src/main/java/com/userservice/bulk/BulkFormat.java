@@ -0,0 +1,27 @@
+package com.userservice.bulk;
+
+import java.nio.file.Path;
+import java.util.Locale;
+
+/** File formats for bulk import and export. */
+public enum BulkFormat {
+
+    CSV(CsvCodec.INSTANCE),
+    JSON(JsonLinesCodec.INSTANCE);
+
+    private final RecordCodec codec;
+
+    BulkFormat(RecordCodec codec) {
+        this.codec = codec;
+    }
+
+    RecordCodec codec() {
+        return codec;
+    }
+
+    /** Format for a file name: {@code .json}, {@code .jsonl} and {@code .ndjson} are JSON Lines, anything else CSV. */
+    public static BulkFormat of(Path file) {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        return name.endsWith(".json") || name.endsWith(".jsonl") || name.endsWith(".ndjson") ? JSON : CSV;
+    }
+}
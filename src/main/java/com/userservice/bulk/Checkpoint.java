@@ -0,0 +1,77 @@
+package com.userservice.bulk;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+
+/**
+ * Resume point of an import or export, stored as a properties file next to the data. {@code position} is the byte
+ * offset up to which the data file has been committed; {@code line} (imports) and {@code lastId} (exports) say
+ * where to continue.
+ */
+record Checkpoint(String file, long position, long line, long lastId, long records, long rejected) {
+
+    static Checkpoint start(Path file) {
+        return new Checkpoint(file.toAbsolutePath().normalize().toString(), 0, 0, 0, 0, 0);
+    }
+
+    /** The saved checkpoint for {@code file}, or null if there is none. */
+    static Checkpoint load(Path checkpointFile, Path file) {
+        if (checkpointFile == null || !Files.exists(checkpointFile)) {
+            return null;
+        }
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(checkpointFile, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read checkpoint " + checkpointFile, e);
+        }
+        Checkpoint checkpoint = new Checkpoint(properties.getProperty("file"),
+                Long.parseLong(properties.getProperty("position", "0")),
+                Long.parseLong(properties.getProperty("line", "0")),
+                Long.parseLong(properties.getProperty("lastId", "0")),
+                Long.parseLong(properties.getProperty("records", "0")),
+                Long.parseLong(properties.getProperty("rejected", "0")));
+        if (!start(file).file().equals(checkpoint.file())) {
+            throw new IllegalStateException("Checkpoint " + checkpointFile + " belongs to " + checkpoint.file());
+        }
+        return checkpoint;
+    }
+
+    /** Writes the checkpoint atomically, so a crash leaves either the old or the new one. */
+    void save(Path checkpointFile) {
+        Properties properties = new Properties();
+        properties.setProperty("file", file);
+        properties.setProperty("position", Long.toString(position));
+        properties.setProperty("line", Long.toString(line));
+        properties.setProperty("lastId", Long.toString(lastId));
+        properties.setProperty("records", Long.toString(records));
+        properties.setProperty("rejected", Long.toString(rejected));
+        Path temporary = checkpointFile.resolveSibling(checkpointFile.getFileName() + ".tmp");
+        try {
+            try (Writer writer = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8)) {
+                properties.store(writer, null);
+            }
+            Files.move(temporary, checkpointFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write checkpoint " + checkpointFile, e);
+        }
+    }
+
+    static void delete(Path checkpointFile) {
+        if (checkpointFile == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(checkpointFile);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to delete checkpoint " + checkpointFile, e);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.userservice.bulk;
+
+import com.userservice.model.User;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+
+/**
+ * RFC 4180 style CSV with a header row. Columns are matched by name, so {@code id} and unknown columns are ignored
+ * and {@code created_at} is optional. Quoted fields may contain commas and quotes but not line breaks, which
+ * {@link com.userservice.service.UserValidator} keeps out of names.
+ */
+final class CsvCodec implements RecordCodec {
+
+    static final CsvCodec INSTANCE = new CsvCodec();
+
+    private static final String HEADER = "id,name,email,age,created_at";
+
+    private CsvCodec() {
+    }
+
+    @Override
+    public String header() {
+        return HEADER;
+    }
+
+    @Override
+    public String format(User user) {
+        StringBuilder line = new StringBuilder(64);
+        line.append(user.getId()).append(',');
+        appendField(line, user.getName()).append(',');
+        appendField(line, user.getEmail()).append(',');
+        line.append(user.getAge()).append(',');
+        line.append(user.getCreatedAt() == null ? "" : user.getCreatedAt());
+        return line.toString();
+    }
+
+    @Override
+    public Function<String, UserRecord> parser(String firstLine) {
+        List<String> columns = split(firstLine).stream().map(c -> c.trim().toLowerCase(Locale.ROOT)).toList();
+        int name = columns.indexOf("name");
+        int email = columns.indexOf("email");
+        int age = columns.indexOf("age");
+        int createdAt = columns.indexOf("created_at");
+        if (name < 0 || email < 0 || age < 0) {
+            throw new IllegalArgumentException("CSV header must contain name, email and age columns: " + firstLine);
+        }
+        return line -> {
+            List<String> fields = split(line);
+            if (fields.size() != columns.size()) {
+                throw new IllegalArgumentException(
+                        "Expected " + columns.size() + " fields but found " + fields.size());
+            }
+            return new UserRecord(fields.get(name), fields.get(email), parseAge(fields.get(age)),
+                    createdAt < 0 ? null : parseTimestamp(fields.get(createdAt)));
+        };
+    }
+
+    static Integer parseAge(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return Integer.valueOf(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid age: " + value);
+        }
+    }
+
+    static LocalDateTime parseTimestamp(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return LocalDateTime.parse(value.trim());
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid created_at: " + value);
+        }
+    }
+
+    private static StringBuilder appendField(StringBuilder line, String value) {
+        if (value == null) {
+            return line;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return line.append(value);
+        }
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                line.append('"');
+            }
+            line.append(c);
+        }
+        return line.append('"');
+    }
+
+    static List<String> split(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
@@ -0,0 +1,77 @@
+package com.userservice.bulk;
+
+import com.userservice.model.User;
+import com.userservice.util.FlatJson;
+
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * JSON Lines: one flat object per line, e.g. {@code {"name":"Ann","email":"ann@mail.com","age":30}}.
+ * Reads {@code name}, {@code email}, {@code age} and an optional {@code createdAt}; other members are ignored.
+ * Nested objects and arrays are not supported.
+ */
+final class JsonLinesCodec implements RecordCodec {
+
+    static final JsonLinesCodec INSTANCE = new JsonLinesCodec();
+
+    private JsonLinesCodec() {
+    }
+
+    @Override
+    public String header() {
+        return null;
+    }
+
+    @Override
+    public String format(User user) {
+        StringBuilder line = new StringBuilder(96);
+        line.append("{\"id\":").append(user.getId());
+        appendString(line.append(",\"name\":"), user.getName());
+        appendString(line.append(",\"email\":"), user.getEmail());
+        line.append(",\"age\":").append(user.getAge());
+        appendString(line.append(",\"createdAt\":"),
+                user.getCreatedAt() == null ? null : user.getCreatedAt().toString());
+        return line.append('}').toString();
+    }
+
+    @Override
+    public Function<String, UserRecord> parser(String firstLine) {
+        return line -> {
+            Map<String, String> members = parseObject(line);
+            return new UserRecord(members.get("name"), members.get("email"),
+                    CsvCodec.parseAge(members.get("age")), CsvCodec.parseTimestamp(members.get("createdAt")));
+        };
+    }
+
+    private static void appendString(StringBuilder line, String value) {
+        if (value == null) {
+            line.append("null");
+            return;
+        }
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> line.append("\\\"");
+                case '\\' -> line.append("\\\\");
+                case '\n' -> line.append("\\n");
+                case '\r' -> line.append("\\r");
+                case '\t' -> line.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        line.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        line.append(c);
+                    }
+                }
+            }
+        }
+        line.append('"');
+    }
+
+    /** Members of a flat object as strings; JSON null becomes a missing value. */
+    static Map<String, String> parseObject(String line) {
+        return FlatJson.parseObject(line);
+    }
+}
@@ -0,0 +1,91 @@
+package com.userservice.bulk;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * UTF-8 line reader over a file channel that knows the byte offset of the next line, so an import can checkpoint
+ * that offset and later resume there with a plain seek. Accepts {@code \n} and {@code \r\n} line endings.
+ */
+final class LineReader implements Closeable {
+
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private byte[] line = new byte[256];
+    private int lineLength;
+    private long position;
+
+    LineReader(Path file, long offset) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        this.channel.position(offset);
+        this.position = offset;
+        buffer.flip();
+    }
+
+    /** Next line without its terminator, or null at the end of the file. */
+    String readLine() throws IOException {
+        lineLength = 0;
+        while (true) {
+            if (!buffer.hasRemaining()) {
+                buffer.clear();
+                int read = channel.read(buffer);
+                buffer.flip();
+                if (read < 0) {
+                    if (lineLength == 0) {
+                        return null;
+                    }
+                    position += lineLength;
+                    return decode();
+                }
+            }
+            byte[] bytes = buffer.array();
+            int start = buffer.position();
+            int limit = buffer.limit();
+            for (int i = start; i < limit; i++) {
+                if (bytes[i] == '\n') {
+                    append(bytes, start, i - start);
+                    buffer.position(i + 1);
+                    position += lineLength + 1;
+                    return decode();
+                }
+            }
+            append(bytes, start, limit - start);
+            buffer.position(limit);
+        }
+    }
+
+    /** Byte offset just past the last line returned. */
+    long position() {
+        return position;
+    }
+
+    long size() throws IOException {
+        return channel.size();
+    }
+
+    private void append(byte[] bytes, int from, int length) {
+        if (lineLength + length > line.length) {
+            line = Arrays.copyOf(line, Math.max(line.length * 2, lineLength + length));
+        }
+        System.arraycopy(bytes, from, line, lineLength, length);
+        lineLength += length;
+    }
+
+    private String decode() {
+        int length = lineLength > 0 && line[lineLength - 1] == '\r' ? lineLength - 1 : lineLength;
+        return new String(line, 0, length, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,105 @@
+package com.userservice.bulk;
+
+import com.userservice.model.IdRange;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Resume points of a partitioned run of {@link UserProcessor}: the id range and number of partitions it was planned
+ * with, and the last id each partition has finished. Stored as a properties file that is replaced atomically on every
+ * save; without a file nothing is stored.
+ */
+final class PartitionCheckpoint {
+
+    private final Path file;
+    private final IdRange range;
+    private final List<IdRange> partitions;
+    private final long[] lastIds;
+
+    private PartitionCheckpoint(Path file, IdRange range, List<IdRange> partitions, long[] lastIds) {
+        this.file = file;
+        this.range = range;
+        this.partitions = partitions;
+        this.lastIds = lastIds;
+    }
+
+    static PartitionCheckpoint start(Path file, IdRange range, int partitions) {
+        List<IdRange> ranges = range.split(partitions);
+        long[] lastIds = ranges.stream().mapToLong(partition -> partition.first() - 1).toArray();
+        return new PartitionCheckpoint(file, range, ranges, lastIds);
+    }
+
+    /** The saved checkpoint in {@code file}, or null if there is none. */
+    static PartitionCheckpoint load(Path file) {
+        if (file == null || !Files.exists(file)) {
+            return null;
+        }
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read checkpoint " + file, e);
+        }
+        IdRange range = new IdRange(Long.parseLong(properties.getProperty("first")),
+                Long.parseLong(properties.getProperty("last")));
+        PartitionCheckpoint checkpoint = start(file, range, Integer.parseInt(properties.getProperty("partitions")));
+        for (int i = 0; i < checkpoint.lastIds.length; i++) {
+            String lastId = properties.getProperty("partition." + i);
+            if (lastId != null) {
+                checkpoint.lastIds[i] = Long.parseLong(lastId);
+            }
+        }
+        return checkpoint;
+    }
+
+    IdRange range() {
+        return range;
+    }
+
+    int partitions() {
+        return partitions.size();
+    }
+
+    /** The ids partition {@code index} has still to visit, or null when it is done. */
+    synchronized IdRange remaining(int index) {
+        IdRange partition = partitions.get(index);
+        return lastIds[index] >= partition.last() ? null : new IdRange(lastIds[index] + 1, partition.last());
+    }
+
+    /** Records that partition {@code index} has finished every id up to {@code lastId}. */
+    synchronized void save(int index, long lastId) {
+        lastIds[index] = lastId;
+        save();
+    }
+
+    synchronized void save() {
+        if (file == null) {
+            return;
+        }
+        Properties properties = new Properties();
+        properties.setProperty("first", Long.toString(range.first()));
+        properties.setProperty("last", Long.toString(range.last()));
+        properties.setProperty("partitions", Integer.toString(partitions.size()));
+        for (int i = 0; i < lastIds.length; i++) {
+            properties.setProperty("partition." + i, Long.toString(lastIds[i]));
+        }
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            try (Writer writer = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8)) {
+                properties.store(writer, null);
+            }
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write checkpoint " + file, e);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.userservice.bulk;
+
+import com.userservice.model.OutboxEvent;
+import com.userservice.model.User;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.postgresql.PGConnection;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Inserts users with PostgreSQL {@code COPY ... FROM STDIN}, one transaction per call. Ids are taken from
+ * {@code users_id_seq} one value per row: every sequence value starts its own block of the pooled optimizer,
+ * so these ids never collide with the ones Hibernate hands out.
+ * <p>
+ * With {@code userservice.outbox.enabled} on, as the DAO, a CREATE event per user is copied into
+ * {@code user_outbox} in the same transaction, so imports reach the outbox relay like any other insert.
+ */
+final class PgCopyWriter {
+
+    private static final Logger logger = LogManager.getLogger(PgCopyWriter.class);
+
+    private static final String NEXT_IDS = "SELECT nextval('users_id_seq') FROM generate_series(1, ?)";
+    private static final String COPY =
+            "COPY users (id, name, email, age, created_at, version) FROM STDIN (FORMAT csv)";
+    private static final String COPY_OUTBOX =
+            "COPY user_outbox (id, user_id, type, changes, user_version, created_at) FROM STDIN (FORMAT csv)";
+    private static final String OUTBOX_SETTING = "userservice.outbox.enabled";
+
+    private final SessionFactory sessionFactory;
+    private final boolean outboxEnabled;
+
+    PgCopyWriter(SessionFactory sessionFactory) {
+        this.sessionFactory = sessionFactory;
+        Object outbox = sessionFactory.getProperties().get(OUTBOX_SETTING);
+        this.outboxEnabled = outbox == null || Boolean.parseBoolean(outbox.toString().trim());
+    }
+
+    /** Whether the pool hands out pgjdbc connections, i.e. COPY can be used. */
+    static boolean isAvailable(SessionFactory sessionFactory) {
+        try (Session session = sessionFactory.openSession()) {
+            return session.doReturningWork(connection -> connection.isWrapperFor(PGConnection.class));
+        } catch (RuntimeException e) {
+            logger.debug("Could not check for COPY support", e);
+            return false;
+        }
+    }
+
+    void write(List<User> users) {
+        Session session = sessionFactory.openSession();
+        Transaction transaction = null;
+        try {
+            transaction = session.beginTransaction();
+            session.doWork(connection -> copy(connection, users, outboxEnabled));
+            transaction.commit();
+        } catch (RuntimeException e) {
+            if (transaction != null && transaction.isActive()) {
+                transaction.rollback();
+            }
+            throw new RuntimeException("Failed to copy " + users.size() + " users", e);
+        } finally {
+            session.close();
+        }
+        // The query cache only notices writes made through Hibernate
+        sessionFactory.getCache().evictQueryRegions();
+    }
+
+    private static void copy(Connection connection, List<User> users, boolean outbox) throws SQLException {
+        long[] ids = nextIds(connection, users.size());
+        StringBuilder rows = new StringBuilder(users.size() * 64);
+        for (int i = 0; i < users.size(); i++) {
+            User user = users.get(i);
+            user.setId(ids[i]);
+            user.setVersion(0L);
+            rows.append(ids[i]).append(',');
+            appendQuoted(rows, user.getName()).append(',');
+            appendQuoted(rows, user.getEmail()).append(',');
+            rows.append(user.getAge()).append(',');
+            rows.append(user.getCreatedAt()).append(",0\n");
+        }
+        copyIn(connection, COPY, rows);
+        if (outbox) {
+            copyIn(connection, COPY_OUTBOX, outboxRows(users));
+        }
+    }
+
+    private static StringBuilder outboxRows(List<User> users) {
+        StringBuilder rows = new StringBuilder(users.size() * 160);
+        for (User user : users) {
+            OutboxEvent event = OutboxEvent.created(user);
+            // The relay orders events by the position it stamps, not by id
+            rows.append(UUID.randomUUID()).append(',');
+            rows.append(event.getUserId()).append(',');
+            rows.append(event.getType()).append(',');
+            appendQuoted(rows, event.getChanges()).append(',');
+            rows.append(event.getUserVersion()).append(',');
+            rows.append(event.getCreatedAt()).append('\n');
+        }
+        return rows;
+    }
+
+    private static void copyIn(Connection connection, String sql, StringBuilder rows) throws SQLException {
+        try {
+            connection.unwrap(PGConnection.class).getCopyAPI().copyIn(sql, new StringReader(rows.toString()));
+        } catch (IOException e) {
+            throw new SQLException("COPY failed", e);
+        }
+    }
+
+    private static long[] nextIds(Connection connection, int count) throws SQLException {
+        long[] ids = new long[count];
+        try (PreparedStatement statement = connection.prepareStatement(NEXT_IDS)) {
+            statement.setInt(1, count);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                for (int i = 0; i < count && resultSet.next(); i++) {
+                    ids[i] = resultSet.getLong(1);
+                }
+            }
+        }
+        return ids;
+    }
+
+    private static StringBuilder appendQuoted(StringBuilder rows, String value) {
+        rows.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                rows.append('"');
+            }
+            rows.append(c);
+        }
+        return rows.append('"');
+    }
+}
@@ -0,0 +1,33 @@
+package com.userservice.bulk;
+
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Receives progress after every committed chunk of an import and every checkpoint of an export or processing run.
+ * A processing run reports from several threads at once.
+ */
+@FunctionalInterface
+public interface ProgressListener {
+
+    void onProgress(TransferProgress progress);
+
+    static ProgressListener none() {
+        return progress -> {
+        };
+    }
+
+    /** Prints a progress line at most once per {@code interval}. */
+    static ProgressListener console(PrintStream out, Duration interval) {
+        AtomicLong lastPrinted = new AtomicLong(System.nanoTime() - interval.toNanos());
+        return progress -> {
+            long now = System.nanoTime();
+            long last = lastPrinted.get();
+            if (now - last >= interval.toNanos() && lastPrinted.compareAndSet(last, now)) {
+                out.printf("%5.1f%%  %,d records, %,d rejected, %,.0f records/s%n", progress.percent(),
+                        progress.records(), progress.rejected(), progress.recordsPerSecond());
+            }
+        };
+    }
+}
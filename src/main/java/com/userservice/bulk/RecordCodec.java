@@ -0,0 +1,20 @@
+package com.userservice.bulk;
+
+import com.userservice.model.User;
+
+import java.util.function.Function;
+
+/** Line-oriented encoding of users; every record is exactly one line. */
+interface RecordCodec {
+
+    /** Line written before the first record, or null if the format has none. */
+    String header();
+
+    String format(User user);
+
+    /**
+     * Parser for the lines of a file whose first line is {@code firstLine}. Throws
+     * {@link IllegalArgumentException} for lines that can't be parsed.
+     */
+    Function<String, UserRecord> parser(String firstLine);
+}
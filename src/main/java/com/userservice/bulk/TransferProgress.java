@@ -0,0 +1,19 @@
+package com.userservice.bulk;
+
+import java.time.Duration;
+
+/**
+ * Snapshot of a running import, export or processing run, counting this run only. {@code completed} and
+ * {@code total} are byte offsets in the file for imports and ids of the id range for exports and processing.
+ */
+public record TransferProgress(long records, long rejected, long completed, long total, Duration elapsed) {
+
+    public double percent() {
+        return total <= 0 ? 100.0 : Math.min(100.0, completed * 100.0 / total);
+    }
+
+    public double recordsPerSecond() {
+        long nanos = elapsed.toNanos();
+        return nanos == 0 ? 0 : records * 1e9 / nanos;
+    }
+}
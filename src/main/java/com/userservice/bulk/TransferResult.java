@@ -0,0 +1,12 @@
+package com.userservice.bulk;
+
+import java.time.Duration;
+
+/** Outcome of one import or export run; a resumed run only counts what it did itself. */
+public record TransferResult(long records, long rejected, Duration elapsed) {
+
+    public double recordsPerSecond() {
+        long nanos = elapsed.toNanos();
+        return nanos == 0 ? 0 : records * 1e9 / nanos;
+    }
+}
@@ -0,0 +1,138 @@
+package com.userservice.bulk;
+
+import com.userservice.dao.UserDao;
+import com.userservice.model.IdRange;
+import com.userservice.model.User;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Writes the users table to a CSV or JSON Lines file in id order through {@link UserDao#streamRange}, a cursor
+ * with {@link com.userservice.dao.UserDaoImpl}, so memory use doesn't grow with the table. Every
+ * {@link #DEFAULT_CHECKPOINT_INTERVAL} rows the file is flushed and the last exported id saved to the checkpoint
+ * file; a resumed run truncates the file back to that point and continues after that id. Users created after the
+ * export has started may be left out. Progress counts ids of the range covered.
+ */
+public class UserExporter {
+
+    private static final Logger logger = LogManager.getLogger(UserExporter.class);
+
+    public static final int DEFAULT_CHECKPOINT_INTERVAL = 10_000;
+
+    private static final int WRITE_BUFFER_SIZE = 1 << 16;
+
+    private final UserDao userDao;
+    private final int checkpointInterval;
+
+    public UserExporter(UserDao userDao) {
+        this(userDao, DEFAULT_CHECKPOINT_INTERVAL);
+    }
+
+    public UserExporter(UserDao userDao, int checkpointInterval) {
+        if (checkpointInterval <= 0) {
+            throw new IllegalArgumentException("Checkpoint interval must be positive");
+        }
+        this.userDao = userDao;
+        this.checkpointInterval = checkpointInterval;
+    }
+
+    /**
+     * Exports all users to {@code file}, resuming from {@code checkpointFile} if it exists. Pass a null checkpoint
+     * file to always start from the beginning.
+     */
+    public TransferResult export(Path file, BulkFormat format, Path checkpointFile, ProgressListener listener) {
+        Checkpoint checkpoint = Checkpoint.load(checkpointFile, file);
+        boolean resumed = checkpoint != null;
+        if (resumed) {
+            logger.info("Resuming export to {} after id {} ({} users exported)", file, checkpoint.lastId(),
+                    checkpoint.records());
+        } else {
+            checkpoint = Checkpoint.start(file);
+        }
+
+        RecordCodec codec = format.codec();
+        long start = System.nanoTime();
+        long startRecords = checkpoint.records();
+        long records = 0;
+        try (Writer writer = open(file, resumed ? checkpoint.position() : -1)) {
+            if (!resumed && codec.header() != null) {
+                writer.write(codec.header());
+                writer.write('\n');
+            }
+            long firstId = checkpoint.lastId() + 1;
+            Optional<IdRange> range = userDao.findIdRange()
+                    .filter(table -> table.last() >= firstId)
+                    .map(table -> new IdRange(Math.max(firstId, table.first()), table.last()));
+            long total = range.map(IdRange::size).orElse(0L);
+            if (range.isPresent()) {
+                IdRange ids = range.get();
+                try (Stream<User> users = userDao.streamRange(ids)) {
+                    Iterator<User> iterator = users.iterator();
+                    while (iterator.hasNext()) {
+                        User user = iterator.next();
+                        writer.write(codec.format(user));
+                        writer.write('\n');
+                        if (++records % checkpointInterval == 0) {
+                            checkpoint = checkpoint(file, writer, checkpoint, user.getId(), startRecords + records,
+                                    checkpointFile);
+                            listener.onProgress(new TransferProgress(records, 0, user.getId() - ids.first() + 1,
+                                    total, Duration.ofNanos(System.nanoTime() - start)));
+                        }
+                    }
+                }
+            }
+            writer.flush();
+            listener.onProgress(new TransferProgress(records, 0, total, total,
+                    Duration.ofNanos(System.nanoTime() - start)));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to export users to " + file, e);
+        } catch (RuntimeException e) {
+            logger.error("Error exporting users to {}", file, e);
+            throw new RuntimeException("Failed to export users", e);
+        }
+        Checkpoint.delete(checkpointFile);
+
+        TransferResult result = new TransferResult(records, 0, Duration.ofNanos(System.nanoTime() - start));
+        logger.info("Exported {} users to {} in {} ms, {} users/s", result.records(), file,
+                result.elapsed().toMillis(), Math.round(result.recordsPerSecond()));
+        return result;
+    }
+
+    private Writer open(Path file, long position) throws IOException {
+        if (position < 0) {
+            return new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(file), StandardCharsets.UTF_8),
+                    WRITE_BUFFER_SIZE);
+        }
+        // Rows written after the last checkpoint are exported again
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(position);
+        }
+        return new BufferedWriter(new OutputStreamWriter(
+                Files.newOutputStream(file, StandardOpenOption.APPEND), StandardCharsets.UTF_8), WRITE_BUFFER_SIZE);
+    }
+
+    private static Checkpoint checkpoint(Path file, Writer writer, Checkpoint checkpoint, long lastId, long records,
+                                         Path checkpointFile) throws IOException {
+        writer.flush();
+        Checkpoint next = new Checkpoint(checkpoint.file(), Files.size(file), 0, lastId, records, 0);
+        if (checkpointFile != null) {
+            next.save(checkpointFile);
+        }
+        return next;
+    }
+}
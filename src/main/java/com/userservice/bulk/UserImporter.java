@@ -0,0 +1,278 @@
+package com.userservice.bulk;
+
+import com.userservice.dao.UserDao;
+import com.userservice.model.User;
+import com.userservice.service.UserValidator;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.hibernate.SessionFactory;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Loads users from a CSV or JSON Lines file. The file is read sequentially in chunks, chunks are parsed and
+ * validated with {@link UserValidator} on a worker pool, and written back in file order, one
+ * transaction per chunk: through PostgreSQL {@code COPY} when the connection supports it, otherwise with
+ * {@link UserDao#saveAll}; either way each imported user gets its outbox event when the outbox is enabled. A chunk
+ * that fails (typically a duplicate email) is retried row by row so only the offending rows are rejected.
+ * <p>
+ * Invalid and rejected rows go to {@code <file>.rejects} with their line number and reason. After every chunk the
+ * byte offset reached is saved to the checkpoint file; a later run with the same checkpoint continues from there,
+ * and the checkpoint is deleted once the file has been imported completely.
+ */
+public class UserImporter {
+
+    private static final Logger logger = LogManager.getLogger(UserImporter.class);
+
+    public static final int DEFAULT_CHUNK_SIZE = 1000;
+
+    private final UserDao userDao;
+    private final PgCopyWriter copyWriter;
+    private final int chunkSize;
+    private final int parallelism;
+
+    public UserImporter(UserDao userDao, SessionFactory sessionFactory) {
+        this(userDao, sessionFactory, DEFAULT_CHUNK_SIZE, Runtime.getRuntime().availableProcessors());
+    }
+
+    /** Without a SessionFactory, or when the database isn't PostgreSQL, chunks are written with saveAll. */
+    public UserImporter(UserDao userDao, SessionFactory sessionFactory, int chunkSize, int parallelism) {
+        if (chunkSize <= 0 || parallelism <= 0) {
+            throw new IllegalArgumentException("Chunk size and parallelism must be positive");
+        }
+        this.userDao = userDao;
+        this.copyWriter = sessionFactory != null && PgCopyWriter.isAvailable(sessionFactory)
+                ? new PgCopyWriter(sessionFactory) : null;
+        this.chunkSize = chunkSize;
+        this.parallelism = parallelism;
+    }
+
+    public boolean usesCopy() {
+        return copyWriter != null;
+    }
+
+    /**
+     * Imports {@code file}, resuming from {@code checkpointFile} if it exists. Pass a null checkpoint file to
+     * always start from the beginning.
+     */
+    public TransferResult importFile(Path file, BulkFormat format, Path checkpointFile, ProgressListener listener) {
+        Checkpoint checkpoint = Checkpoint.load(checkpointFile, file);
+        if (checkpoint != null) {
+            logger.info("Resuming import of {} at line {} ({} users imported)", file, checkpoint.line() + 1,
+                    checkpoint.records());
+        } else {
+            checkpoint = Checkpoint.start(file);
+        }
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        ExecutorService validators = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "user-import-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        long start = System.nanoTime();
+        long startRecords = checkpoint.records();
+        long startRejected = checkpoint.rejected();
+        try (LineReader reader = new LineReader(file, checkpoint.position());
+             BufferedWriter rejects = Files.newBufferedWriter(rejectsFile(file), StandardCharsets.UTF_8,
+                     StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            Function<String, UserRecord> parser = parser(file, format, checkpoint.position() == 0 ? reader : null);
+            long line = checkpoint.position() == 0 && format.codec().header() != null ? 1 : checkpoint.line();
+            long size = reader.size();
+
+            Deque<Future<ParsedChunk>> inFlight = new ArrayDeque<>();
+            List<String> lines = new ArrayList<>(chunkSize);
+            String text;
+            while ((text = reader.readLine()) != null) {
+                lines.add(text);
+                if (lines.size() == chunkSize) {
+                    inFlight.add(submit(validators, parser, line + 1, reader.position(), lines));
+                    line += lines.size();
+                    lines = new ArrayList<>(chunkSize);
+                    if (inFlight.size() >= parallelism * 2) {
+                        checkpoint = write(inFlight.poll(), checkpoint, rejects, checkpointFile);
+                        listener.onProgress(progress(checkpoint, startRecords, startRejected, size, start));
+                    }
+                }
+            }
+            if (!lines.isEmpty()) {
+                inFlight.add(submit(validators, parser, line + 1, reader.position(), lines));
+            }
+            while (!inFlight.isEmpty()) {
+                checkpoint = write(inFlight.poll(), checkpoint, rejects, checkpointFile);
+                listener.onProgress(progress(checkpoint, startRecords, startRejected, size, start));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to import " + file, e);
+        } finally {
+            validators.shutdownNow();
+        }
+        Checkpoint.delete(checkpointFile);
+        deleteIfEmpty(rejectsFile(file));
+
+        TransferResult result = new TransferResult(checkpoint.records() - startRecords,
+                checkpoint.rejected() - startRejected,
+                Duration.ofNanos(System.nanoTime() - start));
+        logger.info("Imported {} users from {} ({} rejected) in {} ms, {} users/s{}", result.records(), file,
+                result.rejected(), result.elapsed().toMillis(), Math.round(result.recordsPerSecond()),
+                usesCopy() ? " using COPY" : "");
+        return result;
+    }
+
+    /** Where rejected rows of {@code file} are written. */
+    public static Path rejectsFile(Path file) {
+        return file.resolveSibling(file.getFileName() + ".rejects");
+    }
+
+    private static Function<String, UserRecord> parser(Path file, BulkFormat format, LineReader reader)
+            throws IOException {
+        RecordCodec codec = format.codec();
+        if (codec.header() == null) {
+            return codec.parser(null);
+        }
+        if (reader != null) {
+            return codec.parser(stripBom(reader.readLine()));
+        }
+        // Resuming: the header is still needed to map the columns
+        try (LineReader headerReader = new LineReader(file, 0)) {
+            return codec.parser(stripBom(headerReader.readLine()));
+        }
+    }
+
+    private static String stripBom(String line) {
+        if (line == null) {
+            throw new IllegalArgumentException("Import file is empty");
+        }
+        return !line.isEmpty() && line.charAt(0) == '\uFEFF' ? line.substring(1) : line;
+    }
+
+    private static Future<ParsedChunk> submit(ExecutorService validators, Function<String, UserRecord> parser,
+                                              long firstLine, long endPosition, List<String> lines) {
+        return validators.submit(() -> parse(parser, firstLine, endPosition, lines));
+    }
+
+    private static ParsedChunk parse(Function<String, UserRecord> parser, long firstLine, long endPosition,
+                                     List<String> lines) {
+        List<Row> rows = new ArrayList<>(lines.size());
+        List<Reject> rejects = new ArrayList<>();
+        for (int i = 0; i < lines.size(); i++) {
+            long line = firstLine + i;
+            String text = lines.get(i);
+            if (text.isBlank()) {
+                continue;
+            }
+            try {
+                UserRecord record = parser.apply(text);
+                UserValidator.instance().validate(record.name(), record.email(), record.age());
+                rows.add(new Row(line, text, record));
+            } catch (IllegalArgumentException e) {
+                rejects.add(new Reject(line, e.getMessage(), text));
+            }
+        }
+        return new ParsedChunk(firstLine + lines.size() - 1, endPosition, rows, rejects);
+    }
+
+    private Checkpoint write(Future<ParsedChunk> future, Checkpoint checkpoint, BufferedWriter rejectsWriter,
+                             Path checkpointFile) throws IOException {
+        ParsedChunk chunk;
+        try {
+            chunk = future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Import interrupted", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Failed to parse import chunk", e.getCause());
+        }
+
+        List<Reject> rejects = new ArrayList<>(chunk.rejects());
+        int written = chunk.rows().isEmpty() ? 0 : writeRows(chunk.rows(), rejects);
+        for (Reject reject : rejects) {
+            rejectsWriter.write(reject.line() + "\t" + reject.reason() + "\t" + reject.text());
+            rejectsWriter.newLine();
+        }
+        rejectsWriter.flush();
+
+        Checkpoint next = new Checkpoint(checkpoint.file(), chunk.endPosition(), chunk.lastLine(), 0,
+                checkpoint.records() + written, checkpoint.rejected() + rejects.size());
+        if (checkpointFile != null) {
+            next.save(checkpointFile);
+        }
+        return next;
+    }
+
+    private int writeRows(List<Row> rows, List<Reject> rejects) {
+        List<User> users = rows.stream().map(row -> row.record().toUser()).toList();
+        try {
+            if (copyWriter != null) {
+                copyWriter.write(users);
+            } else {
+                userDao.saveAll(users);
+            }
+            return users.size();
+        } catch (RuntimeException e) {
+            logger.warn("Chunk of {} users starting at line {} failed, importing it row by row",
+                    rows.size(), rows.get(0).line(), e);
+        }
+        int written = 0;
+        for (Row row : rows) {
+            try {
+                userDao.save(row.record().toUser());
+                written++;
+            } catch (RuntimeException e) {
+                rejects.add(new Reject(row.line(), rootMessage(e), row.text()));
+            }
+        }
+        return written;
+    }
+
+    private static String rootMessage(Throwable e) {
+        Throwable root = e;
+        while (root.getCause() != null) {
+            root = root.getCause();
+        }
+        String message = root.getMessage() == null ? root.getClass().getSimpleName() : root.getMessage();
+        return message.replace('\n', ' ').replace('\t', ' ');
+    }
+
+    private static void deleteIfEmpty(Path file) {
+        try {
+            if (Files.size(file) == 0) {
+                Files.delete(file);
+            }
+        } catch (IOException e) {
+            logger.debug("Could not clean up {}", file, e);
+        }
+    }
+
+    private static TransferProgress progress(Checkpoint checkpoint, long startRecords, long startRejected, long size,
+                                             long start) {
+        return new TransferProgress(checkpoint.records() - startRecords, checkpoint.rejected() - startRejected,
+                checkpoint.position(), size, Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    private record Row(long line, String text, UserRecord record) {
+    }
+
+    private record Reject(long line, String reason, String text) {
+    }
+
+    private record ParsedChunk(long lastLine, long endPosition, List<Row> rows, List<Reject> rejects) {
+    }
+}
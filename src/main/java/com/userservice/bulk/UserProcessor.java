@@ -0,0 +1,281 @@
+package com.userservice.bulk;
+
+import com.userservice.dao.UserDao;
+import com.userservice.model.IdRange;
+import com.userservice.model.User;
+import com.userservice.util.ConnectionPoolMetrics;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.hibernate.SessionFactory;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongConsumer;
+import java.util.stream.Stream;
+
+/**
+ * Visits every user with several workers at once, for jobs such as re-validation, enrichment or aggregation. The id
+ * range of the table is split into partitions, a few per worker, so that workers whose partitions hold fewer users
+ * take over more of them. Each worker is a virtual thread that streams one partition at a time through
+ * {@link UserDao#streamRange}, which with {@link com.userservice.dao.UserDaoImpl} is a stateless session and cursor
+ * of its own. Given the SessionFactories those cursors come from, the constructor caps the parallelism at what the
+ * smallest of their connection pools can serve, see {@link #parallelismFor}.
+ * <p>
+ * {@link #forEachUser} saves the last id each partition has finished to the checkpoint file every
+ * {@code checkpointInterval} users and when the partition is done. A later run with the same checkpoint file keeps
+ * the partitions of the first run and continues each of them after its checkpoint, so users visited after the last
+ * checkpoint are visited again, and users created since with ids above the first run's range are not visited.
+ * The checkpoint is deleted once every partition is done.
+ * <p>
+ * Progress is reported from the worker threads as ids of the range covered, after every checkpoint interval and
+ * every finished partition. If the callback throws, the other workers stop at their next user and the first
+ * exception is rethrown.
+ */
+public class UserProcessor {
+
+    private static final Logger logger = LogManager.getLogger(UserProcessor.class);
+
+    public static final int DEFAULT_CHECKPOINT_INTERVAL = 1000;
+
+    private static final int PARTITIONS_PER_WORKER = 4;
+    // Connections left to the rest of the application when the workers are sized by the pool
+    private static final int RESERVED_CONNECTIONS = 2;
+
+    private final UserDao userDao;
+    private final int parallelism;
+    private final int checkpointInterval;
+
+    /** Runs {@code parallelism} workers as given, for DAOs that don't hold a connection per stream. */
+    public UserProcessor(UserDao userDao, int parallelism) {
+        this(userDao, parallelism, DEFAULT_CHECKPOINT_INTERVAL);
+    }
+
+    public UserProcessor(UserDao userDao, int parallelism, int checkpointInterval) {
+        this(userDao, List.of(), parallelism, checkpointInterval);
+    }
+
+    /**
+     * Runs at most {@code parallelism} workers, and no more than each pool in {@code pools} can serve while leaving a
+     * couple of connections to the rest of the application. {@code pools} are the SessionFactories
+     * {@code userDao} streams from: the primary, and the replica when reads go to one, as a stream opens on the
+     * primary while the replica is down.
+     */
+    public UserProcessor(UserDao userDao, List<SessionFactory> pools, int parallelism, int checkpointInterval) {
+        if (parallelism <= 0 || checkpointInterval <= 0) {
+            throw new IllegalArgumentException("Parallelism and checkpoint interval must be positive");
+        }
+        int bounded = parallelism;
+        for (SessionFactory pool : pools) {
+            bounded = Math.min(bounded, poolLimit(pool).orElse(bounded));
+        }
+        if (bounded < parallelism) {
+            logger.warn("Parallelism {} exceeds the connection pool, running {} workers", parallelism, bounded);
+        }
+        this.userDao = userDao;
+        this.parallelism = bounded;
+        this.checkpointInterval = checkpointInterval;
+    }
+
+    /**
+     * One worker per core, but no more than the connection pool of {@code sessionFactory} can serve while leaving
+     * a couple of connections to the rest of the application.
+     */
+    public static int parallelismFor(SessionFactory sessionFactory) {
+        int cores = Runtime.getRuntime().availableProcessors();
+        return Math.min(cores, poolLimit(sessionFactory).orElse(cores));
+    }
+
+    int parallelism() {
+        return parallelism;
+    }
+
+    private static OptionalInt poolLimit(SessionFactory sessionFactory) {
+        return ConnectionPoolMetrics.snapshot(sessionFactory)
+                .map(pool -> OptionalInt.of(Math.max(1, pool.maxPoolSize() - RESERVED_CONNECTIONS)))
+                .orElse(OptionalInt.empty());
+    }
+
+    /**
+     * Passes every user to {@code action}, resuming from {@code checkpointFile} if it exists. {@code action} is
+     * called from several threads at once. Pass a null checkpoint file to always start from the beginning.
+     */
+    public TransferResult forEachUser(Consumer<? super User> action, Path checkpointFile, ProgressListener listener) {
+        PartitionCheckpoint checkpoint = PartitionCheckpoint.load(checkpointFile);
+        if (checkpoint != null) {
+            logger.info("Resuming processing of user ids {} to {} in {} partitions", checkpoint.range().first(),
+                    checkpoint.range().last(), checkpoint.partitions());
+        } else {
+            Optional<IdRange> range = userDao.findIdRange();
+            if (range.isEmpty()) {
+                return new TransferResult(0, 0, Duration.ZERO);
+            }
+            checkpoint = PartitionCheckpoint.start(checkpointFile, range.get(), parallelism * PARTITIONS_PER_WORKER);
+            checkpoint.save();
+        }
+
+        List<Integer> partitions = new ArrayList<>();
+        List<IdRange> ranges = new ArrayList<>();
+        for (int i = 0; i < checkpoint.partitions(); i++) {
+            IdRange remaining = checkpoint.remaining(i);
+            if (remaining != null) {
+                partitions.add(i);
+                ranges.add(remaining);
+            }
+        }
+        PartitionCheckpoint saved = checkpoint;
+        Run run = new Run(ranges, listener);
+        process(run, (index, range) -> {
+            int partition = partitions.get(index);
+            visit(range, run, action, lastId -> saved.save(partition, lastId));
+            return null;
+        });
+        Checkpoint.delete(checkpointFile);
+
+        TransferResult result = new TransferResult(run.records.sum(), 0, run.elapsed());
+        logger.info("Processed {} users with {} workers in {} ms, {} users/s", result.records(), parallelism,
+                result.elapsed().toMillis(), Math.round(result.recordsPerSecond()));
+        return result;
+    }
+
+    /**
+     * Maps every user and reduces the results: each partition reduces its own users starting from
+     * {@code identity}, then the partition results are reduced in id order. {@code reducer} must be associative
+     * with {@code identity} as its identity. Nothing is checkpointed; an interrupted reduction starts over.
+     */
+    public <R> R mapReduce(Function<? super User, ? extends R> mapper, R identity, BinaryOperator<R> reducer,
+                           ProgressListener listener) {
+        Optional<IdRange> range = userDao.findIdRange();
+        if (range.isEmpty()) {
+            return identity;
+        }
+        Run run = new Run(range.get().split(parallelism * PARTITIONS_PER_WORKER), listener);
+        List<R> partials = process(run, (index, partition) -> {
+            AtomicReference<R> partial = new AtomicReference<>(identity);
+            visit(partition, run, user -> partial.set(reducer.apply(partial.get(), mapper.apply(user))), lastId -> {
+            });
+            return partial.get();
+        });
+        R result = identity;
+        for (R partial : partials) {
+            result = reducer.apply(result, partial);
+        }
+        logger.info("Reduced {} users with {} workers in {} ms", run.records.sum(), parallelism,
+                run.elapsed().toMillis());
+        return result;
+    }
+
+    /** Runs {@code work} on every range of {@code run} on up to {@code parallelism} workers, results in range order. */
+    private <R> List<R> process(Run run, PartitionWork<R> work) {
+        AtomicInteger next = new AtomicInteger();
+        AtomicReferenceArray<R> results = new AtomicReferenceArray<>(run.ranges.size());
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < Math.min(parallelism, run.ranges.size()); i++) {
+                workers.execute(() -> {
+                    int index;
+                    while (!run.stopped() && (index = next.getAndIncrement()) < run.ranges.size()) {
+                        try {
+                            results.set(index, work.process(index, run.ranges.get(index)));
+                        } catch (RuntimeException | Error e) {
+                            run.fail(e);
+                        }
+                    }
+                });
+            }
+        }
+        Throwable failure = run.failure.get();
+        if (failure != null) {
+            logger.error("Processing users failed after {} users", run.records.sum(), failure);
+            if (failure instanceof Error error) {
+                throw error;
+            }
+            throw (RuntimeException) failure;
+        }
+        List<R> list = new ArrayList<>(results.length());
+        for (int i = 0; i < results.length(); i++) {
+            list.add(results.get(i));
+        }
+        return list;
+    }
+
+    /**
+     * Feeds the users of {@code range} to {@code visitor}, calling {@code checkpoint} with the last id visited every
+     * checkpoint interval and with the end of the range once it is done. Returns early if the run has stopped.
+     */
+    private void visit(IdRange range, Run run, Consumer<? super User> visitor, LongConsumer checkpoint) {
+        long visited = 0;
+        long reportedId = range.first() - 1;
+        try (Stream<User> users = userDao.streamRange(range)) {
+            Iterator<User> iterator = users.iterator();
+            while (iterator.hasNext()) {
+                if (run.stopped()) {
+                    return;
+                }
+                User user = iterator.next();
+                visitor.accept(user);
+                if (++visited % checkpointInterval == 0) {
+                    checkpoint.accept(user.getId());
+                    run.advance(checkpointInterval, user.getId() - reportedId);
+                    reportedId = user.getId();
+                }
+            }
+        }
+        checkpoint.accept(range.last());
+        run.advance(visited % checkpointInterval, range.last() - reportedId);
+    }
+
+    @FunctionalInterface
+    private interface PartitionWork<R> {
+        R process(int index, IdRange range);
+    }
+
+    /** State the workers of one run share. */
+    private static final class Run {
+
+        private final List<IdRange> ranges;
+        private final ProgressListener listener;
+        private final long total;
+        private final long start = System.nanoTime();
+        private final LongAdder records = new LongAdder();
+        private final AtomicLong completed = new AtomicLong();
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        Run(List<IdRange> ranges, ProgressListener listener) {
+            this.ranges = ranges;
+            this.listener = listener;
+            this.total = ranges.stream().mapToLong(IdRange::size).sum();
+        }
+
+        boolean stopped() {
+            return failure.get() != null;
+        }
+
+        void fail(Throwable e) {
+            failure.compareAndSet(null, e);
+        }
+
+        void advance(long users, long ids) {
+            records.add(users);
+            long done = completed.addAndGet(ids);
+            listener.onProgress(new TransferProgress(records.sum(), 0, done, total, elapsed()));
+        }
+
+        Duration elapsed() {
+            return Duration.ofNanos(System.nanoTime() - start);
+        }
+    }
+}
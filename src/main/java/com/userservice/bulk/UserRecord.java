@@ -0,0 +1,17 @@
+package com.userservice.bulk;
+
+import com.userservice.model.User;
+
+import java.time.LocalDateTime;
+
+/** One user as read from an import file; {@code createdAt} is kept when the file has it (e.g. an export). */
+record UserRecord(String name, String email, Integer age, LocalDateTime createdAt) {
+
+    User toUser() {
+        User user = new User(name, email, age);
+        if (createdAt != null) {
+            user.setCreatedAt(createdAt);
+        }
+        return user;
+    }
+}
@@ -0,0 +1,14 @@
+package com.userservice.dao;
+
+/**
+ * Thrown by the DAO layer when the database fails or refuses an operation. Subclasses name the failures callers
+ * can act on; anything else is a plain {@code DataAccessException} with the driver or Hibernate error as cause.
+ */
+public class DataAccessException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public DataAccessException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,21 @@
+package com.userservice.dao;
+
+/**
+ * Thrown when a write would give a user an email another user already has. The email is null when a batch
+ * failed and the database didn't say which row caused it.
+ */
+public class DuplicateEmailException extends DataAccessException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String email;
+
+    public DuplicateEmailException(String email, Throwable cause) {
+        super(email == null ? "Email already in use" : "Email already in use: " + email, cause);
+        this.email = email;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+}
@@ -0,0 +1,54 @@
+package com.userservice.dao;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bounded, TTL-evicting near cache of email → id in front of the natural-id lookups.
+ * Only positive results are cached; the reverse index lets writes that only know the id
+ * (update with a new email, delete) drop the stale mapping. Each DAO instance holds its own cache,
+ * so writes made elsewhere become visible at the latest after the TTL.
+ */
+class EmailIdCache {
+
+    private final Map<Long, String> emailsById = new ConcurrentHashMap<>();
+    private final Cache<String, Long> idsByEmail;
+
+    EmailIdCache(long maximumSize, Duration timeToLive) {
+        this.idsByEmail = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(timeToLive)
+                .evictionListener((String email, Long id, RemovalCause cause) -> emailsById.remove(id, email))
+                .build();
+    }
+
+    Long getId(String email) {
+        return email == null ? null : idsByEmail.getIfPresent(email);
+    }
+
+    void put(String email, Long id) {
+        if (email == null || id == null) {
+            return;
+        }
+        String previous = emailsById.put(id, email);
+        if (previous != null && !previous.equals(email)) {
+            idsByEmail.asMap().remove(previous, id);
+        }
+        idsByEmail.put(email, id);
+    }
+
+    void evict(Long id) {
+        if (id == null) {
+            return;
+        }
+        String email = emailsById.remove(id);
+        if (email != null) {
+            idsByEmail.asMap().remove(email, id);
+        }
+    }
+}
@@ -0,0 +1,422 @@
+package com.userservice.dao;
+
+import com.userservice.model.IdRange;
+import com.userservice.model.PageRequest;
+import com.userservice.model.User;
+import com.userservice.model.UserPatch;
+import com.userservice.model.UserQuery;
+import com.userservice.model.UserSort;
+import com.userservice.model.UserStatistics;
+import com.userservice.model.UserSummary;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * {@link UserDao} kept in memory, for tests that shouldn't need a database and as a local stand-in store. It follows
+ * the contract of {@link UserDaoImpl}: generated ids and versions, unique emails ({@link DuplicateEmailException}),
+ * version conflicts, keyset ordering, and detached copies on every read and write.
+ * <p>
+ * Nothing is locked. Rows are immutable snapshots in a skip list keyed by id, so id order comes for free, and every
+ * change is a compare-and-set against the snapshot that was read. An email is reserved in the email index with
+ * {@code putIfAbsent} before the row claiming it is written, and released after the row has moved on, so two users
+ * can never hold the same email. {@code saveAll} and {@code updateAll} check the whole batch before writing any of
+ * it; unlike a database transaction they are not isolated from concurrent writers.
+ */
+public class InMemoryUserDao implements UserDao {
+
+    private final ConcurrentNavigableMap<Long, Row> users = new ConcurrentSkipListMap<>();
+    private final ConcurrentMap<String, Long> idsByEmail = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+
+    /** A store holding a copy of every user in {@code source}, with their ids and versions. */
+    public static InMemoryUserDao copyOf(UserDao source) {
+        InMemoryUserDao copy = new InMemoryUserDao();
+        try (Stream<User> users = source.streamAll()) {
+            users.forEach(user -> {
+                Row row = new Row(user.getId(), user.getName(), user.getEmail(), user.getAge(), user.getCreatedAt(),
+                        user.getVersion() == null ? 0 : user.getVersion());
+                copy.reserve(row.email(), row.id());
+                copy.users.put(row.id(), row);
+                copy.sequence.accumulateAndGet(row.id(), Math::max);
+            });
+        }
+        return copy;
+    }
+
+    @Override
+    public User save(User user) {
+        checkNew(user);
+        long id = sequence.incrementAndGet();
+        reserve(user.getEmail(), id);
+        users.put(id, new Row(id, user.getName(), user.getEmail(), user.getAge(), user.getCreatedAt(), 0));
+        user.setId(id);
+        user.setVersion(0L);
+        return user;
+    }
+
+    @Override
+    public Optional<User> findById(Long id) {
+        return row(id).map(Row::toUser);
+    }
+
+    @Override
+    public Optional<User> findByEmail(String email) {
+        return rowByEmail(email).map(Row::toUser);
+    }
+
+    @Override
+    public List<User> findAllByIds(Collection<Long> ids) {
+        List<User> found = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Row row = id == null ? null : users.get(id);
+            if (row != null) {
+                found.add(row.toUser());
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public boolean existsByEmail(String email) {
+        return rowByEmail(email).isPresent();
+    }
+
+    @Override
+    public List<User> findAll() {
+        return users.values().stream().map(Row::toUser).toList();
+    }
+
+    @Override
+    public List<User> findPage(Long afterId, int limit) {
+        return after(afterId).limit(limit).map(Row::toUser).toList();
+    }
+
+    @Override
+    public List<User> search(UserQuery query, PageRequest page) {
+        Comparator<Row> order = Comparator.<Row, Comparable<Object>>comparing(row -> sortKey(row, page.sort()))
+                .thenComparingLong(Row::id);
+        if (page.descending()) {
+            order = order.reversed();
+        }
+        Stream<Row> matches = users.values().stream().filter(matcher(query));
+        if (!page.isFirst()) {
+            Row cursor = cursor(page);
+            Comparator<Row> comparator = order;
+            matches = matches.filter(row -> comparator.compare(row, cursor) > 0);
+        }
+        return matches.sorted(order).limit(page.size()).map(Row::toUser).toList();
+    }
+
+    @Override
+    public Stream<User> streamAll() {
+        return users.values().stream().map(Row::toUser);
+    }
+
+    @Override
+    public Optional<UserSummary> findSummaryById(Long id) {
+        return row(id).map(Row::toSummary);
+    }
+
+    @Override
+    public List<UserSummary> findSummaryPage(Long afterId, int limit) {
+        return after(afterId).limit(limit).map(Row::toSummary).toList();
+    }
+
+    @Override
+    public Stream<UserSummary> streamSummaries() {
+        return users.values().stream().map(Row::toSummary);
+    }
+
+    @Override
+    public Optional<IdRange> findIdRange() {
+        Map.Entry<Long, Row> first = users.firstEntry();
+        Map.Entry<Long, Row> last = users.lastEntry();
+        if (first == null || last == null) {
+            return Optional.empty();
+        }
+        return Optional.of(new IdRange(first.getKey(), last.getKey()));
+    }
+
+    @Override
+    public Stream<User> streamRange(IdRange range) {
+        return users.subMap(range.first(), true, range.last(), true).values().stream().map(Row::toUser);
+    }
+
+    @Override
+    public UserStatistics statistics(LocalDate signupsSince) {
+        Objects.requireNonNull(signupsSince, "signupsSince");
+        LocalDateTime since = signupsSince.atStartOfDay();
+        SortedMap<Integer, Long> usersByAge = new TreeMap<>();
+        SortedMap<LocalDate, Long> signupsByDay = new TreeMap<>();
+        long total = 0;
+        for (Row row : users.values()) {
+            total++;
+            usersByAge.merge(row.age(), 1L, Long::sum);
+            if (row.createdAt() != null && !row.createdAt().isBefore(since)) {
+                signupsByDay.merge(row.createdAt().toLocalDate(), 1L, Long::sum);
+            }
+        }
+        return new UserStatistics(total, usersByAge, signupsByDay, Instant.now());
+    }
+
+    @Override
+    public User update(User user) {
+        checkColumns(user.getName(), user.getEmail());
+        while (true) {
+            Row current = existing(user.getId());
+            if (user.getVersion() != null && user.getVersion() != current.version()) {
+                throw new OptimisticLockConflictException(user.getId(), null);
+            }
+            if (current.hasValues(user.getName(), user.getEmail(), user.getAge())) {
+                // Like @DynamicUpdate with no dirty fields: no write, no version bump
+                return current.toUser();
+            }
+            Row next = current.with(user.getName(), user.getEmail(), user.getAge());
+            if (replace(current, next)) {
+                return next.toUser();
+            }
+            // Lost a race with another writer: conflict if the caller holds a version, otherwise last write wins
+        }
+    }
+
+    @Override
+    public int patch(Long id, UserPatch patch) {
+        return patch(id, null, patch);
+    }
+
+    @Override
+    public int patch(Long id, long expectedVersion, UserPatch patch) {
+        return patch(id, Long.valueOf(expectedVersion), patch);
+    }
+
+    private int patch(Long id, Long expectedVersion, UserPatch patch) {
+        if (patch.isEmpty()) {
+            throw new IllegalArgumentException("Patch has no fields to update");
+        }
+        while (true) {
+            Row current = id == null ? null : users.get(id);
+            if (current == null) {
+                return 0;
+            }
+            if (expectedVersion != null && expectedVersion != current.version()) {
+                throw new OptimisticLockConflictException(id, null);
+            }
+            // UPDATE VERSIONED bumps the version even when the values don't change
+            Row next = current.with(Objects.requireNonNullElse(patch.name(), current.name()),
+                    Objects.requireNonNullElse(patch.email(), current.email()),
+                    patch.age() == null ? current.age() : patch.age());
+            checkColumns(next.name(), next.email());
+            if (replace(current, next)) {
+                return 1;
+            }
+        }
+    }
+
+    @Override
+    public int deleteById(Long id) {
+        Row removed = id == null ? null : users.remove(id);
+        if (removed == null) {
+            return 0;
+        }
+        idsByEmail.remove(removed.email(), removed.id());
+        return 1;
+    }
+
+    @Override
+    public List<User> saveAll(Collection<User> batch) {
+        List<User> pending = new ArrayList<>(batch);
+        pending.forEach(InMemoryUserDao::checkNew);
+        long[] ids = new long[pending.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = sequence.incrementAndGet();
+            try {
+                reserve(pending.get(i).getEmail(), ids[i]);
+            } catch (DuplicateEmailException e) {
+                for (int j = 0; j < i; j++) {
+                    idsByEmail.remove(pending.get(j).getEmail(), ids[j]);
+                }
+                throw e;
+            }
+        }
+        for (int i = 0; i < ids.length; i++) {
+            User user = pending.get(i);
+            users.put(ids[i], new Row(ids[i], user.getName(), user.getEmail(), user.getAge(), user.getCreatedAt(), 0));
+            user.setId(ids[i]);
+            user.setVersion(0L);
+        }
+        return pending;
+    }
+
+    @Override
+    public List<User> updateAll(Collection<User> batch) {
+        List<User> pending = new ArrayList<>(batch);
+        List<String> emails = new ArrayList<>(pending.size());
+        for (User user : pending) {
+            checkColumns(user.getName(), user.getEmail());
+            Row current = existing(user.getId());
+            if (user.getVersion() != null && user.getVersion() != current.version()) {
+                throw new OptimisticLockConflictException(user.getId(), null);
+            }
+            Long owner = idsByEmail.get(user.getEmail());
+            if ((owner != null && !owner.equals(user.getId())) || emails.contains(user.getEmail())) {
+                throw new DuplicateEmailException(user.getEmail(), null);
+            }
+            emails.add(user.getEmail());
+        }
+        pending.forEach(this::update);
+        return pending;
+    }
+
+    @Override
+    public int deleteAllById(Collection<Long> ids) {
+        int deleted = 0;
+        for (Long id : new LinkedHashSet<>(ids)) {
+            deleted += deleteById(id);
+        }
+        return deleted;
+    }
+
+    private Optional<Row> row(Long id) {
+        if (id == null) {
+            throw new IllegalArgumentException("Id must not be null");
+        }
+        return Optional.ofNullable(users.get(id));
+    }
+
+    private Row existing(Long id) {
+        Row current = id == null ? null : users.get(id);
+        if (current == null) {
+            throw new UserNotFoundException(id);
+        }
+        return current;
+    }
+
+    private Optional<Row> rowByEmail(String email) {
+        Long id = email == null ? null : idsByEmail.get(email);
+        Row row = id == null ? null : users.get(id);
+        // The index briefly points at users whose email is changing; the row has the final say
+        return row != null && row.email().equals(email) ? Optional.of(row) : Optional.empty();
+    }
+
+    private Stream<Row> after(Long afterId) {
+        return users.tailMap(afterId == null ? Long.MIN_VALUE : afterId, false).values().stream();
+    }
+
+    private void reserve(String email, long id) {
+        Long owner = idsByEmail.putIfAbsent(email, id);
+        if (owner != null && owner != id) {
+            throw new DuplicateEmailException(email, null);
+        }
+    }
+
+    /** Swaps in {@code next} if the row is still {@code current}; false if another writer got there first. */
+    private boolean replace(Row current, Row next) {
+        boolean emailChanged = !current.email().equals(next.email());
+        if (emailChanged) {
+            reserve(next.email(), next.id());
+        }
+        if (users.replace(current.id(), current, next)) {
+            if (emailChanged) {
+                idsByEmail.remove(current.email(), current.id());
+            }
+            return true;
+        }
+        if (emailChanged) {
+            Row latest = users.get(current.id());
+            if (latest == null || !latest.email().equals(next.email())) {
+                idsByEmail.remove(next.email(), next.id());
+            }
+        }
+        return false;
+    }
+
+    private static void checkNew(User user) {
+        if (user.getId() != null) {
+            throw new IllegalArgumentException("User with id " + user.getId() + " is already saved");
+        }
+        if (user.getCreatedAt() == null) {
+            throw new IllegalArgumentException("Creation time is required");
+        }
+        checkColumns(user.getName(), user.getEmail());
+    }
+
+    // The NOT NULL and length constraints of the users table
+    private static void checkColumns(String name, String email) {
+        if (name == null || email == null) {
+            throw new IllegalArgumentException("Name and email are required");
+        }
+        if (name.length() > User.NAME_MAX_LENGTH || email.length() > User.EMAIL_MAX_LENGTH) {
+            throw new IllegalArgumentException("Name or email too long");
+        }
+    }
+
+    private static Predicate<Row> matcher(UserQuery query) {
+        String prefix = query.namePrefix() == null || query.namePrefix().isEmpty()
+                ? null : query.namePrefix().toLowerCase(Locale.ROOT);
+        return row -> (query.minAge() == null || row.age() >= query.minAge())
+                && (query.maxAge() == null || row.age() <= query.maxAge())
+                && (prefix == null || row.name().toLowerCase(Locale.ROOT).startsWith(prefix))
+                && (query.createdFrom() == null || !row.createdAt().isBefore(query.createdFrom()))
+                && (query.createdBefore() == null || row.createdAt().isBefore(query.createdBefore()));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Comparable<Object> sortKey(Row row, UserSort sort) {
+        Comparable<?> key = switch (sort) {
+            case ID -> row.id();
+            case AGE -> row.age();
+            case CREATED_AT -> row.createdAt();
+        };
+        return (Comparable<Object>) key;
+    }
+
+    /** A row that sorts exactly where the last user of the previous page did. */
+    private static Row cursor(PageRequest page) {
+        return switch (page.sort()) {
+            case ID -> new Row(page.afterId(), null, null, 0, null, 0);
+            case AGE -> new Row(page.afterId(), null, null, (Integer) page.afterValue(), null, 0);
+            case CREATED_AT -> new Row(page.afterId(), null, null, 0, (LocalDateTime) page.afterValue(), 0);
+        };
+    }
+
+    private record Row(long id, String name, String email, int age, LocalDateTime createdAt, long version) {
+
+        boolean hasValues(String name, String email, int age) {
+            return this.name.equals(name) && this.email.equals(email) && this.age == age;
+        }
+
+        Row with(String name, String email, int age) {
+            return new Row(id, name, email, age, createdAt, version + 1);
+        }
+
+        User toUser() {
+            User user = new User(id, name, email, age, createdAt);
+            user.setVersion(version);
+            return user;
+        }
+
+        UserSummary toSummary() {
+            return new UserSummary(id, name, email);
+        }
+    }
+}
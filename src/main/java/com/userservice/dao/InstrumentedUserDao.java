@@ -0,0 +1,371 @@
+package com.userservice.dao;
+
+import com.userservice.metrics.MetricsRegistry;
+import com.userservice.metrics.OperationMetrics;
+import com.userservice.model.IdRange;
+import com.userservice.model.PageRequest;
+import com.userservice.model.User;
+import com.userservice.model.UserPatch;
+import com.userservice.model.UserQuery;
+import com.userservice.model.UserStatistics;
+import com.userservice.model.UserSummary;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * {@link UserDao} decorator recording latency and errors of every call into a {@link MetricsRegistry},
+ * one operation per method name. Recording is allocation-free, so it can stay on in production.
+ * For {@link #streamAll()} and the other streams only opening the cursor is timed. Transactions are not an
+ * operation of their own: the calls made inside one are recorded as usual.
+ */
+public class InstrumentedUserDao implements UserDao {
+
+    private final UserDao delegate;
+    private final OperationMetrics save;
+    private final OperationMetrics findById;
+    private final OperationMetrics findByEmail;
+    private final OperationMetrics findAllByIds;
+    private final OperationMetrics existsByEmail;
+    private final OperationMetrics findAll;
+    private final OperationMetrics findPage;
+    private final OperationMetrics search;
+    private final OperationMetrics streamAll;
+    private final OperationMetrics findSummaryById;
+    private final OperationMetrics findSummaryPage;
+    private final OperationMetrics streamSummaries;
+    private final OperationMetrics findIdRange;
+    private final OperationMetrics streamRange;
+    private final OperationMetrics statistics;
+    private final OperationMetrics update;
+    private final OperationMetrics patch;
+    private final OperationMetrics deleteById;
+    private final OperationMetrics saveAll;
+    private final OperationMetrics updateAll;
+    private final OperationMetrics deleteAllById;
+
+    public InstrumentedUserDao(UserDao delegate, MetricsRegistry registry) {
+        this.delegate = delegate;
+        this.save = registry.operation("save");
+        this.findById = registry.operation("findById");
+        this.findByEmail = registry.operation("findByEmail");
+        this.findAllByIds = registry.operation("findAllByIds");
+        this.existsByEmail = registry.operation("existsByEmail");
+        this.findAll = registry.operation("findAll");
+        this.findPage = registry.operation("findPage");
+        this.search = registry.operation("search");
+        this.streamAll = registry.operation("streamAll");
+        this.findSummaryById = registry.operation("findSummaryById");
+        this.findSummaryPage = registry.operation("findSummaryPage");
+        this.streamSummaries = registry.operation("streamSummaries");
+        this.findIdRange = registry.operation("findIdRange");
+        this.streamRange = registry.operation("streamRange");
+        this.statistics = registry.operation("statistics");
+        this.update = registry.operation("update");
+        this.patch = registry.operation("patch");
+        this.deleteById = registry.operation("deleteById");
+        this.saveAll = registry.operation("saveAll");
+        this.updateAll = registry.operation("updateAll");
+        this.deleteAllById = registry.operation("deleteAllById");
+    }
+
+    @Override
+    public User save(User user) {
+        long start = System.nanoTime();
+        try {
+            return delegate.save(user);
+        } catch (RuntimeException e) {
+            this.save.error();
+            throw e;
+        } finally {
+            this.save.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public Optional<User> findById(Long id) {
+        long start = System.nanoTime();
+        try {
+            return delegate.findById(id);
+        } catch (RuntimeException e) {
+            this.findById.error();
+            throw e;
+        } finally {
+            this.findById.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public Optional<User> findByEmail(String email) {
+        long start = System.nanoTime();
+        try {
+            return delegate.findByEmail(email);
+        } catch (RuntimeException e) {
+            this.findByEmail.error();
+            throw e;
+        } finally {
+            this.findByEmail.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public List<User> findAllByIds(Collection<Long> ids) {
+        long start = System.nanoTime();
+        try {
+            return delegate.findAllByIds(ids);
+        } catch (RuntimeException e) {
+            this.findAllByIds.error();
+            throw e;
+        } finally {
+            this.findAllByIds.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public boolean existsByEmail(String email) {
+        long start = System.nanoTime();
+        try {
+            return delegate.existsByEmail(email);
+        } catch (RuntimeException e) {
+            this.existsByEmail.error();
+            throw e;
+        } finally {
+            this.existsByEmail.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public List<User> findAll() {
+        long start = System.nanoTime();
+        try {
+            return delegate.findAll();
+        } catch (RuntimeException e) {
+            this.findAll.error();
+            throw e;
+        } finally {
+            this.findAll.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public List<User> findPage(Long afterId, int limit) {
+        long start = System.nanoTime();
+        try {
+            return delegate.findPage(afterId, limit);
+        } catch (RuntimeException e) {
+            this.findPage.error();
+            throw e;
+        } finally {
+            this.findPage.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public List<User> search(UserQuery query, PageRequest page) {
+        long start = System.nanoTime();
+        try {
+            return delegate.search(query, page);
+        } catch (RuntimeException e) {
+            this.search.error();
+            throw e;
+        } finally {
+            this.search.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public Stream<User> streamAll() {
+        long start = System.nanoTime();
+        try {
+            return delegate.streamAll();
+        } catch (RuntimeException e) {
+            this.streamAll.error();
+            throw e;
+        } finally {
+            this.streamAll.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public Optional<UserSummary> findSummaryById(Long id) {
+        long start = System.nanoTime();
+        try {
+            return delegate.findSummaryById(id);
+        } catch (RuntimeException e) {
+            this.findSummaryById.error();
+            throw e;
+        } finally {
+            this.findSummaryById.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public List<UserSummary> findSummaryPage(Long afterId, int limit) {
+        long start = System.nanoTime();
+        try {
+            return delegate.findSummaryPage(afterId, limit);
+        } catch (RuntimeException e) {
+            this.findSummaryPage.error();
+            throw e;
+        } finally {
+            this.findSummaryPage.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public Stream<UserSummary> streamSummaries() {
+        long start = System.nanoTime();
+        try {
+            return delegate.streamSummaries();
+        } catch (RuntimeException e) {
+            this.streamSummaries.error();
+            throw e;
+        } finally {
+            this.streamSummaries.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public Optional<IdRange> findIdRange() {
+        long start = System.nanoTime();
+        try {
+            return delegate.findIdRange();
+        } catch (RuntimeException e) {
+            this.findIdRange.error();
+            throw e;
+        } finally {
+            this.findIdRange.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public Stream<User> streamRange(IdRange range) {
+        long start = System.nanoTime();
+        try {
+            return delegate.streamRange(range);
+        } catch (RuntimeException e) {
+            this.streamRange.error();
+            throw e;
+        } finally {
+            this.streamRange.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public UserStatistics statistics(LocalDate signupsSince) {
+        long start = System.nanoTime();
+        try {
+            return delegate.statistics(signupsSince);
+        } catch (RuntimeException e) {
+            this.statistics.error();
+            throw e;
+        } finally {
+            this.statistics.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public User update(User user) {
+        long start = System.nanoTime();
+        try {
+            return delegate.update(user);
+        } catch (RuntimeException e) {
+            this.update.error();
+            throw e;
+        } finally {
+            this.update.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public int patch(Long id, UserPatch patch) {
+        long start = System.nanoTime();
+        try {
+            return delegate.patch(id, patch);
+        } catch (RuntimeException e) {
+            this.patch.error();
+            throw e;
+        } finally {
+            this.patch.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public int patch(Long id, long expectedVersion, UserPatch patch) {
+        long start = System.nanoTime();
+        try {
+            return delegate.patch(id, expectedVersion, patch);
+        } catch (RuntimeException e) {
+            this.patch.error();
+            throw e;
+        } finally {
+            this.patch.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public int deleteById(Long id) {
+        long start = System.nanoTime();
+        try {
+            return delegate.deleteById(id);
+        } catch (RuntimeException e) {
+            this.deleteById.error();
+            throw e;
+        } finally {
+            this.deleteById.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public List<User> saveAll(Collection<User> users) {
+        long start = System.nanoTime();
+        try {
+            return delegate.saveAll(users);
+        } catch (RuntimeException e) {
+            this.saveAll.error();
+            throw e;
+        } finally {
+            this.saveAll.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public List<User> updateAll(Collection<User> users) {
+        long start = System.nanoTime();
+        try {
+            return delegate.updateAll(users);
+        } catch (RuntimeException e) {
+            this.updateAll.error();
+            throw e;
+        } finally {
+            this.updateAll.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public int deleteAllById(Collection<Long> ids) {
+        long start = System.nanoTime();
+        try {
+            return delegate.deleteAllById(ids);
+        } catch (RuntimeException e) {
+            this.deleteAllById.error();
+            throw e;
+        } finally {
+            this.deleteAllById.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public <T> T inTransaction(Supplier<T> work) {
+        return delegate.inTransaction(work);
+    }
+
+    @Override
+    public <T> T inReadOnlyTransaction(Supplier<T> work) {
+        return delegate.inReadOnlyTransaction(work);
+    }
+}
@@ -0,0 +1,23 @@
+package com.userservice.dao;
+
+/**
+ * Thrown when a user was changed by someone else since the version the caller read.
+ * Re-read the user and apply the change again. The id is null when a flush at the end of a unit of work failed
+ * and Hibernate didn't say which user it was.
+ */
+public class OptimisticLockConflictException extends DataAccessException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Long userId;
+
+    public OptimisticLockConflictException(Long userId, Throwable cause) {
+        super(userId == null ? "User was modified concurrently" : "User with id " + userId + " was modified concurrently",
+                cause);
+        this.userId = userId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+}
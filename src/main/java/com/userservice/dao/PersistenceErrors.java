@@ -0,0 +1,37 @@
+package com.userservice.dao;
+
+import jakarta.persistence.OptimisticLockException;
+import org.hibernate.StaleStateException;
+
+import java.sql.SQLException;
+
+/** Recognizes the database errors that map to the typed {@link DataAccessException}s. */
+final class PersistenceErrors {
+
+    private static final String UNIQUE_VIOLATION_SQL_STATE = "23505";
+
+    private PersistenceErrors() {
+    }
+
+    static boolean isOptimisticLockFailure(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof OptimisticLockConflictException
+                    || t instanceof StaleStateException
+                    || t instanceof OptimisticLockException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // email is the only unique column besides the generated id
+    static boolean isUniqueViolation(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof SQLException sqlException
+                    && UNIQUE_VIOLATION_SQL_STATE.equals(sqlException.getSQLState())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
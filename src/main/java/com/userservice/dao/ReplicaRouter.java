@@ -0,0 +1,179 @@
+package com.userservice.dao;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.hibernate.SessionFactory;
+import org.hibernate.exception.JDBCConnectionException;
+
+import java.net.ConnectException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Chooses the SessionFactory for each DAO call. Writes always go to the primary; reads go to the read replica
+ * except
+ * <ul>
+ *     <li>for users written within the stickiness window, whichever thread wrote them, so reading a user back
+ *     right after a write sees it despite replication lag, also from another request or AsyncUserService call,</li>
+ *     <li>on a thread that wrote within the stickiness window, and</li>
+ *     <li>after the replica failed to connect, until the retry interval has passed; the next read then tries it
+ *     again.</li>
+ * </ul>
+ * Reads that aren't by id, such as pages, searches and streams, only stick on the writing thread, so other threads
+ * keep those on the replica while writes go on. Without a replica every call uses the primary.
+ */
+public class ReplicaRouter {
+
+    private static final Logger logger = LogManager.getLogger(ReplicaRouter.class);
+
+    public static final Duration DEFAULT_STICKINESS = Duration.ofSeconds(2);
+    public static final Duration DEFAULT_RETRY_INTERVAL = Duration.ofSeconds(30);
+
+    private final Supplier<SessionFactory> primary;
+    private final Supplier<SessionFactory> replica;
+    private final long stickinessMillis;
+    private final long retryMillis;
+    private final Clock clock;
+    private final ThreadLocal<Long> stickyUntil = ThreadLocal.withInitial(() -> Long.MIN_VALUE);
+    // Ids of users written within the stickiness window; entries expire with it
+    private final Cache<Long, Boolean> stickyIds;
+    private volatile long replicaDownUntil = Long.MIN_VALUE;
+
+    /** Routes everything to {@code primary}. */
+    public ReplicaRouter(Supplier<SessionFactory> primary) {
+        this(primary, null, Duration.ZERO, Duration.ZERO, Clock.systemUTC());
+    }
+
+    /** A null {@code replica} routes everything to the primary. */
+    public ReplicaRouter(Supplier<SessionFactory> primary, Supplier<SessionFactory> replica, Duration stickiness,
+                         Duration retryInterval, Clock clock) {
+        if (stickiness.isNegative() || retryInterval.isNegative()) {
+            throw new IllegalArgumentException("Stickiness and retry interval must not be negative");
+        }
+        this.primary = primary;
+        this.replica = replica;
+        this.stickinessMillis = stickiness.toMillis();
+        this.retryMillis = retryInterval.toMillis();
+        this.clock = clock;
+        this.stickyIds = Caffeine.newBuilder()
+                .expireAfterWrite(stickiness)
+                .ticker(() -> TimeUnit.MILLISECONDS.toNanos(clock.millis()))
+                .build();
+    }
+
+    public SessionFactory primary() {
+        return primary.get();
+    }
+
+    public boolean hasReplica() {
+        return replica != null;
+    }
+
+    /** True while reads may use the replica: one is configured and it isn't marked down. */
+    public boolean isReplicaAvailable() {
+        return replica != null && clock.millis() >= replicaDownUntil;
+    }
+
+    /**
+     * Runs a read on the replica if it is eligible, otherwise on the primary. If the replica can't be reached the
+     * read is repeated on the primary and the replica is skipped for the retry interval; any other failure is
+     * rethrown as is.
+     */
+    public <T> T read(Function<SessionFactory, T> query) {
+        return read(List.of(), query);
+    }
+
+    /** Like {@link #read(Function)}, but on the primary if any of {@code ids} was written within the window. */
+    public <T> T read(Collection<Long> ids, Function<SessionFactory, T> query) {
+        SessionFactory replicaFactory = replicaForRead(ids);
+        if (replicaFactory != null) {
+            try {
+                return query.apply(replicaFactory);
+            } catch (RuntimeException e) {
+                if (!isConnectionFailure(e)) {
+                    throw e;
+                }
+                markReplicaDown(e);
+            }
+        }
+        return query.apply(primary.get());
+    }
+
+    /**
+     * Sends the calling thread's reads to the primary for the stickiness window; call after every committed write
+     * on the thread that made it.
+     */
+    public void writeCompleted() {
+        writeCompleted(List.of());
+    }
+
+    /**
+     * Like {@link #writeCompleted()}, and also sends reads of {@code ids}, the users the write changed, to the
+     * primary for the stickiness window on every thread.
+     */
+    public void writeCompleted(Collection<Long> ids) {
+        if (replica != null) {
+            stickyUntil.set(Math.max(stickyUntil.get(), clock.millis() + stickinessMillis));
+            for (Long id : ids) {
+                stickyIds.put(id, Boolean.TRUE);
+            }
+        }
+    }
+
+    private SessionFactory replicaForRead(Collection<Long> ids) {
+        if (replica == null) {
+            return null;
+        }
+        long now = clock.millis();
+        if (now < stickyUntil.get() || now < replicaDownUntil) {
+            return null;
+        }
+        for (Long id : ids) {
+            if (stickyIds.getIfPresent(id) != null) {
+                return null;
+            }
+        }
+        try {
+            return replica.get();
+        } catch (RuntimeException e) {
+            // The replica's pool couldn't start; SessionFactoryHolder builds it again on the next attempt
+            markReplicaDown(e);
+            return null;
+        }
+    }
+
+    private void markReplicaDown(Throwable e) {
+        replicaDownUntil = clock.millis() + retryMillis;
+        logger.warn("Read replica unavailable, reading from the primary for the next {} ms: {}", retryMillis,
+                rootMessage(e));
+    }
+
+    private static boolean isConnectionFailure(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof JDBCConnectionException
+                    || t instanceof SQLTransientConnectionException
+                    || t instanceof SQLNonTransientConnectionException
+                    || t instanceof ConnectException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String rootMessage(Throwable e) {
+        Throwable root = e;
+        while (root.getCause() != null) {
+            root = root.getCause();
+        }
+        return root.getMessage() == null ? root.getClass().getSimpleName() : root.getMessage();
+    }
+}
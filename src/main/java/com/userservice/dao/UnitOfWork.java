@@ -0,0 +1,196 @@
+package com.userservice.dao;
+
+import jakarta.persistence.PersistenceException;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Transaction template: runs work in one Session and one transaction, committed when the work returns and rolled
+ * back when it throws. The session is bound to the current thread until the outermost unit of work ends, so
+ * nested units of work for the same SessionFactory, including the {@link UserDaoImpl} calls made inside one,
+ * join it instead of checking out another connection.
+ * <p>
+ * If joined work throws, the whole transaction is rolled back, even when the outer work catches the exception.
+ * Hibernate and JDBC errors are rethrown as {@link DataAccessException}s; other exceptions pass through as they are.
+ */
+public final class UnitOfWork {
+
+    private static final Logger logger = LogManager.getLogger(UnitOfWork.class);
+
+    public enum Propagation {
+        /** Join the unit of work open on this thread, or start one if there is none. */
+        REQUIRED,
+        /** Always start a new session and transaction; the outer one, if any, waits until this one ends. */
+        REQUIRES_NEW
+    }
+
+    private static final ThreadLocal<Scope> current = new ThreadLocal<>();
+
+    private final Supplier<SessionFactory> sessionFactory;
+
+    public UnitOfWork(SessionFactory sessionFactory) {
+        this(() -> sessionFactory);
+    }
+
+    public UnitOfWork(Supplier<SessionFactory> sessionFactory) {
+        this.sessionFactory = sessionFactory;
+    }
+
+    public <T> T execute(Function<Session, T> work) {
+        return execute(Propagation.REQUIRED, false, work);
+    }
+
+    /** Like {@link #execute(Function)}, with the hints of a read-only unit of work. */
+    public <T> T readOnly(Function<Session, T> work) {
+        return execute(Propagation.REQUIRED, true, work);
+    }
+
+    /**
+     * A read-only unit of work loads entities read-only and never flushes, so Hibernate keeps no snapshots and
+     * skips dirty checking. Writes can't join it; joining read-only work to a read-write unit of work is fine.
+     */
+    public <T> T execute(Propagation propagation, boolean readOnly, Function<Session, T> work) {
+        if (propagation == Propagation.REQUIRED) {
+            Scope scope = scope();
+            if (scope != null) {
+                if (scope.readOnly && !readOnly) {
+                    throw new IllegalStateException("Cannot write inside a read-only unit of work");
+                }
+                return join(scope, work);
+            }
+        }
+        return begin(sessionFactory.get(), readOnly, work);
+    }
+
+    /** Whether the current thread is inside a unit of work of this SessionFactory. */
+    public boolean isActive() {
+        return scope() != null;
+    }
+
+    /**
+     * Runs {@code action} once the current unit of work has committed, or right away outside of one.
+     * Nothing runs if it rolls back.
+     */
+    public void afterCommit(Runnable action) {
+        Scope scope = scope();
+        if (scope == null) {
+            action.run();
+        } else {
+            scope.afterCommit.add(action);
+        }
+    }
+
+    /** The session of the current unit of work of this SessionFactory, or null outside of one. */
+    Session currentSession() {
+        Scope scope = scope();
+        return scope == null ? null : scope.session;
+    }
+
+    private Scope scope() {
+        Scope innermost = current.get();
+        if (innermost == null) {
+            // The common case outside of units of work: don't resolve (or build) the SessionFactory
+            return null;
+        }
+        SessionFactory factory = sessionFactory.get();
+        for (Scope scope = innermost; scope != null; scope = scope.outer) {
+            if (scope.factory == factory) {
+                return scope;
+            }
+        }
+        return null;
+    }
+
+    private static <T> T join(Scope scope, Function<Session, T> work) {
+        try {
+            return work.apply(scope.session);
+        } catch (RuntimeException e) {
+            // The outermost unit of work owns the transaction; make sure it doesn't commit half of the work
+            scope.rollbackOnly = true;
+            throw translate(e);
+        }
+    }
+
+    private static <T> T begin(SessionFactory factory, boolean readOnly, Function<Session, T> work) {
+        Scope outer = current.get();
+        Session session = factory.openSession();
+        Scope scope = new Scope(factory, session, readOnly, outer);
+        Transaction transaction = null;
+        T result;
+        try {
+            if (readOnly) {
+                session.setDefaultReadOnly(true);
+                session.setHibernateFlushMode(FlushMode.MANUAL);
+            }
+            current.set(scope);
+            transaction = session.beginTransaction();
+            result = work.apply(session);
+            if (scope.rollbackOnly) {
+                throw new DataAccessException("Transaction rolled back because joined work failed", null);
+            }
+            transaction.commit();
+        } catch (RuntimeException e) {
+            rollback(transaction);
+            throw translate(e);
+        } finally {
+            if (outer == null) {
+                current.remove();
+            } else {
+                current.set(outer);
+            }
+            session.close();
+        }
+        scope.afterCommit.forEach(Runnable::run);
+        return result;
+    }
+
+    private static void rollback(Transaction transaction) {
+        if (transaction == null || !transaction.isActive()) {
+            return;
+        }
+        try {
+            transaction.rollback();
+        } catch (RuntimeException e) {
+            logger.debug("Rollback failed: {}", e.getMessage());
+        }
+    }
+
+    private static RuntimeException translate(RuntimeException e) {
+        if (e instanceof DataAccessException || !(e instanceof PersistenceException)) {
+            return e;
+        }
+        if (PersistenceErrors.isOptimisticLockFailure(e)) {
+            return new OptimisticLockConflictException(null, e);
+        }
+        if (PersistenceErrors.isUniqueViolation(e)) {
+            return new DuplicateEmailException(null, e);
+        }
+        return new DataAccessException("Database operation failed", e);
+    }
+
+    private static final class Scope {
+
+        private final SessionFactory factory;
+        private final Session session;
+        private final boolean readOnly;
+        private final Scope outer;
+        private final List<Runnable> afterCommit = new ArrayList<>(2);
+        private boolean rollbackOnly;
+
+        Scope(SessionFactory factory, Session session, boolean readOnly, Scope outer) {
+            this.factory = factory;
+            this.session = session;
+            this.readOnly = readOnly;
+            this.outer = outer;
+        }
+    }
+}
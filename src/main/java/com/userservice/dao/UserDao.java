@@ -1,14 +1,123 @@
 package com.userservice.dao;
 
+import com.userservice.model.IdRange;
+import com.userservice.model.PageRequest;
 import com.userservice.model.User;
+import com.userservice.model.UserPatch;
+import com.userservice.model.UserQuery;
+import com.userservice.model.UserStatistics;
+import com.userservice.model.UserSummary;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 public interface UserDao {
+    /** Inserts the user, assigning its id and version; throws {@link DuplicateEmailException} if the email is taken. */
     User save(User user);
     Optional<User> findById(Long id);
+    Optional<User> findByEmail(String email);
+
+    /**
+     * Loads the users with the given ids in the order requested, skipping ids that don't exist.
+     * Users already in the second-level cache are not queried again.
+     */
+    List<User> findAllByIds(Collection<Long> ids);
+
+    boolean existsByEmail(String email);
     List<User> findAll();
+
+    /**
+     * Keyset page: up to {@code limit} users with id greater than {@code afterId}, ordered by id.
+     * Pass {@code null} to start from the beginning, then the id of the last user of the previous page.
+     */
+    List<User> findPage(Long afterId, int limit);
+
+    /**
+     * Users matching {@code query}, one keyset page at a time in the order given by {@code page}.
+     * Use {@link PageRequest#after(User)} with the last user returned to get the next page.
+     */
+    List<User> search(UserQuery query, PageRequest page);
+
+    /**
+     * Streams all users ordered by id through a server-side cursor.
+     * The stream holds a database connection and must be closed (try-with-resources).
+     */
+    Stream<User> streamAll();
+
+    /** Id, name and email of one user, read without loading the entity. */
+    Optional<UserSummary> findSummaryById(Long id);
+
+    /** Keyset page of summaries, like {@link #findPage(Long, int)}. */
+    List<UserSummary> findSummaryPage(Long afterId, int limit);
+
+    /** Streams all summaries ordered by id through a server-side cursor; must be closed like {@link #streamAll()}. */
+    Stream<UserSummary> streamSummaries();
+
+    /** Lowest and highest user id, empty if there are no users. */
+    Optional<IdRange> findIdRange();
+
+    /**
+     * Streams the users with ids in {@code range} ordered by id, like {@link #streamAll()} and with the same need to
+     * be closed. Each stream reads on a connection of its own, so several can be consumed in parallel.
+     */
+    Stream<User> streamRange(IdRange range);
+
+    /**
+     * Counts all users by age and the users created on each day from {@code signupsSince} on, computed with
+     * aggregate queries. The two counts are separate reads, so concurrent writes may show up in only one of them.
+     */
+    UserStatistics statistics(LocalDate signupsSince);
+
+    /**
+     * Writes name, email and age of the user. If the user carries a version, the update only succeeds when it
+     * still matches the stored one, otherwise {@link OptimisticLockConflictException} is thrown. Taking another
+     * user's email throws {@link DuplicateEmailException}, here and in the other writes. A user that doesn't exist
+     * throws {@link UserNotFoundException}.
+     */
     User update(User user);
-    void deleteById(Long id);
+
+    /**
+     * Sets only the non-null fields of {@code patch} with a single UPDATE, without loading the user.
+     * Returns the number of updated rows, 0 if the user does not exist.
+     */
+    int patch(Long id, UserPatch patch);
+
+    /**
+     * Like {@link #patch(Long, UserPatch)}, but only if the stored version still equals {@code expectedVersion};
+     * throws {@link OptimisticLockConflictException} if the user has changed since.
+     */
+    int patch(Long id, long expectedVersion, UserPatch patch);
+
+    /** Deletes the user with a single DELETE and returns the number of deleted rows. */
+    int deleteById(Long id);
+
+    /** Inserts all users in one transaction using JDBC batching. */
+    List<User> saveAll(Collection<User> users);
+
+    /**
+     * Updates all users in one transaction using JDBC batching. If any of them doesn't exist nothing is updated and
+     * {@link UserNotFoundException} is thrown.
+     */
+    List<User> updateAll(Collection<User> users);
+
+    /** Deletes all users with the given ids in one transaction and returns the number of deleted rows. */
+    int deleteAllById(Collection<Long> ids);
+
+    /**
+     * Runs {@code work}, usually several calls on this DAO, in one transaction: the calls share a session and a
+     * connection, and commit or roll back together. Calls inside read from the primary. Implementations without
+     * transactions just run the work.
+     */
+    default <T> T inTransaction(Supplier<T> work) {
+        return work.get();
+    }
+
+    /** Like {@link #inTransaction(Supplier)} for work that only reads; writes inside it fail. */
+    default <T> T inReadOnlyTransaction(Supplier<T> work) {
+        return work.get();
+    }
 }
@@ -1,15 +1,61 @@
 package com.userservice.dao;
 
+import com.userservice.model.IdRange;
+import com.userservice.model.OutboxEvent;
+import com.userservice.model.PageRequest;
 import com.userservice.model.User;
+import com.userservice.model.UserPatch;
+import com.userservice.model.UserQuery;
+import com.userservice.model.UserStatistics;
+import com.userservice.model.UserSort;
+import com.userservice.model.UserSummary;
+import org.hibernate.CacheMode;
+import org.hibernate.FlushMode;
+import org.hibernate.Hibernate;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
 import org.hibernate.Transaction;
+import org.hibernate.cache.spi.TimestampsCache;
+import org.hibernate.cache.spi.access.EntityDataAccess;
+import org.hibernate.cache.spi.access.NaturalIdDataAccess;
+import org.hibernate.cache.spi.access.SoftLock;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.query.NativeQuery;
 import org.hibernate.query.Query;
+import org.hibernate.query.SelectionQuery;
 
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.SortedMap;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import com.userservice.util.HibernateUtil;
+import com.userservice.util.SessionFactoryHolder;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -17,96 +63,870 @@ public class UserDaoImpl implements UserDao {
 
     private static final Logger logger = LogManager.getLogger(UserDaoImpl.class);
 
-    private final SessionFactory sessionFactory; // ← внедряем
+    // Constructor expression: rows become records directly, no entity instances or snapshots
+    private static final String SUMMARY_SELECT =
+            "SELECT new com.userservice.model.UserSummary(u.id, u.name, u.email) FROM User u";
 
-    // Конструктор для продакшена
+    private static final String FETCH_SIZE_SETTING = "hibernate.jdbc.fetch_size";
+    private static final int DEFAULT_FETCH_SIZE = 500;
+    private static final String BATCH_SIZE_SETTING = "hibernate.jdbc.batch_size";
+    private static final int DEFAULT_BATCH_SIZE = 50;
+    private static final String MULTI_LOAD_BATCH_SIZE_SETTING = "hibernate.default_batch_fetch_size";
+    private static final int DEFAULT_MULTI_LOAD_BATCH_SIZE = 100;
+    private static final String EMAIL_CACHE_SIZE_SETTING = "userservice.email_cache.max_size";
+    private static final int DEFAULT_EMAIL_CACHE_SIZE = 10_000;
+    private static final String EMAIL_CACHE_TTL_SETTING = "userservice.email_cache.ttl_seconds";
+    private static final int DEFAULT_EMAIL_CACHE_TTL_SECONDS = 300;
+    private static final String REPLICA_STICKINESS_SETTING = "userservice.replica.stickiness_ms";
+    private static final String REPLICA_RETRY_SETTING = "userservice.replica.retry_ms";
+    private static final String OUTBOX_SETTING = "userservice.outbox.enabled";
+    // Query space of the native single-row writes. No entity or cached query lists it, so Hibernate evicts no
+    // cache region for them; the writes lock the cache entries of their own users instead
+    private static final String USER_ROW_SPACE = "users_row";
+
+    private final ReplicaRouter router; // ← внедряем
+    private final int fetchSize;
+    private final int batchSize;
+    private final int multiLoadBatchSize;
+    private final EmailIdCache emailIdCache;
+    private final boolean outboxEnabled;
+    private final UnitOfWork unitOfWork;
+
+    // Конструктор для продакшена: SessionFactory строится при первом запросе
     public UserDaoImpl() {
-        this(HibernateUtil.getSessionFactory());
+        this(HibernateUtil.holder(), HibernateUtil.replicaHolder());
     }
 
     // Конструктор для тестов
     public UserDaoImpl(SessionFactory sessionFactory) {
-        this.sessionFactory = sessionFactory;
+        this(new ReplicaRouter(() -> sessionFactory), sessionFactory.getProperties());
+    }
+
+    public UserDaoImpl(SessionFactoryHolder holder) {
+        this(new ReplicaRouter(holder), holder.settings());
+    }
+
+    /** Reads go to {@code replica} (may be null) as decided by {@link ReplicaRouter}, writes to {@code primary}. */
+    public UserDaoImpl(SessionFactoryHolder primary, SessionFactoryHolder replica) {
+        this(new ReplicaRouter(primary, replica,
+                Duration.ofMillis(intSetting(primary.settings(), REPLICA_STICKINESS_SETTING,
+                        (int) ReplicaRouter.DEFAULT_STICKINESS.toMillis())),
+                Duration.ofMillis(intSetting(primary.settings(), REPLICA_RETRY_SETTING,
+                        (int) ReplicaRouter.DEFAULT_RETRY_INTERVAL.toMillis())),
+                Clock.systemUTC()), primary.settings());
+    }
+
+    UserDaoImpl(ReplicaRouter router, Map<String, Object> settings) {
+        this.router = router;
+        this.fetchSize = intSetting(settings, FETCH_SIZE_SETTING, DEFAULT_FETCH_SIZE);
+        this.batchSize = intSetting(settings, BATCH_SIZE_SETTING, DEFAULT_BATCH_SIZE);
+        this.multiLoadBatchSize = intSetting(settings, MULTI_LOAD_BATCH_SIZE_SETTING, DEFAULT_MULTI_LOAD_BATCH_SIZE);
+        this.emailIdCache = new EmailIdCache(
+                intSetting(settings, EMAIL_CACHE_SIZE_SETTING, DEFAULT_EMAIL_CACHE_SIZE),
+                Duration.ofSeconds(intSetting(settings, EMAIL_CACHE_TTL_SETTING, DEFAULT_EMAIL_CACHE_TTL_SECONDS)));
+        Object outbox = settings.get(OUTBOX_SETTING);
+        this.outboxEnabled = outbox == null || Boolean.parseBoolean(outbox.toString().trim());
+        this.unitOfWork = new UnitOfWork(router::primary);
+    }
+
+    private static int intSetting(Map<String, Object> settings, String name, int defaultValue) {
+        Object value = settings.get(name);
+        return value == null ? defaultValue : Integer.parseInt(value.toString().trim());
+    }
+
+    private SessionFactory sessionFactory() {
+        return router.primary();
+    }
+
+    @Override
+    public <T> T inTransaction(Supplier<T> work) {
+        return unitOfWork.execute(session -> work.get());
+    }
+
+    @Override
+    public <T> T inReadOnlyTransaction(Supplier<T> work) {
+        return unitOfWork.readOnly(session -> work.get());
+    }
+
+    /**
+     * Runs the write in the current unit of work, or in one of its own. {@code afterCommit} gets the result once
+     * the transaction has committed.
+     */
+    private <T> T write(Function<Session, T> work, Consumer<T> afterCommit) {
+        return unitOfWork.execute(session -> {
+            T result = work.apply(session);
+            unitOfWork.afterCommit(() -> {
+                router.writeCompleted();
+                afterCommit.accept(result);
+            });
+            return result;
+        });
+    }
+
+    /**
+     * Adds the change to the outbox as part of the session's transaction, and once committed has the router send
+     * reads of the user to the primary for the stickiness window; null means nothing changed.
+     */
+    private void recordChange(Session session, OutboxEvent event) {
+        if (event == null) {
+            return;
+        }
+        unitOfWork.afterCommit(() -> router.writeCompleted(List.of(event.getUserId())));
+        if (outboxEnabled) {
+            session.persist(event);
+        }
+    }
+
+    /**
+     * Runs an entity read of the users with {@code ids} (empty if not known up front) in the current unit of work,
+     * or otherwise in a session of its own through the router. Users already in the primary's second-level cache are
+     * read there without a query, since the replica has no cache of its own.
+     */
+    private <T> T read(Collection<Long> ids, Function<Session, T> query) {
+        Session current = unitOfWork.currentSession();
+        if (current != null) {
+            return query.apply(current);
+        }
+        Function<SessionFactory, T> inSession = factory -> {
+            try (Session session = factory.openSession()) {
+                return query.apply(session);
+            }
+        };
+        if (router.hasReplica() && !ids.isEmpty()) {
+            try (Session session = router.primary().openSession()) {
+                if (allCached(session, ids)) {
+                    return query.apply(session);
+                }
+            }
+        }
+        return router.read(ids, inSession);
+    }
+
+    /**
+     * Whether the session could read all the users from the second-level cache. Unlike
+     * {@link org.hibernate.Cache#containsEntity}, this skips the locks writes leave behind.
+     */
+    private static boolean allCached(Session session, Collection<Long> ids) {
+        SessionImplementor implementor = session.unwrap(SessionImplementor.class);
+        SessionFactoryImplementor factory = implementor.getFactory();
+        EntityPersister persister = factory.getMappingMetamodel().getEntityDescriptor(User.class);
+        EntityDataAccess entities = persister.getCacheAccessStrategy();
+        return entities != null && ids.stream().allMatch(id -> entities.get(implementor,
+                entities.generateCacheKey(id, persister, factory, implementor.getTenantIdentifier())) != null);
+    }
+
+    /** Runs a query in a stateless session, on the connection of the current unit of work if there is one. */
+    private <T> T query(Function<StatelessSession, T> query) {
+        return query(List.of(), query);
+    }
+
+    /** Like {@link #query(Function)}, for a query of the users with {@code ids}. */
+    private <T> T query(Collection<Long> ids, Function<StatelessSession, T> query) {
+        Session current = unitOfWork.currentSession();
+        if (current != null) {
+            // Same transaction, but the rows don't fill the unit's persistence context; flushing first lets the
+            // query see the unit's own changes
+            if (current.getHibernateFlushMode() != FlushMode.MANUAL) {
+                current.flush();
+            }
+            return current.doReturningWork(connection -> {
+                try (StatelessSession session = current.getSessionFactory().withStatelessOptions()
+                        .connection(connection)
+                        .openStatelessSession()) {
+                    return query.apply(session);
+                }
+            });
+        }
+        return router.read(ids, factory -> {
+            try (StatelessSession session = factory.openStatelessSession()) {
+                return query.apply(session);
+            }
+        });
     }
 
     @Override
     public User save(User user) {
-        Transaction transaction = null;
-        try (Session session = sessionFactory.openSession()) {
-            transaction = session.beginTransaction();
-            session.persist(user);
-            transaction.commit();
-            logger.info("User saved: {}", user);
+        try {
+            write(session -> {
+                session.persist(user);
+                recordChange(session, OutboxEvent.created(user));
+                return user;
+            }, saved -> emailIdCache.put(saved.getEmail(), saved.getId()));
+            logger.debug("User saved with id {}", user.getId());
             return user;
-        } catch (Exception e) {
-            if (transaction != null) transaction.rollback();
-            logger.error("Error saving user: {}", user, e);
-            throw new RuntimeException("Failed to save user", e);
+        } catch (RuntimeException e) {
+            if (PersistenceErrors.isUniqueViolation(e)) {
+                throw duplicateEmail(user.getEmail(), e);
+            }
+            logger.error("Error saving user", e);
+            throw failure("Failed to save user", e);
         }
     }
 
     @Override
     public Optional<User> findById(Long id) {
-        try (Session session = sessionFactory.openSession()) {
-            User user = session.get(User.class, id);
+        try {
+            User user = read(List.of(id), session -> session.get(User.class, id));
             if (user != null) {
-                logger.debug("User found by id {}: {}", id, user);
+                logger.debug("User found by id: {}", id);
             } else {
                 logger.debug("User not found by id: {}", id);
             }
             return Optional.ofNullable(user);
         } catch (Exception e) {
             logger.error("Error finding user by id: {}", id, e);
-            throw new RuntimeException("Failed to find user by id: " + id, e);
+            throw failure("Failed to find user by id: " + id, e);
+        }
+    }
+
+    @Override
+    public List<User> findAllByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        try {
+            List<User> users = read(ids, session -> session.byMultipleIds(User.class)
+                    .withBatchSize(multiLoadBatchSize)
+                    .with(CacheMode.NORMAL)
+                    .enableSessionCheck(true)
+                    .enableOrderedReturn(true)
+                    .multiLoad(new ArrayList<>(ids)));
+            List<User> found = users.stream().filter(Objects::nonNull).toList();
+            logger.debug("Found {} of {} users by id", found.size(), ids.size());
+            return found;
+        } catch (Exception e) {
+            logger.error("Error finding {} users by id", ids.size(), e);
+            throw failure("Failed to find users by ids", e);
+        }
+    }
+
+    @Override
+    public Optional<User> findByEmail(String email) {
+        Long cachedId = emailIdCache.getId(email);
+        try {
+            Optional<User> user = read(cachedId == null ? List.of() : List.of(cachedId),
+                    session -> session.bySimpleNaturalId(User.class).loadOptional(email));
+            user.ifPresent(u -> emailIdCache.put(u.getEmail(), u.getId()));
+            logger.debug("User {} by email {}", user.isPresent() ? "found" : "not found", email);
+            return user;
+        } catch (Exception e) {
+            logger.error("Error finding user by email: {}", email, e);
+            throw failure("Failed to find user by email: " + email, e);
+        }
+    }
+
+    @Override
+    public boolean existsByEmail(String email) {
+        if (emailIdCache.getId(email) != null) {
+            return true;
+        }
+        try {
+            // Resolves email -> id through the natural-id cache or an id-only query, without loading the row
+            Long id = read(List.of(), session -> {
+                User reference = session.bySimpleNaturalId(User.class).getReference(email);
+                return reference == null ? null : reference.getId();
+            });
+            if (id == null) {
+                return false;
+            }
+            emailIdCache.put(email, id);
+            return true;
+        } catch (Exception e) {
+            logger.error("Error checking user by email: {}", email, e);
+            throw failure("Failed to check user by email: " + email, e);
         }
     }
 
     @Override
     public List<User> findAll() {
-        try (Session session = sessionFactory.openSession()) {
-            Query<User> query = session.createQuery("FROM User", User.class);
-            List<User> users = query.list();
+        try {
+            List<User> users = read(List.of(), session -> {
+                Query<User> query = session.createQuery("FROM User", User.class)
+                        .setCacheable(true);
+                return query.list();
+            });
             logger.debug("Fetched {} users", users.size());
             return users;
         } catch (Exception e) {
             logger.error("Error fetching all users", e);
-            throw new RuntimeException("Failed to fetch users", e);
+            throw failure("Failed to fetch users", e);
         }
     }
 
     @Override
-    public User update(User user) {
-        Transaction transaction = null;
-        try (Session session = sessionFactory.openSession()) {
-            transaction = session.beginTransaction();
-            session.merge(user);
-            transaction.commit();
-            logger.info("User updated: {}", user);
-            return user;
+    public List<User> findPage(Long afterId, int limit) {
+        try {
+            List<User> users = query(session -> session
+                    .createQuery("FROM User u WHERE u.id > :afterId ORDER BY u.id", User.class)
+                    .setParameter("afterId", afterId == null ? Long.MIN_VALUE : afterId)
+                    .setMaxResults(limit)
+                    .list());
+            logger.debug("Fetched page of {} users after id {}", users.size(), afterId);
+            return users;
         } catch (Exception e) {
-            if (transaction != null) transaction.rollback();
-            logger.error("Error updating user: {}", user, e);
-            throw new RuntimeException("Failed to update user", e);
+            logger.error("Error fetching page of users after id: {}", afterId, e);
+            throw failure("Failed to fetch page of users after id: " + afterId, e);
         }
     }
 
     @Override
-    public void deleteById(Long id) {
-        Transaction transaction = null;
-        try (Session session = sessionFactory.openSession()) {
-            transaction = session.beginTransaction();
-            User user = session.get(User.class, id);
-            if (user != null) {
-                session.remove(user);
-                logger.info("User deleted: {}", user);
+    public List<User> search(UserQuery query, PageRequest page) {
+        List<String> conditions = new ArrayList<>();
+        Map<String, Object> parameters = new HashMap<>();
+        if (query.minAge() != null) {
+            conditions.add("u.age >= :minAge");
+            parameters.put("minAge", query.minAge());
+        }
+        if (query.maxAge() != null) {
+            conditions.add("u.age <= :maxAge");
+            parameters.put("maxAge", query.maxAge());
+        }
+        if (query.namePrefix() != null && !query.namePrefix().isEmpty()) {
+            // Matches the lower(name) text_pattern_ops index; LIKE wildcards in the input are escaped
+            conditions.add("lower(u.name) LIKE :namePrefix ESCAPE '\\'");
+            parameters.put("namePrefix", escapeLike(query.namePrefix().toLowerCase(Locale.ROOT)) + "%");
+        }
+        if (query.createdFrom() != null) {
+            conditions.add("u.createdAt >= :createdFrom");
+            parameters.put("createdFrom", query.createdFrom());
+        }
+        if (query.createdBefore() != null) {
+            conditions.add("u.createdAt < :createdBefore");
+            parameters.put("createdBefore", query.createdBefore());
+        }
+        String sortPath = page.sort().path();
+        String direction = page.descending() ? "DESC" : "ASC";
+        String after = page.descending() ? "<" : ">";
+        if (!page.isFirst()) {
+            if (page.sort() == UserSort.ID) {
+                conditions.add("u.id " + after + " :afterId");
             } else {
-                logger.warn("Attempt to delete non-existing user with id: {}", id);
+                conditions.add("(" + sortPath + " " + after + " :afterValue OR (" + sortPath
+                        + " = :afterValue AND u.id " + after + " :afterId))");
+                parameters.put("afterValue", page.afterValue());
             }
-            transaction.commit();
+            parameters.put("afterId", page.afterId());
+        }
+
+        StringBuilder hql = new StringBuilder("FROM User u");
+        if (!conditions.isEmpty()) {
+            hql.append(" WHERE ").append(String.join(" AND ", conditions));
+        }
+        hql.append(" ORDER BY ");
+        if (page.sort() != UserSort.ID) {
+            hql.append(sortPath).append(' ').append(direction).append(", ");
+        }
+        hql.append("u.id ").append(direction);
+
+        try {
+            List<User> users = query(session -> {
+                SelectionQuery<User> select = session.createSelectionQuery(hql.toString(), User.class);
+                parameters.forEach(select::setParameter);
+                return select.setMaxResults(page.size()).list();
+            });
+            logger.debug("Search {} returned {} users", query, users.size());
+            return users;
+        } catch (Exception e) {
+            logger.error("Error searching users: {}", query, e);
+            throw failure("Failed to search users", e);
+        }
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    @Override
+    public Stream<User> streamAll() {
+        return stream("FROM User u ORDER BY u.id", User.class);
+    }
+
+    @Override
+    public Optional<UserSummary> findSummaryById(Long id) {
+        try {
+            return query(List.of(id), session -> session
+                    .createQuery(SUMMARY_SELECT + " WHERE u.id = :id", UserSummary.class)
+                    .setParameter("id", id)
+                    .uniqueResultOptional());
+        } catch (Exception e) {
+            logger.error("Error finding user summary by id: {}", id, e);
+            throw failure("Failed to find user summary by id: " + id, e);
+        }
+    }
+
+    @Override
+    public List<UserSummary> findSummaryPage(Long afterId, int limit) {
+        try {
+            List<UserSummary> summaries = query(session -> session
+                    .createQuery(SUMMARY_SELECT + " WHERE u.id > :afterId ORDER BY u.id", UserSummary.class)
+                    .setParameter("afterId", afterId == null ? Long.MIN_VALUE : afterId)
+                    .setMaxResults(limit)
+                    .list());
+            logger.debug("Fetched page of {} user summaries after id {}", summaries.size(), afterId);
+            return summaries;
         } catch (Exception e) {
-            if (transaction != null) transaction.rollback();
+            logger.error("Error fetching page of user summaries after id: {}", afterId, e);
+            throw failure("Failed to fetch page of user summaries after id: " + afterId, e);
+        }
+    }
+
+    @Override
+    public Stream<UserSummary> streamSummaries() {
+        return stream(SUMMARY_SELECT + " ORDER BY u.id", UserSummary.class);
+    }
+
+    @Override
+    public Optional<IdRange> findIdRange() {
+        try {
+            Object[] bounds = query(session -> session
+                    .createQuery("SELECT min(u.id), max(u.id) FROM User u", Object[].class)
+                    .getSingleResult());
+            return bounds[0] == null ? Optional.empty() : Optional.of(new IdRange((Long) bounds[0], (Long) bounds[1]));
+        } catch (Exception e) {
+            logger.error("Error finding user id range", e);
+            throw failure("Failed to find user id range", e);
+        }
+    }
+
+    @Override
+    public Stream<User> streamRange(IdRange range) {
+        return stream("FROM User u WHERE u.id BETWEEN :first AND :last ORDER BY u.id",
+                Map.of("first", range.first(), "last", range.last()), User.class);
+    }
+
+    @Override
+    public UserStatistics statistics(LocalDate signupsSince) {
+        Objects.requireNonNull(signupsSince, "signupsSince");
+        try {
+            // Both group-bys read at most one row per age or day and can be answered from the age and
+            // created_at indexes; the total is the sum of the age counts
+            UserStatistics statistics = query(session -> {
+                SortedMap<Integer, Long> usersByAge = new TreeMap<>();
+                for (Object[] row : session.createQuery(
+                        "SELECT u.age, count(u) FROM User u GROUP BY u.age", Object[].class).list()) {
+                    usersByAge.put((Integer) row[0], (Long) row[1]);
+                }
+                SortedMap<LocalDate, Long> signupsByDay = new TreeMap<>();
+                for (Object[] row : session.createQuery(
+                                "SELECT extract(date from u.createdAt), count(u) FROM User u"
+                                        + " WHERE u.createdAt >= :since GROUP BY extract(date from u.createdAt)",
+                                Object[].class)
+                        .setParameter("since", signupsSince.atStartOfDay())
+                        .list()) {
+                    signupsByDay.put((LocalDate) row[0], (Long) row[1]);
+                }
+                long total = usersByAge.values().stream().mapToLong(Long::longValue).sum();
+                return new UserStatistics(total, usersByAge, signupsByDay, Instant.now());
+            });
+            logger.debug("Computed statistics of {} users", statistics.totalUsers());
+            return statistics;
+        } catch (Exception e) {
+            logger.error("Error computing user statistics since: {}", signupsSince, e);
+            throw failure("Failed to compute user statistics since: " + signupsSince, e);
+        }
+    }
+
+    private <T> Stream<T> stream(String hql, Class<T> resultType) {
+        return stream(hql, Map.of(), resultType);
+    }
+
+    private <T> Stream<T> stream(String hql, Map<String, Object> parameters, Class<T> resultType) {
+        // Only opening the cursor falls back to the primary; a replica failing mid-stream ends the stream.
+        // The cursor needs its own connection, so streams don't join a unit of work
+        return router.read(factory -> stream(factory, hql, parameters, resultType));
+    }
+
+    private <T> Stream<T> stream(SessionFactory factory, String hql, Map<String, Object> parameters,
+                                 Class<T> resultType) {
+        StatelessSession session = factory.openStatelessSession();
+        try {
+            // PostgreSQL only uses a cursor (and honours the fetch size) inside a transaction
+            Transaction transaction = session.beginTransaction();
+            SelectionQuery<T> query = session.createSelectionQuery(hql, resultType).setFetchSize(fetchSize);
+            parameters.forEach(query::setParameter);
+            ScrollableResults<T> results = query.scroll(ScrollMode.FORWARD_ONLY);
+            Spliterator<T> spliterator = new Spliterators.AbstractSpliterator<>(
+                    Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+                @Override
+                public boolean tryAdvance(Consumer<? super T> action) {
+                    if (!results.next()) {
+                        return false;
+                    }
+                    action.accept(results.get());
+                    return true;
+                }
+            };
+            logger.debug("Streaming {} with fetch size {}", resultType.getSimpleName(), fetchSize);
+            return StreamSupport.stream(spliterator, false)
+                    .onClose(() -> closeCursor(session, transaction, results));
+        } catch (Exception e) {
+            session.close();
+            logger.error("Error streaming {}", resultType.getSimpleName(), e);
+            throw failure("Failed to stream users", e);
+        }
+    }
+
+    private void closeCursor(StatelessSession session, Transaction transaction, ScrollableResults<?> results) {
+        try {
+            results.close();
+            if (transaction.isActive()) transaction.commit();
+        } finally {
+            session.close();
+        }
+    }
+
+    @Override
+    public User update(User user) {
+        try {
+            User managed = write(session -> {
+                // Copy onto the managed instance (usually a cache hit) so @DynamicUpdate writes only changed
+                // columns; merge() would also copy unset fields of a detached user such as createdAt
+                User current = session.get(User.class, user.getId());
+                if (current == null) {
+                    throw new UserNotFoundException(user.getId());
+                }
+                if (user.getVersion() != null && !user.getVersion().equals(current.getVersion())) {
+                    throw new OptimisticLockConflictException(user.getId(), null);
+                }
+                recordChange(session, OutboxEvent.updated(current, user));
+                current.setName(user.getName());
+                current.setEmail(user.getEmail());
+                current.setAge(user.getAge());
+                return current;
+            }, updated -> emailIdCache.put(updated.getEmail(), updated.getId()));
+            logger.debug("User updated with id {}", managed.getId());
+            return managed;
+        } catch (RuntimeException e) {
+            if (PersistenceErrors.isOptimisticLockFailure(e)) {
+                logger.debug("Version conflict updating user with id {}", user.getId());
+                throw conflict(user.getId(), e);
+            }
+            if (PersistenceErrors.isUniqueViolation(e)) {
+                throw duplicateEmail(user.getEmail(), e);
+            }
+            if (e instanceof UserNotFoundException notFound) {
+                logger.debug("No user to update with id {}", user.getId());
+                throw notFound;
+            }
+            logger.error("Error updating user with id: {}", user.getId(), e);
+            throw failure("Failed to update user", e);
+        }
+    }
+
+    @Override
+    public int patch(Long id, UserPatch patch) {
+        return patch(id, null, patch);
+    }
+
+    @Override
+    public int patch(Long id, long expectedVersion, UserPatch patch) {
+        return patch(id, Long.valueOf(expectedVersion), patch);
+    }
+
+    private int patch(Long id, Long expectedVersion, UserPatch patch) {
+        if (patch.isEmpty()) {
+            throw new IllegalArgumentException("Patch has no fields to update");
+        }
+        // Bumping the version lets version-checked writers notice blind patches too
+        StringBuilder sql = new StringBuilder("UPDATE users SET ");
+        if (patch.name() != null) sql.append("name = :name, ");
+        if (patch.email() != null) sql.append("email = :email, ");
+        if (patch.age() != null) sql.append("age = :age, ");
+        sql.append("version = version + 1 WHERE id = :id");
+        if (expectedVersion != null) sql.append(" AND version = :version");
+
+        boolean joined = unitOfWork.isActive();
+        try {
+            int patched = write(session -> {
+                flushPending(session);
+                // The natural-id cache is keyed by email: a new email needs the old one locked
+                String oldEmail = patch.email() == null ? null : session
+                        .createNativeQuery("SELECT email FROM users WHERE id = :id FOR UPDATE", String.class)
+                        .setParameter("id", id)
+                        .addSynchronizedQuerySpace(USER_ROW_SPACE)
+                        .uniqueResult();
+                lockCachedUsers(session, List.of(id));
+                if (oldEmail != null) {
+                    lockCachedEmails(session, List.of(oldEmail));
+                }
+                NativeQuery<?> query = session.createNativeQuery(sql.toString(), Object.class)
+                        .addSynchronizedQuerySpace(USER_ROW_SPACE)
+                        .setParameter("id", id);
+                if (patch.name() != null) query.setParameter("name", patch.name());
+                if (patch.email() != null) query.setParameter("email", patch.email());
+                if (patch.age() != null) query.setParameter("age", patch.age());
+                if (expectedVersion != null) query.setParameter("version", expectedVersion);
+                int updated = query.executeUpdate();
+                if (updated == 0 && expectedVersion != null && exists(session, id)) {
+                    throw new OptimisticLockConflictException(id, null);
+                }
+                if (updated > 0) {
+                    // A blind patch doesn't know which version it produced
+                    Long newVersion = expectedVersion == null ? null : expectedVersion + 1;
+                    recordChange(session, OutboxEvent.patched(id, newVersion, patch));
+                    if (joined) {
+                        // Earlier work of the unit may hold the user; getReference() doesn't load it if not
+                        User managed = session.getReference(User.class, id);
+                        if (Hibernate.isInitialized(managed)) {
+                            session.refresh(managed);
+                        }
+                    }
+                }
+                return updated;
+            }, updated -> {
+                if (updated > 0) {
+                    emailIdCache.put(patch.email(), id);
+                }
+            });
+            logger.debug("Patched {} user(s) with id {}", patched, id);
+            return patched;
+        } catch (RuntimeException e) {
+            if (PersistenceErrors.isOptimisticLockFailure(e)) {
+                logger.debug("Version conflict patching user with id {}", id);
+                throw conflict(id, e);
+            }
+            if (PersistenceErrors.isUniqueViolation(e)) {
+                throw duplicateEmail(patch.email(), e);
+            }
+            logger.error("Error patching user with id: {}", id, e);
+            throw failure("Failed to patch user with id: " + id, e);
+        }
+    }
+
+    /** Flushes the unit's pending changes, which native statements on {@link #USER_ROW_SPACE} don't trigger. */
+    private static void flushPending(Session session) {
+        if (session.getHibernateFlushMode() != FlushMode.MANUAL) {
+            session.flush();
+        }
+    }
+
+    /**
+     * Deletes the users with the given ids in one statement and returns the email each deleted user had, by id.
+     * PostgreSQL reports the rows with {@code RETURNING}; other databases (H2 for the benchmarks) through the
+     * standard {@code OLD TABLE} of the delete. The users' cache entries are locked until the transaction ends.
+     */
+    private Map<Long, String> deleteReturningEmails(Session session, Collection<Long> ids) {
+        SessionFactoryImplementor factory = session.getSessionFactory().unwrap(SessionFactoryImplementor.class);
+        String sql = factory.getJdbcServices().getDialect() instanceof PostgreSQLDialect
+                ? "DELETE FROM users WHERE id IN (:ids) RETURNING id, email"
+                : "SELECT id, email FROM OLD TABLE (DELETE FROM users WHERE id IN (:ids))";
+        flushPending(session);
+        lockCachedUsers(session, ids);
+        Map<Long, String> deleted = new LinkedHashMap<>();
+        for (Object[] row : session.createNativeQuery(sql, Object[].class)
+                .setParameterList("ids", ids)
+                .addSynchronizedQuerySpace(USER_ROW_SPACE)
+                .list()) {
+            deleted.put(((Number) row[0]).longValue(), (String) row[1]);
+        }
+        // Still inside the transaction, so no reader can have cached the deleted users by email for good
+        lockCachedEmails(session, deleted.values());
+        return deleted;
+    }
+
+    /**
+     * Locks the second-level cache entries of users a native statement is about to change, as Hibernate does for
+     * its own updates: their entity data and the query-cache timestamp of the users table, which only notices
+     * writes made through Hibernate otherwise. Until the transaction ends nothing is cached for them, and afterwards
+     * only reads that started later can cache them again, so a reader that loaded an old row before the commit
+     * can't put it back. Other users stay cached.
+     */
+    private void lockCachedUsers(Session session, Collection<Long> ids) {
+        SessionImplementor implementor = session.unwrap(SessionImplementor.class);
+        SessionFactoryImplementor factory = implementor.getFactory();
+        EntityPersister persister = factory.getMappingMetamodel().getEntityDescriptor(User.class);
+        EntityDataAccess entities = persister.getCacheAccessStrategy();
+        Map<Object, SoftLock> locks = new HashMap<>();
+        if (entities != null) {
+            for (Long id : ids) {
+                Object key = entities.generateCacheKey(id, persister, factory, implementor.getTenantIdentifier());
+                locks.put(key, entities.lockItem(implementor, key, null));
+            }
+        }
+        TimestampsCache timestamps = factory.getSessionFactoryOptions().isQueryCacheEnabled()
+                ? factory.getCache().getTimestampsCache() : null;
+        String[] tables = Arrays.stream(persister.getQuerySpaces()).map(Object::toString).toArray(String[]::new);
+        if (timestamps != null) {
+            timestamps.preInvalidate(tables, implementor);
+        }
+        implementor.getActionQueue().registerProcess((success, completed) -> {
+            locks.forEach((key, lock) -> entities.unlockItem(completed, key, lock));
+            if (timestamps != null) {
+                timestamps.invalidate(tables, completed);
+            }
+        });
+    }
+
+    /** Like {@link #lockCachedUsers}, for the natural-id cache entries of the emails the users had. */
+    private void lockCachedEmails(Session session, Collection<String> emails) {
+        SessionImplementor implementor = session.unwrap(SessionImplementor.class);
+        EntityPersister persister = implementor.getFactory().getMappingMetamodel().getEntityDescriptor(User.class);
+        NaturalIdDataAccess naturalIds = persister.getNaturalIdCacheAccessStrategy();
+        if (naturalIds == null || emails.isEmpty()) {
+            return;
+        }
+        Map<Object, SoftLock> locks = new HashMap<>();
+        for (String email : emails) {
+            Object key = naturalIds.generateCacheKey(email, persister, implementor);
+            locks.put(key, naturalIds.lockItem(implementor, key, null));
+        }
+        implementor.getActionQueue().registerProcess((success, completed) ->
+                locks.forEach((key, lock) -> naturalIds.unlockItem(completed, key, lock)));
+    }
+
+    private boolean exists(Session session, Long id) {
+        return session.createQuery("SELECT count(u) FROM User u WHERE u.id = :id", Long.class)
+                .setParameter("id", id)
+                .getSingleResult() > 0;
+    }
+
+    private OptimisticLockConflictException conflict(Long id, Exception e) {
+        // The caller read a stale copy, from the cache or a lagging replica; make the retry see the current row
+        sessionFactory().getCache().evictEntityData(User.class, id);
+        router.writeCompleted(List.of(id));
+        return e instanceof OptimisticLockConflictException conflict ? conflict : new OptimisticLockConflictException(id, e);
+    }
+
+    private static DuplicateEmailException duplicateEmail(String email, Exception e) {
+        logger.debug("Email already in use: {}", email);
+        if (e instanceof DuplicateEmailException duplicate && (email == null || email.equals(duplicate.getEmail()))) {
+            return duplicate;
+        }
+        return new DuplicateEmailException(email, e);
+    }
+
+    /** Typed exceptions pass through, including ones from a unit of work this call joined; the rest is wrapped. */
+    private static DataAccessException failure(String message, Exception e) {
+        return e instanceof DataAccessException dataAccess ? dataAccess : new DataAccessException(message, e);
+    }
+
+    @Override
+    public int deleteById(Long id) {
+        try {
+            int deleted = write(session -> {
+                Map<Long, String> emails = deleteReturningEmails(session, List.of(id));
+                if (!emails.isEmpty()) {
+                    recordChange(session, OutboxEvent.deleted(id));
+                }
+                return emails.size();
+            }, count -> emailIdCache.evict(id));
+            if (deleted > 0) {
+                logger.debug("User deleted with id {}", id);
+            } else {
+                logger.warn("Attempt to delete non-existing user with id: {}", id);
+            }
+            return deleted;
+        } catch (RuntimeException e) {
             logger.error("Error deleting user with id: {}", id, e);
-            throw new RuntimeException("Failed to delete user with id: " + id, e);
+            throw failure("Failed to delete user with id: " + id, e);
+        }
+    }
+
+    @Override
+    public List<User> saveAll(Collection<User> users) {
+        // Clearing the session would detach the entities of a unit of work this call joins
+        boolean ownSession = !unitOfWork.isActive();
+        try {
+            write(session -> {
+                session.setJdbcBatchSize(batchSize);
+                int count = 0;
+                for (User user : users) {
+                    session.persist(user);
+                    recordChange(session, OutboxEvent.created(user));
+                    if (++count % batchSize == 0) {
+                        session.flush();
+                        if (ownSession) session.clear();
+                    }
+                }
+                return count;
+            }, count -> users.forEach(user -> emailIdCache.put(user.getEmail(), user.getId())));
+            logger.info("Saved {} users in batches of {}", users.size(), batchSize);
+            return new ArrayList<>(users);
+        } catch (RuntimeException e) {
+            if (PersistenceErrors.isUniqueViolation(e)) {
+                throw duplicateEmail(null, e);
+            }
+            logger.error("Error saving {} users", users.size(), e);
+            throw failure("Failed to save users", e);
+        }
+    }
+
+    @Override
+    public List<User> updateAll(Collection<User> users) {
+        boolean ownSession = !unitOfWork.isActive();
+        try {
+            write(session -> {
+                session.setJdbcBatchSize(batchSize);
+                for (List<User> chunk : chunks(users)) {
+                    // Load the whole chunk with one query so merge() doesn't SELECT row by row
+                    Map<Long, User> current = new HashMap<>();
+                    session.createQuery("FROM User u WHERE u.id IN :ids", User.class)
+                            .setParameterList("ids", chunk.stream().map(User::getId).toList())
+                            .list()
+                            .forEach(user -> current.put(user.getId(), user));
+                    for (User user : chunk) {
+                        User before = current.get(user.getId());
+                        if (before == null) {
+                            // merge() would insert it under a new id, like update() this is an error
+                            throw new UserNotFoundException(user.getId());
+                        }
+                        recordChange(session, OutboxEvent.updated(before, user));
+                        session.merge(user);
+                    }
+                    session.flush();
+                    if (ownSession) session.clear();
+                }
+                return users.size();
+            }, count -> users.forEach(user -> emailIdCache.put(user.getEmail(), user.getId())));
+            logger.info("Updated {} users in batches of {}", users.size(), batchSize);
+            return new ArrayList<>(users);
+        } catch (RuntimeException e) {
+            if (PersistenceErrors.isUniqueViolation(e)) {
+                throw duplicateEmail(null, e);
+            }
+            if (e instanceof UserNotFoundException notFound) {
+                logger.debug("No user to update with id {}", notFound.getId());
+                throw notFound;
+            }
+            logger.error("Error updating {} users", users.size(), e);
+            throw failure("Failed to update users", e);
+        }
+    }
+
+    @Override
+    public int deleteAllById(Collection<Long> ids) {
+        try {
+            int deleted = write(session -> {
+                int count = 0;
+                for (List<Long> chunk : chunks(ids)) {
+                    // The statement itself reports which of the ids existed, for the outbox and the cache
+                    Map<Long, String> emails = deleteReturningEmails(session, chunk);
+                    emails.keySet().forEach(id -> recordChange(session, OutboxEvent.deleted(id)));
+                    count += emails.size();
+                }
+                return count;
+            }, count -> ids.forEach(emailIdCache::evict));
+            logger.info("Deleted {} of {} requested users", deleted, ids.size());
+            return deleted;
+        } catch (RuntimeException e) {
+            logger.error("Error deleting {} users", ids.size(), e);
+            throw failure("Failed to delete users", e);
+        }
+    }
+
+    private <T> List<List<T>> chunks(Collection<T> items) {
+        List<List<T>> chunks = new ArrayList<>();
+        List<T> current = new ArrayList<>(batchSize);
+        for (T item : items) {
+            current.add(item);
+            if (current.size() == batchSize) {
+                chunks.add(current);
+                current = new ArrayList<>(batchSize);
+            }
+        }
+        if (!current.isEmpty()) {
+            chunks.add(current);
         }
+        return chunks;
     }
 }
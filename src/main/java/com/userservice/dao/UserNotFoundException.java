@@ -0,0 +1,21 @@
+package com.userservice.dao;
+
+/**
+ * Thrown when a write that requires an existing user, such as {@link UserDao#update}, names an id that has no
+ * user.
+ */
+public class UserNotFoundException extends DataAccessException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Long id;
+
+    public UserNotFoundException(Long id) {
+        super("User not found with id: " + id, null);
+        this.id = id;
+    }
+
+    public Long getId() {
+        return id;
+    }
+}
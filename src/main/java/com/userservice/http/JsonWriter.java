@@ -0,0 +1,256 @@
+package com.userservice.http;
+
+import com.userservice.model.User;
+import com.userservice.model.UserStatistics;
+import com.userservice.model.UserSummary;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Writes users as JSON straight into a byte buffer that is flushed to the response stream when full. Numbers,
+ * timestamps and strings are encoded digit by digit and char by char, so writing a user allocates nothing; one
+ * writer and its buffer serve a whole response, however many users it streams.
+ */
+public final class JsonWriter {
+
+    private static final int DEFAULT_BUFFER_SIZE = 1024;
+    // Longest run written without checking for room: a quoted timestamp
+    private static final int MIN_BUFFER_SIZE = 64;
+    private static final byte[] HEX = "0123456789abcdef".getBytes();
+
+    private final OutputStream out;
+    private final byte[] buffer;
+    private int position;
+
+    public JsonWriter(OutputStream out) {
+        this(out, DEFAULT_BUFFER_SIZE);
+    }
+
+    public JsonWriter(OutputStream out, int bufferSize) {
+        if (bufferSize < MIN_BUFFER_SIZE) {
+            throw new IllegalArgumentException("Buffer must hold at least " + MIN_BUFFER_SIZE + " bytes");
+        }
+        this.out = out;
+        this.buffer = new byte[bufferSize];
+    }
+
+    /** {@code {"id":1,"name":"Ann","email":"ann@mail.com","age":30,"createdAt":"...","version":0}} */
+    public JsonWriter user(User user) throws IOException {
+        ascii("{\"id\":");
+        number(user.getId());
+        ascii(",\"name\":");
+        string(user.getName());
+        ascii(",\"email\":");
+        string(user.getEmail());
+        ascii(",\"age\":");
+        number(user.getAge());
+        ascii(",\"createdAt\":");
+        timestamp(user.getCreatedAt());
+        ascii(",\"version\":");
+        number(user.getVersion());
+        return raw('}');
+    }
+
+    public JsonWriter summary(UserSummary summary) throws IOException {
+        ascii("{\"id\":");
+        number(summary.id());
+        ascii(",\"name\":");
+        string(summary.name());
+        ascii(",\"email\":");
+        string(summary.email());
+        return raw('}');
+    }
+
+    /**
+     * {@code {"totalUsers":3,"ageHistogram":{"30":2,"40":1},"signupsByDay":{"2024-01-01":3},"computedAt":"..."}},
+     * ages bucketed by {@link UserStatistics#ageHistogram(int)}.
+     */
+    public JsonWriter statistics(UserStatistics statistics, int ageBucketWidth) throws IOException {
+        ascii("{\"totalUsers\":");
+        number(statistics.totalUsers());
+        ascii(",\"ageHistogram\":");
+        counts(statistics.ageHistogram(ageBucketWidth));
+        ascii(",\"signupsByDay\":");
+        counts(statistics.signupsByDay());
+        ascii(",\"computedAt\":");
+        string(statistics.computedAt().toString());
+        return raw('}');
+    }
+
+    /** {@code {"error":"..."}} */
+    public JsonWriter error(String message) throws IOException {
+        ascii("{\"error\":");
+        string(message);
+        return raw('}');
+    }
+
+    public JsonWriter raw(char c) throws IOException {
+        ensure(1);
+        buffer[position++] = (byte) c;
+        return this;
+    }
+
+    public JsonWriter number(Long value) throws IOException {
+        return value == null ? ascii("null") : number(value.longValue());
+    }
+
+    public JsonWriter number(long value) throws IOException {
+        if (value == Long.MIN_VALUE) {
+            return ascii("-9223372036854775808");
+        }
+        ensure(20);
+        if (value < 0) {
+            buffer[position++] = '-';
+            value = -value;
+        }
+        int digits = 1;
+        for (long rest = value / 10; rest > 0; rest /= 10) {
+            digits++;
+        }
+        for (int i = position + digits - 1; i >= position; i--) {
+            buffer[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        position += digits;
+        return this;
+    }
+
+    public JsonWriter string(String value) throws IOException {
+        if (value == null) {
+            return ascii("null");
+        }
+        raw('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= 0x20 && c < 0x80 && c != '"' && c != '\\') {
+                ensure(1);
+                buffer[position++] = (byte) c;
+            } else if (c == '"' || c == '\\') {
+                ensure(2);
+                buffer[position++] = '\\';
+                buffer[position++] = (byte) c;
+            } else if (c < 0x20) {
+                escape(c);
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                utf8(Character.toCodePoint(c, value.charAt(++i)));
+            } else if (Character.isSurrogate(c)) {
+                // Unpaired surrogate: not encodable as UTF-8
+                escape(c);
+            } else {
+                utf8(c);
+            }
+        }
+        return raw('"');
+    }
+
+    /** ISO-8601 like {@link LocalDateTime#toString()}, but always with seconds. */
+    public JsonWriter timestamp(LocalDateTime value) throws IOException {
+        if (value == null) {
+            return ascii("null");
+        }
+        ensure(40);
+        buffer[position++] = '"';
+        number(value.getYear());
+        buffer[position++] = '-';
+        twoDigits(value.getMonthValue());
+        buffer[position++] = '-';
+        twoDigits(value.getDayOfMonth());
+        buffer[position++] = 'T';
+        twoDigits(value.getHour());
+        buffer[position++] = ':';
+        twoDigits(value.getMinute());
+        buffer[position++] = ':';
+        twoDigits(value.getSecond());
+        int nano = value.getNano();
+        if (nano > 0) {
+            buffer[position++] = '.';
+            int digits = nano % 1_000_000 == 0 ? 3 : nano % 1000 == 0 ? 6 : 9;
+            int divisor = 100_000_000;
+            for (int i = 0; i < digits; i++) {
+                buffer[position++] = (byte) ('0' + nano / divisor % 10);
+                divisor /= 10;
+            }
+        }
+        buffer[position++] = '"';
+        return this;
+    }
+
+    public void flush() throws IOException {
+        if (position > 0) {
+            out.write(buffer, 0, position);
+            position = 0;
+        }
+        out.flush();
+    }
+
+    private void counts(Map<?, Long> counts) throws IOException {
+        raw('{');
+        boolean first = true;
+        for (Map.Entry<?, Long> entry : counts.entrySet()) {
+            if (!first) {
+                raw(',');
+            }
+            string(entry.getKey().toString());
+            raw(':');
+            number(entry.getValue());
+            first = false;
+        }
+        raw('}');
+    }
+
+    private JsonWriter ascii(String text) throws IOException {
+        ensure(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            buffer[position++] = (byte) text.charAt(i);
+        }
+        return this;
+    }
+
+    private void twoDigits(int value) {
+        buffer[position++] = (byte) ('0' + value / 10);
+        buffer[position++] = (byte) ('0' + value % 10);
+    }
+
+    private void escape(char c) throws IOException {
+        ensure(6);
+        buffer[position++] = '\\';
+        switch (c) {
+            case '\n' -> buffer[position++] = 'n';
+            case '\r' -> buffer[position++] = 'r';
+            case '\t' -> buffer[position++] = 't';
+            default -> {
+                buffer[position++] = 'u';
+                buffer[position++] = HEX[c >> 12 & 0xF];
+                buffer[position++] = HEX[c >> 8 & 0xF];
+                buffer[position++] = HEX[c >> 4 & 0xF];
+                buffer[position++] = HEX[c & 0xF];
+            }
+        }
+    }
+
+    private void utf8(int codePoint) throws IOException {
+        ensure(4);
+        if (codePoint < 0x800) {
+            buffer[position++] = (byte) (0xC0 | codePoint >> 6);
+        } else if (codePoint < 0x10000) {
+            buffer[position++] = (byte) (0xE0 | codePoint >> 12);
+            buffer[position++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+        } else {
+            buffer[position++] = (byte) (0xF0 | codePoint >> 18);
+            buffer[position++] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+            buffer[position++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+        }
+        buffer[position++] = (byte) (0x80 | codePoint & 0x3F);
+    }
+
+    private void ensure(int bytes) throws IOException {
+        if (position + bytes > buffer.length) {
+            out.write(buffer, 0, position);
+            position = 0;
+        }
+    }
+}
@@ -0,0 +1,398 @@
+package com.userservice.http;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.userservice.dao.DuplicateEmailException;
+import com.userservice.dao.OptimisticLockConflictException;
+import com.userservice.dao.UserNotFoundException;
+import com.userservice.model.User;
+import com.userservice.model.UserPatch;
+import com.userservice.model.UserStatistics;
+import com.userservice.service.UserService;
+import com.userservice.util.FlatJson;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * JSON API over {@link UserService} on the JDK built-in HTTP server, with one virtual thread per request:
+ * <pre>
+ * POST   /users                    create, 201 with Location
+ * GET    /users                    every user, streamed as a JSON array
+ * GET    /users?limit=N[&amp;after=ID] one page by id; X-Next-After is set when more may follow
+ * GET    /users/statistics[?since=YYYY-MM-DD&amp;ageBucket=N]
+ *                                  counts by age bucket (10 years) and signups per day (last 30 days)
+ * GET    /users/{id}
+ * PUT    /users/{id}               replace name, email and age
+ * PATCH  /users/{id}               change only the given fields
+ * DELETE /users/{id}               204
+ * </pre>
+ * Invalid input is answered with 400, a write that conflicts with another user or a concurrent update with 409.
+ * A request that hasn't started its response within the request timeout gets a 503 and its worker is interrupted;
+ * a response already streaming is left to finish.
+ */
+public final class UserHttpServer implements AutoCloseable {
+
+    private static final Logger logger = LogManager.getLogger(UserHttpServer.class);
+    private static final String CONTENT_TYPE = "application/json; charset=utf-8";
+    private static final String USERS = "/users";
+    private static final String STATISTICS = USERS + "/statistics";
+    private static final int DEFAULT_SIGNUP_DAYS = 30;
+    private static final int DEFAULT_AGE_BUCKET = 10;
+    static final int MAX_BODY_BYTES = 64 * 1024;
+    static final int MAX_PAGE_SIZE = 1000;
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    private UserHttpServer(HttpServer server, ExecutorService executor) {
+        this.server = server;
+        this.executor = executor;
+    }
+
+    public static UserHttpServer start(int port, UserService userService, Duration requestTimeout) {
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress(port), 0);
+            Handler handler = new Handler(userService, executor, requestTimeout.toNanos());
+            server.createContext(USERS, handler::handle);
+            server.setExecutor(executor);
+            server.start();
+            logger.info("User API listening on port {}", server.getAddress().getPort());
+            return new UserHttpServer(server, executor);
+        } catch (IOException e) {
+            executor.shutdown();
+            throw new RuntimeException("Failed to start user API on port " + port, e);
+        }
+    }
+
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private record Handler(UserService userService, ExecutorService executor, long timeoutNanos) {
+
+        void handle(HttpExchange exchange) {
+            Response response = new Response(exchange);
+            try (exchange) {
+                Future<?> work = executor.submit(() -> {
+                    route(exchange, response);
+                    return null;
+                });
+                try {
+                    await(work, exchange, response);
+                } catch (ExecutionException e) {
+                    fail(exchange, response, e.getCause());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (IOException e) {
+                logger.debug("Client went away: {}", e.getMessage());
+            }
+        }
+
+        private void await(Future<?> work, HttpExchange exchange, Response response)
+                throws ExecutionException, InterruptedException, IOException {
+            try {
+                work.get(timeoutNanos, TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                if (response.start()) {
+                    work.cancel(true);
+                    logger.warn("{} {} timed out", exchange.getRequestMethod(), exchange.getRequestURI());
+                    response.send(503, writer -> writer.error("Request timed out"));
+                } else {
+                    // Already streaming: let it finish rather than cut the body off
+                    work.get();
+                }
+            }
+        }
+
+        private void fail(HttpExchange exchange, Response response, Throwable error) {
+            int status = status(error);
+            if (status == 500) {
+                logger.error("{} {} failed", exchange.getRequestMethod(), exchange.getRequestURI(), error);
+            }
+            if (response.start()) {
+                try {
+                    response.send(status, writer -> writer.error(status == 500 ? "Internal error" : error.getMessage()));
+                } catch (IOException e) {
+                    logger.debug("Client went away: {}", e.getMessage());
+                }
+            }
+        }
+
+        private static int status(Throwable error) {
+            if (error instanceof HttpStatusException statusError) {
+                return statusError.status;
+            }
+            if (error instanceof DuplicateEmailException || error instanceof OptimisticLockConflictException) {
+                return 409;
+            }
+            if (error instanceof UserNotFoundException) {
+                return 404;
+            }
+            if (error instanceof IllegalArgumentException) {
+                return 400;
+            }
+            return 500;
+        }
+
+        private void route(HttpExchange exchange, Response response) throws IOException {
+            String method = exchange.getRequestMethod();
+            String path = exchange.getRequestURI().getPath();
+            if (path.equals(USERS) || path.equals(USERS + "/")) {
+                switch (method) {
+                    case "GET" -> list(exchange.getRequestURI(), response);
+                    case "POST" -> create(exchange, response);
+                    default -> throw new HttpStatusException(405, "Method not allowed");
+                }
+                return;
+            }
+            if (path.equals(STATISTICS)) {
+                if (!method.equals("GET")) {
+                    throw new HttpStatusException(405, "Method not allowed");
+                }
+                statistics(exchange.getRequestURI(), response);
+                return;
+            }
+            if (!path.startsWith(USERS + "/") || path.indexOf('/', USERS.length() + 1) >= 0) {
+                throw new HttpStatusException(404, "Not found");
+            }
+            Long id = parseId(path.substring(USERS.length() + 1));
+            switch (method) {
+                case "GET" -> get(id, response);
+                case "PUT" -> update(id, exchange, response, true);
+                case "PATCH" -> update(id, exchange, response, false);
+                case "DELETE" -> delete(id, response);
+                default -> throw new HttpStatusException(405, "Method not allowed");
+            }
+        }
+
+        private void create(HttpExchange exchange, Response response) throws IOException {
+            Map<String, String> fields = readObject(exchange);
+            User user = userService.createUser(required(fields, "name"), required(fields, "email"),
+                    parseAge(required(fields, "age")));
+            response.header("Location", USERS + "/" + user.getId());
+            response.sendIfFirst(201, writer -> writer.user(user));
+        }
+
+        private void get(Long id, Response response) throws IOException {
+            User user = userService.getUserById(id).orElseThrow(() -> notFound(id));
+            response.sendIfFirst(200, writer -> writer.user(user));
+        }
+
+        private void update(Long id, HttpExchange exchange, Response response, boolean replace) throws IOException {
+            Map<String, String> fields = readObject(exchange);
+            UserPatch patch = replace
+                    ? new UserPatch(required(fields, "name"), required(fields, "email"), parseAge(required(fields, "age")))
+                    : new UserPatch(fields.get("name"), fields.get("email"), parseAge(fields.get("age")));
+            if (!userService.patchUser(id, patch)) {
+                throw notFound(id);
+            }
+            get(id, response);
+        }
+
+        private void delete(Long id, Response response) throws IOException {
+            if (!userService.deleteUser(id)) {
+                throw notFound(id);
+            }
+            if (response.start()) {
+                response.exchange.sendResponseHeaders(204, -1);
+            }
+        }
+
+        private void list(URI uri, Response response) throws IOException {
+            Map<String, String> query = parseQuery(uri.getRawQuery());
+            String limit = query.get("limit");
+            if (limit == null) {
+                try (Stream<User> users = userService.streamAllUsers()) {
+                    Iterator<User> iterator = users.iterator();
+                    response.sendIfFirst(200, writer -> writeArray(writer, iterator));
+                }
+                return;
+            }
+            int pageSize = parseInt(limit, "limit");
+            if (pageSize <= 0 || pageSize > MAX_PAGE_SIZE) {
+                throw new IllegalArgumentException("limit must be between 1 and " + MAX_PAGE_SIZE);
+            }
+            String after = query.get("after");
+            List<User> page = userService.getUsersPage(after == null ? null : parseId(after), pageSize);
+            if (page.size() == pageSize) {
+                response.header("X-Next-After", String.valueOf(page.get(page.size() - 1).getId()));
+            }
+            response.sendIfFirst(200, writer -> writeArray(writer, page.iterator()));
+        }
+
+        private void statistics(URI uri, Response response) throws IOException {
+            Map<String, String> query = parseQuery(uri.getRawQuery());
+            String since = query.get("since");
+            String ageBucket = query.get("ageBucket");
+            int bucketWidth = ageBucket == null ? DEFAULT_AGE_BUCKET : parseInt(ageBucket, "ageBucket");
+            if (bucketWidth <= 0) {
+                throw new IllegalArgumentException("ageBucket must be positive");
+            }
+            UserStatistics statistics = userService.getStatistics(since == null
+                    ? LocalDate.now().minusDays(DEFAULT_SIGNUP_DAYS - 1)
+                    : parseDate(since));
+            response.sendIfFirst(200, writer -> writer.statistics(statistics, bucketWidth));
+        }
+
+        private static void writeArray(JsonWriter writer, Iterator<User> users) throws IOException {
+            writer.raw('[');
+            boolean first = true;
+            while (users.hasNext()) {
+                if (!first) {
+                    writer.raw(',');
+                }
+                writer.user(users.next());
+                first = false;
+            }
+            writer.raw(']');
+        }
+
+        private static Map<String, String> readObject(HttpExchange exchange) throws IOException {
+            byte[] body;
+            try (InputStream in = exchange.getRequestBody()) {
+                body = in.readNBytes(MAX_BODY_BYTES + 1);
+            }
+            if (body.length > MAX_BODY_BYTES) {
+                throw new HttpStatusException(413, "Request body exceeds " + MAX_BODY_BYTES + " bytes");
+            }
+            return FlatJson.parseObject(new String(body, StandardCharsets.UTF_8));
+        }
+
+        private static Map<String, String> parseQuery(String rawQuery) {
+            if (rawQuery == null || rawQuery.isEmpty()) {
+                return Map.of();
+            }
+            Map<String, String> parameters = new HashMap<>();
+            for (String pair : rawQuery.split("&")) {
+                int eq = pair.indexOf('=');
+                if (eq > 0) {
+                    parameters.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+                            URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+                }
+            }
+            return parameters;
+        }
+
+        private static String required(Map<String, String> fields, String name) {
+            return Optional.ofNullable(fields.get(name))
+                    .orElseThrow(() -> new IllegalArgumentException("Missing field: " + name));
+        }
+
+        private static Integer parseAge(String age) {
+            return age == null ? null : parseInt(age, "age");
+        }
+
+        private static int parseInt(String value, String name) {
+            try {
+                return Integer.parseInt(value);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid " + name + ": " + value);
+            }
+        }
+
+        private static LocalDate parseDate(String date) {
+            try {
+                return LocalDate.parse(date);
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("Invalid since: " + date);
+            }
+        }
+
+        private static Long parseId(String id) {
+            try {
+                return Long.valueOf(id);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid user id: " + id);
+            }
+        }
+
+        private static HttpStatusException notFound(Long id) {
+            return new HttpStatusException(404, "User not found with ID: " + id);
+        }
+    }
+
+    /**
+     * The response of one exchange. Whoever starts it first — the worker or the timeout — owns it; the other side
+     * must not touch the headers or body.
+     */
+    private static final class Response {
+
+        private final HttpExchange exchange;
+        private final AtomicBoolean started = new AtomicBoolean();
+
+        Response(HttpExchange exchange) {
+            this.exchange = exchange;
+        }
+
+        boolean start() {
+            return started.compareAndSet(false, true);
+        }
+
+        void header(String name, String value) {
+            exchange.getResponseHeaders().set(name, value);
+        }
+
+        void sendIfFirst(int status, Body body) throws IOException {
+            if (start()) {
+                send(status, body);
+            }
+        }
+
+        /** Chunked, so bodies of any size stream without being buffered whole. */
+        void send(int status, Body body) throws IOException {
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            exchange.sendResponseHeaders(status, 0);
+            JsonWriter writer = new JsonWriter(exchange.getResponseBody());
+            body.write(writer);
+            writer.flush();
+        }
+    }
+
+    @FunctionalInterface
+    private interface Body {
+        void write(JsonWriter writer) throws IOException;
+    }
+
+    private static final class HttpStatusException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int status;
+
+        HttpStatusException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.userservice.metrics;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.hibernate.SessionFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Supplier;
+
+/**
+ * Serves {@code GET /metrics} in the Prometheus text format using the JDK built-in HTTP server. The SessionFactory
+ * is resolved on each scrape, so starting the endpoint doesn't build it ahead of a lazy bootstrap.
+ */
+public final class MetricsHttpServer implements AutoCloseable {
+
+    private static final Logger logger = LogManager.getLogger(MetricsHttpServer.class);
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private final HttpServer server;
+
+    private MetricsHttpServer(HttpServer server) {
+        this.server = server;
+    }
+
+    public static MetricsHttpServer start(int port, MetricsRegistry registry, Supplier<SessionFactory> sessionFactory) {
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress(port), 0);
+            server.createContext("/metrics", exchange -> handle(exchange, registry, sessionFactory));
+            server.start();
+            logger.info("Metrics endpoint listening on port {}", server.getAddress().getPort());
+            return new MetricsHttpServer(server);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to start metrics endpoint on port " + port, e);
+        }
+    }
+
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    private static void handle(HttpExchange exchange, MetricsRegistry registry,
+                               Supplier<SessionFactory> sessionFactory) throws IOException {
+        try (exchange) {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            byte[] body = PrometheusFormatter.format(registry, sessionFactory.get()).getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(body);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
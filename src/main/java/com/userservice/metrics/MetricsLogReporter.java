@@ -0,0 +1,48 @@
+package com.userservice.metrics;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically logs one line per DAO operation that was called since start-up.
+ */
+public final class MetricsLogReporter implements AutoCloseable {
+
+    private static final Logger logger = LogManager.getLogger(MetricsLogReporter.class);
+
+    private final MetricsRegistry registry;
+    private final ScheduledExecutorService scheduler;
+
+    public MetricsLogReporter(MetricsRegistry registry, Duration period) {
+        this.registry = registry;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "metrics-log-reporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(this::report, period.toMillis(), period.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public void report() {
+        for (OperationMetrics operation : registry.operations()) {
+            LatencyHistogram latency = operation.latencyNanos();
+            if (latency.count() == 0) {
+                continue;
+            }
+            logger.info("dao.{} calls={} errors={} p50={}us p99={}us p999={}us max={}us",
+                    operation.name(), latency.count(), operation.errors(),
+                    latency.percentile(0.5) / 1000, latency.percentile(0.99) / 1000,
+                    latency.percentile(0.999) / 1000, latency.max() / 1000);
+        }
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+}
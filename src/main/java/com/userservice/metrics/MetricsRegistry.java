@@ -0,0 +1,27 @@
+package com.userservice.metrics;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Named {@link OperationMetrics}. Look operations up once and keep the reference on the hot path.
+ */
+public final class MetricsRegistry {
+
+    private final Map<String, OperationMetrics> operations = new ConcurrentSkipListMap<>();
+    private final long startedNanos = System.nanoTime();
+
+    public OperationMetrics operation(String name) {
+        return operations.computeIfAbsent(name, OperationMetrics::new);
+    }
+
+    public Collection<OperationMetrics> operations() {
+        return Collections.unmodifiableCollection(operations.values());
+    }
+
+    public double uptimeSeconds() {
+        return (System.nanoTime() - startedNanos) / 1_000_000_000.0;
+    }
+}
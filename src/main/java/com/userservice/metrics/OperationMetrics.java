@@ -0,0 +1,41 @@
+package com.userservice.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency and error counters of one DAO operation. Recording allocates nothing.
+ */
+public final class OperationMetrics {
+
+    private final String name;
+    private final LatencyHistogram latencyNanos = new LatencyHistogram();
+    private final LongAdder errors = new LongAdder();
+
+    OperationMetrics(String name) {
+        this.name = name;
+    }
+
+    public void record(long elapsedNanos) {
+        latencyNanos.record(elapsedNanos);
+    }
+
+    public void error() {
+        errors.increment();
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public long calls() {
+        return latencyNanos.count();
+    }
+
+    public long errors() {
+        return errors.sum();
+    }
+
+    public LatencyHistogram latencyNanos() {
+        return latencyNanos;
+    }
+}
@@ -0,0 +1,110 @@
+package com.userservice.metrics;
+
+import com.userservice.util.ConnectionPoolMetrics;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+
+import java.util.Locale;
+
+/**
+ * Renders DAO operation metrics, Hibernate {@link Statistics} and the connection pool in the Prometheus text
+ * exposition format. Only called on scrape, so it is free to allocate.
+ */
+public final class PrometheusFormatter {
+
+    private static final double[] QUANTILES = {0.5, 0.99, 0.999};
+
+    private PrometheusFormatter() {
+    }
+
+    public static String format(MetricsRegistry registry, SessionFactory sessionFactory) {
+        StringBuilder out = new StringBuilder(4096);
+        appendOperations(out, registry);
+        if (sessionFactory != null) {
+            appendHibernate(out, sessionFactory.getStatistics());
+            appendPool(out, sessionFactory);
+        }
+        return out.toString();
+    }
+
+    private static void appendOperations(StringBuilder out, MetricsRegistry registry) {
+        header(out, "userservice_dao_latency_seconds", "summary", "Latency of UserDao calls");
+        for (OperationMetrics operation : registry.operations()) {
+            LatencyHistogram latency = operation.latencyNanos();
+            for (double quantile : QUANTILES) {
+                out.append("userservice_dao_latency_seconds{operation=\"").append(operation.name())
+                        .append("\",quantile=\"").append(quantile).append("\"} ")
+                        .append(seconds(latency.percentile(quantile))).append('\n');
+            }
+            sample(out, "userservice_dao_latency_seconds_sum", operation.name(), seconds(latency.sum()));
+            sample(out, "userservice_dao_latency_seconds_count", operation.name(), latency.count());
+        }
+        header(out, "userservice_dao_errors_total", "counter", "Failed UserDao calls");
+        for (OperationMetrics operation : registry.operations()) {
+            sample(out, "userservice_dao_errors_total", operation.name(), operation.errors());
+        }
+        header(out, "userservice_uptime_seconds", "gauge", "Seconds since the metrics registry was created");
+        out.append("userservice_uptime_seconds ").append(format(registry.uptimeSeconds())).append('\n');
+    }
+
+    private static void appendHibernate(StringBuilder out, Statistics statistics) {
+        if (!statistics.isStatisticsEnabled()) {
+            return;
+        }
+        counter(out, "hibernate_statements_prepared_total", "JDBC statements prepared",
+                statistics.getPrepareStatementCount());
+        counter(out, "hibernate_entity_loads_total", "Entities loaded", statistics.getEntityLoadCount());
+        counter(out, "hibernate_second_level_cache_hits_total", "Second-level cache hits",
+                statistics.getSecondLevelCacheHitCount());
+        counter(out, "hibernate_second_level_cache_misses_total", "Second-level cache misses",
+                statistics.getSecondLevelCacheMissCount());
+        counter(out, "hibernate_query_cache_hits_total", "Query cache hits", statistics.getQueryCacheHitCount());
+        counter(out, "hibernate_connections_obtained_total", "JDBC connections obtained by sessions",
+                statistics.getConnectCount());
+        counter(out, "hibernate_transactions_total", "Completed transactions", statistics.getTransactionCount());
+        counter(out, "hibernate_optimistic_failures_total", "Optimistic lock failures",
+                statistics.getOptimisticFailureCount());
+    }
+
+    private static void appendPool(StringBuilder out, SessionFactory sessionFactory) {
+        ConnectionPoolMetrics.snapshot(sessionFactory).ifPresent(pool -> {
+            gauge(out, "hikaricp_connections_active", pool.activeConnections());
+            gauge(out, "hikaricp_connections_idle", pool.idleConnections());
+            gauge(out, "hikaricp_connections_pending", pool.threadsAwaitingConnection());
+            gauge(out, "hikaricp_connections_max", pool.maxPoolSize());
+            counter(out, "hikaricp_connections_acquired_total", "Connections handed out by the pool",
+                    pool.connectionsAcquired());
+            gauge(out, "hikaricp_connection_acquire_avg_seconds", pool.averageWaitMillis() / 1000.0);
+            gauge(out, "hikaricp_connection_acquire_max_seconds", pool.maxWaitMillis() / 1000.0);
+            counter(out, "hikaricp_connection_timeouts_total", "Connection requests that timed out",
+                    pool.connectionTimeouts());
+        });
+    }
+
+    private static void header(StringBuilder out, String name, String type, String help) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private static void counter(StringBuilder out, String name, String help, long value) {
+        header(out, name, "counter", help);
+        out.append(name).append(' ').append(value).append('\n');
+    }
+
+    private static void gauge(StringBuilder out, String name, double value) {
+        out.append("# TYPE ").append(name).append(" gauge\n");
+        out.append(name).append(' ').append(format(value)).append('\n');
+    }
+
+    private static void sample(StringBuilder out, String name, String operation, Object value) {
+        out.append(name).append("{operation=\"").append(operation).append("\"} ").append(value).append('\n');
+    }
+
+    private static String seconds(long nanos) {
+        return format(nanos / 1_000_000_000.0);
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.9f", value);
+    }
+}
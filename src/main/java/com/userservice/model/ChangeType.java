@@ -0,0 +1,8 @@
+package com.userservice.model;
+
+/** Kind of user mutation recorded in the outbox. */
+public enum ChangeType {
+    CREATE,
+    UPDATE,
+    DELETE
+}
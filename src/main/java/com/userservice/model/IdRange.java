@@ -0,0 +1,43 @@
+package com.userservice.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/** Ids from {@code first} to {@code last}, both included. */
+public record IdRange(long first, long last) {
+
+    public IdRange {
+        if (first > last) {
+            throw new IllegalArgumentException("First id " + first + " is after last id " + last);
+        }
+    }
+
+    public long size() {
+        return last - first + 1;
+    }
+
+    public boolean contains(long id) {
+        return id >= first && id <= last;
+    }
+
+    /**
+     * Consecutive ranges of (nearly) equal size covering this one, at most {@code parts} of them and fewer when the
+     * range holds fewer ids.
+     */
+    public List<IdRange> split(int parts) {
+        if (parts <= 0) {
+            throw new IllegalArgumentException("Parts must be positive");
+        }
+        long count = Math.min(parts, size());
+        long width = size() / count;
+        long remainder = size() % count;
+        List<IdRange> ranges = new ArrayList<>((int) count);
+        long start = first;
+        for (long i = 0; i < count; i++) {
+            long end = start + width - 1 + (i < remainder ? 1 : 0);
+            ranges.add(new IdRange(start, end));
+            start = end + 1;
+        }
+        return ranges;
+    }
+}
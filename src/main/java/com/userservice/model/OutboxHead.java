@@ -0,0 +1,30 @@
+package com.userservice.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * The single row holding the last position the relay stamped. Relays lock it while stamping, so positions are
+ * handed out by one transaction at a time and a reader never sees a higher position before a lower one.
+ */
+@Entity
+@Table(name = "user_outbox_head")
+@Getter
+@Setter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class OutboxHead {
+
+    public static final int ID = 1;
+
+    @Id
+    @Column(name = "id")
+    private Integer id;
+
+    @Column(name = "position", nullable = false)
+    private long position;
+
+    public OutboxHead(long position) {
+        this.id = ID;
+        this.position = position;
+    }
+}
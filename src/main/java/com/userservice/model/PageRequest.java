@@ -0,0 +1,34 @@
+package com.userservice.model;
+
+/**
+ * Keyset page request: {@code size} users ordered by {@code sort} then id, starting after the sort value and id of
+ * the last user of the previous page. Start with {@link #first}, continue with {@link #after(User)}.
+ */
+public record PageRequest(UserSort sort, boolean descending, int size, Object afterValue, Long afterId) {
+
+    public PageRequest {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+        if (sort == null) {
+            sort = UserSort.ID;
+        }
+    }
+
+    public static PageRequest first(int size) {
+        return first(UserSort.ID, false, size);
+    }
+
+    public static PageRequest first(UserSort sort, boolean descending, int size) {
+        return new PageRequest(sort, descending, size, null, null);
+    }
+
+    /** The request for the page following the one that ended with {@code last}. */
+    public PageRequest after(User last) {
+        return new PageRequest(sort, descending, size, sort.valueOf(last), last.getId());
+    }
+
+    public boolean isFirst() {
+        return afterId == null;
+    }
+}
@@ -2,25 +2,47 @@ package com.userservice.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "users")
+// Keyset-friendly search indexes (sort key + id). The lower(name) prefix index can't be expressed here,
+// see db/user_indexes.sql
+@Table(name = "users", indexes = {
+        @Index(name = "idx_users_age_id", columnList = "age, id"),
+        @Index(name = "idx_users_created_at_id", columnList = "created_at, id")
+})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = User.CACHE_REGION)
+@NaturalIdCache(region = User.NATURAL_ID_CACHE_REGION)
+@DynamicUpdate
 @Getter
 @Setter
 @ToString
 @NoArgsConstructor
-@AllArgsConstructor
 public class User {
 
+    public static final String CACHE_REGION = "users";
+    public static final String NATURAL_ID_CACHE_REGION = "users-natural-id";
+    public static final int NAME_MAX_LENGTH = 255;
+    /** Longest address RFC 5321 allows in a forward path; UserValidator enforces it. */
+    public static final int EMAIL_MAX_LENGTH = 254;
+
+    // Sequence ids (pooled optimizer) let Hibernate batch inserts; IDENTITY forces one INSERT per round trip
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_id_seq")
+    @SequenceGenerator(name = "users_id_seq", sequenceName = "users_id_seq", allocationSize = 50)
     private Long id;
 
-    @Column(name = "name", nullable = false)
+    @Column(name = "name", nullable = false, length = NAME_MAX_LENGTH)
     private String name;
 
-    @Column(name = "email", nullable = false, unique = true)
+    @NaturalId(mutable = true)
+    @Column(name = "email", nullable = false, unique = true, length = EMAIL_MAX_LENGTH)
     private String email;
 
     @Column(name = "age", nullable = false)
@@ -29,6 +51,20 @@ public class User {
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
+    // Optimistic locking: every UPDATE checks and bumps it, so concurrent writers can't silently overwrite each other
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
+    /** Detached user without a version: updating it overwrites the stored row without a conflict check. */
+    public User(Long id, String name, String email, int age, LocalDateTime createdAt) {
+        this.id = id;
+        this.name = name;
+        this.email = email;
+        this.age = age;
+        this.createdAt = createdAt;
+    }
+
     @Builder
     public User(String name, String email, int age) {
         this.name = name;
@@ -0,0 +1,11 @@
+package com.userservice.model;
+
+/**
+ * Partial update of a {@link User}: {@code null} fields are left unchanged.
+ */
+public record UserPatch(String name, String email, Integer age) {
+
+    public boolean isEmpty() {
+        return name == null && email == null && age == null;
+    }
+}
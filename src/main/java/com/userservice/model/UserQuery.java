@@ -0,0 +1,21 @@
+package com.userservice.model;
+
+import lombok.Builder;
+
+import java.time.LocalDateTime;
+
+/**
+ * Search criteria for users; {@code null} fields are not filtered on. Age bounds are inclusive, the creation
+ * range is {@code [createdFrom, createdBefore)} and the name prefix is matched case-insensitively.
+ */
+@Builder
+public record UserQuery(Integer minAge,
+                        Integer maxAge,
+                        String namePrefix,
+                        LocalDateTime createdFrom,
+                        LocalDateTime createdBefore) {
+
+    public static UserQuery all() {
+        return builder().build();
+    }
+}
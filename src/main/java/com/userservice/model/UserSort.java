@@ -0,0 +1,30 @@
+package com.userservice.model;
+
+import java.util.function.Function;
+
+/**
+ * Sort keys for {@link PageRequest}. Each one is backed by an index ending in {@code id}, which is the tie-breaker
+ * that makes keyset paging stable.
+ */
+public enum UserSort {
+    ID("u.id", User::getId),
+    AGE("u.age", User::getAge),
+    CREATED_AT("u.createdAt", User::getCreatedAt);
+
+    private final String path;
+    private final Function<User, Object> accessor;
+
+    UserSort(String path, Function<User, Object> accessor) {
+        this.path = path;
+        this.accessor = accessor;
+    }
+
+    /** HQL path of the sort key, aliased as {@code u}. */
+    public String path() {
+        return path;
+    }
+
+    public Object valueOf(User user) {
+        return accessor.apply(user);
+    }
+}
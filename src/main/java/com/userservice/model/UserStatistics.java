@@ -0,0 +1,36 @@
+package com.userservice.model;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Aggregates over all users as of {@code computedAt}: the total, the number of users of each age, and the number of
+ * users created on each day since the day asked for. Ages and days without users are left out.
+ */
+public record UserStatistics(long totalUsers, SortedMap<Integer, Long> usersByAge,
+                             SortedMap<LocalDate, Long> signupsByDay, Instant computedAt) {
+
+    public UserStatistics {
+        usersByAge = Collections.unmodifiableSortedMap(new TreeMap<>(usersByAge));
+        signupsByDay = Collections.unmodifiableSortedMap(new TreeMap<>(signupsByDay));
+    }
+
+    /**
+     * Users per age bucket of {@code width} years, keyed by the lowest age of the bucket: with a width of 10,
+     * ages 30 to 39 are counted under 30.
+     */
+    public SortedMap<Integer, Long> ageHistogram(int width) {
+        if (width <= 0) {
+            throw new IllegalArgumentException("Bucket width must be positive");
+        }
+        SortedMap<Integer, Long> buckets = new TreeMap<>();
+        for (Map.Entry<Integer, Long> entry : usersByAge.entrySet()) {
+            buckets.merge(Math.floorDiv(entry.getKey(), width) * width, entry.getValue(), Long::sum);
+        }
+        return buckets;
+    }
+}
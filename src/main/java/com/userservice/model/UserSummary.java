@@ -0,0 +1,7 @@
+package com.userservice.model;
+
+/**
+ * Read-only view of a {@link User} for listings and exports, loaded without hydrating the entity.
+ */
+public record UserSummary(Long id, String name, String email) {
+}
@@ -0,0 +1,14 @@
+package com.userservice.outbox;
+
+import java.util.List;
+
+/**
+ * Receives user changes from an {@link OutboxRelay}, in position order and on the relay's thread. Delivery is
+ * at least once: if this method throws, or the process stops before the offset is stored, the same changes come
+ * again, so handling a change twice must be harmless.
+ */
+@FunctionalInterface
+public interface ChangeSubscriber {
+
+    void onChanges(List<UserChange> changes) throws Exception;
+}
@@ -0,0 +1,48 @@
+package com.userservice.outbox;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+
+/** See {@link OffsetStore#file(Path)}. */
+final class FileOffsetStore implements OffsetStore {
+
+    private final Path file;
+    private final Properties offsets = new Properties();
+
+    FileOffsetStore(Path file) {
+        this.file = file;
+        if (Files.exists(file)) {
+            try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                offsets.load(reader);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read offsets " + file, e);
+            }
+        }
+    }
+
+    @Override
+    public synchronized long load(String subscriber) {
+        return Long.parseLong(offsets.getProperty(subscriber, "0"));
+    }
+
+    @Override
+    public synchronized void save(String subscriber, long position) {
+        offsets.setProperty(subscriber, Long.toString(position));
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            try (Writer writer = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8)) {
+                offsets.store(writer, null);
+            }
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write offsets " + file, e);
+        }
+    }
+}
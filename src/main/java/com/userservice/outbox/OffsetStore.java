@@ -0,0 +1,38 @@
+package com.userservice.outbox;
+
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Last outbox position each subscriber has processed, so a restarted subscriber resumes where it left off
+ * instead of re-reading everything.
+ */
+public interface OffsetStore {
+
+    /** The stored offset of {@code subscriber}, 0 if it has none yet. */
+    long load(String subscriber);
+
+    void save(String subscriber, long position);
+
+    /** Offsets that live as long as the process, e.g. for caches that are rebuilt on start-up anyway. */
+    static OffsetStore inMemory() {
+        Map<String, Long> offsets = new ConcurrentHashMap<>();
+        return new OffsetStore() {
+            @Override
+            public long load(String subscriber) {
+                return offsets.getOrDefault(subscriber, 0L);
+            }
+
+            @Override
+            public void save(String subscriber, long position) {
+                offsets.put(subscriber, position);
+            }
+        };
+    }
+
+    /** Offsets of all subscribers in one properties file, replaced atomically on every save. */
+    static OffsetStore file(Path file) {
+        return new FileOffsetStore(file);
+    }
+}
@@ -0,0 +1,242 @@
+package com.userservice.outbox;
+
+import com.userservice.model.OutboxEvent;
+import com.userservice.model.OutboxHead;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.hibernate.LockMode;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Tails the user outbox and hands new changes to in-process subscribers in batches.
+ * <p>
+ * Event ids don't say in which order transactions committed, so the relay first stamps committed, unstamped
+ * events with consecutive positions under a lock on {@link OutboxHead}. An event that commits late simply gets a
+ * later position; nothing is skipped. Each subscriber then reads from its own offset, which is stored in the
+ * {@link OffsetStore} after the subscriber returns: delivery is at least once, and a subscriber that throws gets
+ * the same batch again on the next poll without holding up the others.
+ * <p>
+ * Stamped events stay in the table until {@link #purgeThrough(long)} removes them.
+ */
+public final class OutboxRelay implements AutoCloseable {
+
+    private static final Logger logger = LogManager.getLogger(OutboxRelay.class);
+
+    public static final int DEFAULT_BATCH_SIZE = 500;
+
+    private final Supplier<SessionFactory> sessionFactory;
+    private final OffsetStore offsets;
+    private final int batchSize;
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    private ScheduledExecutorService scheduler;
+
+    public OutboxRelay(SessionFactory sessionFactory, OffsetStore offsets) {
+        this(() -> sessionFactory, offsets, DEFAULT_BATCH_SIZE);
+    }
+
+    public OutboxRelay(Supplier<SessionFactory> sessionFactory, OffsetStore offsets, int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive");
+        }
+        this.sessionFactory = sessionFactory;
+        this.offsets = offsets;
+        this.batchSize = batchSize;
+    }
+
+    /** Delivers every change after the offset stored for {@code name}; from the beginning if there is none. */
+    public void subscribe(String name, ChangeSubscriber subscriber) {
+        synchronized (subscriptions) {
+            if (subscriptions.stream().anyMatch(subscription -> subscription.name.equals(name))) {
+                throw new IllegalArgumentException("Subscriber already registered: " + name);
+            }
+            subscriptions.add(new Subscription(name, subscriber, offsets.load(name)));
+        }
+    }
+
+    /** Position of the last change {@code name} has processed. */
+    public long offset(String name) {
+        return subscriptions.stream()
+                .filter(subscription -> subscription.name.equals(name))
+                .findFirst()
+                .map(subscription -> subscription.offset)
+                .orElseThrow(() -> new IllegalArgumentException("Unknown subscriber: " + name));
+    }
+
+    /** Polls every {@code pollInterval} on a background thread until closed, draining the outbox each time. */
+    public synchronized void start(Duration pollInterval) {
+        if (scheduler != null) {
+            throw new IllegalStateException("Relay already started");
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "outbox-relay");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::drain, 0, pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private void drain() {
+        try {
+            while (poll() > 0 && !Thread.currentThread().isInterrupted()) {
+                // Keep going while there is a backlog
+            }
+        } catch (RuntimeException e) {
+            logger.error("Outbox relay poll failed", e);
+        }
+    }
+
+    /**
+     * Stamps up to one batch of newly committed events and delivers up to one batch to every subscriber.
+     * Returns the number of changes delivered, summed over subscribers.
+     */
+    public synchronized int poll() {
+        stamp();
+        Map<Long, List<Subscription>> byOffset = new TreeMap<>();
+        for (Subscription subscription : subscriptions) {
+            byOffset.computeIfAbsent(subscription.offset, offset -> new ArrayList<>()).add(subscription);
+        }
+        int delivered = 0;
+        // Subscribers at the same offset, usually all of them, share one read
+        for (Map.Entry<Long, List<Subscription>> group : byOffset.entrySet()) {
+            List<UserChange> changes = read(group.getKey());
+            if (changes.isEmpty()) {
+                continue;
+            }
+            for (Subscription subscription : group.getValue()) {
+                delivered += deliver(subscription, changes);
+            }
+        }
+        return delivered;
+    }
+
+    private int deliver(Subscription subscription, List<UserChange> changes) {
+        long last = changes.get(changes.size() - 1).position();
+        try {
+            subscription.subscriber.onChanges(changes);
+            offsets.save(subscription.name, last);
+        } catch (Exception e) {
+            logger.warn("Subscriber {} failed on changes {}..{}, retrying on the next poll",
+                    subscription.name, changes.get(0).position(), last, e);
+            return 0;
+        }
+        subscription.offset = last;
+        return changes.size();
+    }
+
+    /** Gives committed, unstamped events the next positions, oldest first. Returns the number stamped. */
+    int stamp() {
+        Transaction transaction = null;
+        try (Session session = sessionFactory.get().openSession()) {
+            transaction = session.beginTransaction();
+            if (pending(session).isEmpty()) {
+                transaction.commit();
+                return 0;
+            }
+            OutboxHead head = session.get(OutboxHead.class, OutboxHead.ID, LockMode.PESSIMISTIC_WRITE);
+            if (head == null) {
+                // A concurrent relay creating it too fails on the primary key and retries on its next poll
+                head = new OutboxHead(0);
+                session.persist(head);
+                session.flush();
+            }
+            // Read again under the lock: another relay may have stamped them in the meantime
+            List<OutboxEvent> pending = pending(session);
+            long position = head.getPosition();
+            for (OutboxEvent event : pending) {
+                event.setPosition(++position);
+            }
+            head.setPosition(position);
+            transaction.commit();
+            logger.debug("Stamped {} outbox events up to position {}", pending.size(), position);
+            return pending.size();
+        } catch (Exception e) {
+            rollback(transaction);
+            throw new RuntimeException("Failed to stamp outbox events", e);
+        }
+    }
+
+    private List<OutboxEvent> pending(Session session) {
+        return session.createQuery(
+                        "FROM OutboxEvent e WHERE e.position IS NULL ORDER BY e.createdAt, e.id", OutboxEvent.class)
+                .setMaxResults(batchSize)
+                .list();
+    }
+
+    private List<UserChange> read(long offset) {
+        try (StatelessSession session = sessionFactory.get().openStatelessSession()) {
+            return session.createQuery(
+                            "FROM OutboxEvent e WHERE e.position > :offset ORDER BY e.position", OutboxEvent.class)
+                    .setParameter("offset", offset)
+                    .setMaxResults(batchSize)
+                    .list()
+                    .stream()
+                    .map(UserChange::of)
+                    .toList();
+        }
+    }
+
+    /**
+     * Deletes stamped events up to and including {@code position}. Call it once every consumer of the outbox,
+     * including ones in other processes, is past that position. Returns the number of events deleted.
+     */
+    public int purgeThrough(long position) {
+        Transaction transaction = null;
+        try (Session session = sessionFactory.get().openSession()) {
+            transaction = session.beginTransaction();
+            int deleted = session.createMutationQuery("DELETE FROM OutboxEvent e WHERE e.position <= :position")
+                    .setParameter("position", position)
+                    .executeUpdate();
+            transaction.commit();
+            logger.info("Purged {} outbox events up to position {}", deleted, position);
+            return deleted;
+        } catch (Exception e) {
+            rollback(transaction);
+            throw new RuntimeException("Failed to purge outbox events", e);
+        }
+    }
+
+    private static void rollback(Transaction transaction) {
+        if (transaction != null && transaction.isActive()) {
+            try {
+                transaction.rollback();
+            } catch (RuntimeException e) {
+                logger.debug("Rollback failed: {}", e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    private static final class Subscription {
+
+        private final String name;
+        private final ChangeSubscriber subscriber;
+        private volatile long offset;
+
+        Subscription(String name, ChangeSubscriber subscriber, long offset) {
+            this.name = name;
+            this.subscriber = subscriber;
+            this.offset = offset;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.userservice.outbox;
+
+import com.userservice.model.ChangeType;
+import com.userservice.model.OutboxEvent;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * A user mutation as delivered to subscribers. {@code changes} maps the changed fields ({@link OutboxEvent#NAME},
+ * {@link OutboxEvent#EMAIL}, {@link OutboxEvent#AGE}, {@link OutboxEvent#CREATED_AT}) to their new values; it is
+ * empty for deletes. {@code version} is the user's version after the change when the writer knew it, so consumers
+ * can drop redelivered or reordered events for the same user.
+ */
+public record UserChange(long position, ChangeType type, Long userId, Long version, Map<String, String> changes,
+                         LocalDateTime occurredAt) {
+
+    static UserChange of(OutboxEvent event) {
+        return new UserChange(event.getPosition(), event.getType(), event.getUserId(), event.getUserVersion(),
+                Map.copyOf(event.changedFields()), event.getCreatedAt());
+    }
+}
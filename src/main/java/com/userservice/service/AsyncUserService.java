@@ -0,0 +1,211 @@
+package com.userservice.service;
+
+import com.userservice.model.PageRequest;
+import com.userservice.model.User;
+import com.userservice.model.UserPatch;
+import com.userservice.model.UserQuery;
+import com.userservice.model.UserStatistics;
+import com.userservice.model.UserSummary;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Non-blocking facade over {@link UserService}. Every call runs on its own virtual thread, but at most
+ * {@code maxConcurrency} calls touch the database at once; size it to the connection pool, e.g.
+ * {@code ConnectionPoolMetrics.snapshot(sessionFactory).map(Snapshot::maxPoolSize)}, so waiting
+ * virtual threads park on the semaphore instead of piling up inside the pool.
+ * <p>
+ * Futures time out after the configured timeout. Cancelling a future, or letting it time out,
+ * interrupts the call if it is still waiting or running.
+ */
+public class AsyncUserService implements AutoCloseable {
+
+    private static final Logger logger = LogManager.getLogger(AsyncUserService.class);
+
+    private static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(30);
+
+    private final UserService userService;
+    private final ExecutorService executor;
+    private final Semaphore permits;
+    private final Duration timeout;
+
+    public AsyncUserService(UserService userService, int maxConcurrency) {
+        this(userService, Executors.newVirtualThreadPerTaskExecutor(), maxConcurrency, DEFAULT_TIMEOUT);
+    }
+
+    public AsyncUserService(UserService userService, ExecutorService executor, int maxConcurrency, Duration timeout) {
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException("Max concurrency must be positive");
+        }
+        this.userService = userService;
+        this.executor = executor;
+        this.permits = new Semaphore(maxConcurrency, true);
+        this.timeout = timeout;
+    }
+
+    public CompletableFuture<User> createUser(String name, String email, Integer age) {
+        return submit(() -> userService.createUser(name, email, age));
+    }
+
+    public CompletableFuture<User> createUserBuffered(String name, String email, Integer age) {
+        return submit(() -> userService.createUserBuffered(name, email, age)).thenCompose(saved -> saved);
+    }
+
+    public CompletableFuture<List<User>> saveAll(Collection<User> users) {
+        return submit(() -> userService.saveAll(users));
+    }
+
+    public CompletableFuture<Optional<User>> getUserById(Long id) {
+        return submit(() -> userService.getUserById(id));
+    }
+
+    public CompletableFuture<List<User>> getUsersByIds(Collection<Long> ids) {
+        return submit(() -> userService.getUsersByIds(ids));
+    }
+
+    public CompletableFuture<Optional<User>> getUserByEmail(String email) {
+        return submit(() -> userService.getUserByEmail(email));
+    }
+
+    public CompletableFuture<Boolean> existsByEmail(String email) {
+        return submit(() -> userService.existsByEmail(email));
+    }
+
+    public CompletableFuture<List<User>> getAllUsers() {
+        return submit(userService::getAllUsers);
+    }
+
+    public CompletableFuture<List<User>> getUsersPage(Long afterId, int pageSize) {
+        return submit(() -> userService.getUsersPage(afterId, pageSize));
+    }
+
+    public CompletableFuture<List<User>> searchUsers(UserQuery query, PageRequest page) {
+        return submit(() -> userService.searchUsers(query, page));
+    }
+
+    /**
+     * Streams every user into {@code consumer} on the worker thread and completes with the number of users seen.
+     */
+    public CompletableFuture<Long> forEachUser(Consumer<User> consumer) {
+        return forEach(userService::streamAllUsers, consumer);
+    }
+
+    public CompletableFuture<Optional<UserSummary>> getUserSummary(Long id) {
+        return submit(() -> userService.getUserSummary(id));
+    }
+
+    public CompletableFuture<List<UserSummary>> getUserSummariesPage(Long afterId, int pageSize) {
+        return submit(() -> userService.getUserSummariesPage(afterId, pageSize));
+    }
+
+    /**
+     * Like {@link #forEachUser}, but streams {@link UserSummary} projections instead of entities.
+     */
+    public CompletableFuture<Long> forEachUserSummary(Consumer<UserSummary> consumer) {
+        return forEach(userService::streamUserSummaries, consumer);
+    }
+
+    private <T> CompletableFuture<Long> forEach(Supplier<Stream<T>> source, Consumer<T> consumer) {
+        return submit(() -> {
+            long count = 0;
+            try (Stream<T> items = source.get()) {
+                for (T item : (Iterable<T>) items::iterator) {
+                    if (Thread.currentThread().isInterrupted()) {
+                        throw new CancellationException("Streaming users was cancelled");
+                    }
+                    consumer.accept(item);
+                    count++;
+                }
+            }
+            return count;
+        });
+    }
+
+    public CompletableFuture<UserStatistics> getStatistics(LocalDate signupsSince) {
+        return submit(() -> userService.getStatistics(signupsSince));
+    }
+
+    public CompletableFuture<User> updateUser(Long id, String name, String email, Integer age) {
+        return submit(() -> userService.updateUser(id, name, email, age));
+    }
+
+    public CompletableFuture<List<User>> updateAll(Collection<User> users) {
+        return submit(() -> userService.updateAll(users));
+    }
+
+    public CompletableFuture<Boolean> patchUser(Long id, UserPatch patch) {
+        return submit(() -> userService.patchUser(id, patch));
+    }
+
+    public CompletableFuture<Boolean> patchUser(Long id, Function<? super User, UserPatch> change) {
+        return submit(() -> userService.patchUser(id, change));
+    }
+
+    public CompletableFuture<Boolean> deleteUser(Long id) {
+        return submit(() -> userService.deleteUser(id));
+    }
+
+    public CompletableFuture<Integer> deleteAllById(Collection<Long> ids) {
+        return submit(() -> userService.deleteAllById(ids));
+    }
+
+    private <T> CompletableFuture<T> submit(Callable<T> call) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Future<?> task = executor.submit(() -> {
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                result.completeExceptionally(new CancellationException("Interrupted while waiting for a connection slot"));
+                return;
+            }
+            try {
+                if (!result.isDone()) {
+                    result.complete(call.call());
+                }
+            } catch (Throwable t) {
+                result.completeExceptionally(t);
+            } finally {
+                permits.release();
+            }
+        });
+        result.whenComplete((value, error) -> {
+            if (result.isCancelled() || error instanceof TimeoutException) {
+                task.cancel(true);
+            }
+        });
+        return result.orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                logger.warn("Async user operations still running after {}, interrupting", timeout);
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
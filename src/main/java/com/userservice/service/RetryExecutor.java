@@ -0,0 +1,70 @@
+package com.userservice.service;
+
+import com.userservice.dao.OptimisticLockConflictException;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Runs an action and re-runs it on {@link OptimisticLockConflictException}, sleeping an exponentially growing,
+ * fully jittered backoff between attempts so contending writers spread out instead of colliding again.
+ * The action must re-read the state it depends on every time it runs.
+ */
+public class RetryExecutor {
+
+    private static final Logger logger = LogManager.getLogger(RetryExecutor.class);
+
+    private final int maxAttempts;
+    private final long initialBackoffNanos;
+    private final long maxBackoffNanos;
+    private final LongAdder conflicts = new LongAdder();
+
+    public RetryExecutor(int maxAttempts, Duration initialBackoff, Duration maxBackoff) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("maxAttempts must be at least 1");
+        }
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffNanos = initialBackoff.toNanos();
+        this.maxBackoffNanos = maxBackoff.toNanos();
+    }
+
+    /** 10 attempts, backoff from 5 ms up to 200 ms. */
+    public static RetryExecutor defaults() {
+        return new RetryExecutor(10, Duration.ofMillis(5), Duration.ofMillis(200));
+    }
+
+    public <T> T execute(Supplier<T> action) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return action.get();
+            } catch (OptimisticLockConflictException e) {
+                conflicts.increment();
+                if (attempt >= maxAttempts) {
+                    logger.warn("Giving up on user {} after {} conflicting attempts", e.getUserId(), attempt);
+                    throw e;
+                }
+                backoff(attempt);
+            }
+        }
+    }
+
+    /** Number of conflicts seen so far, including retried ones. */
+    public long conflicts() {
+        return conflicts.sum();
+    }
+
+    private void backoff(int attempt) {
+        long ceiling = Math.min(maxBackoffNanos, initialBackoffNanos << Math.min(attempt - 1, 30));
+        long nanos = ThreadLocalRandom.current().nextLong(ceiling + 1);
+        try {
+            Thread.sleep(Duration.ofNanos(nanos));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while backing off", e);
+        }
+    }
+}
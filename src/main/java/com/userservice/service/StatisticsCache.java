@@ -0,0 +1,38 @@
+package com.userservice.service;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.userservice.model.UserStatistics;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.function.Function;
+
+/**
+ * {@link UserStatistics} per first signup day, kept for at most the staleness bound. Polling dashboards share one
+ * computation per bound instead of each running the aggregate queries, and callers that miss at the same time
+ * wait for a single computation. Failures are not cached.
+ */
+class StatisticsCache {
+
+    // A dashboard asks for a few windows (today, last week, last month), each moving once a day
+    private static final int MAXIMUM_SIZE = 32;
+
+    private final LoadingCache<LocalDate, UserStatistics> statistics;
+
+    StatisticsCache(Function<LocalDate, UserStatistics> loader, Duration maxStaleness, Ticker ticker) {
+        if (maxStaleness.isNegative()) {
+            throw new IllegalArgumentException("Statistics staleness must not be negative");
+        }
+        this.statistics = Caffeine.newBuilder()
+                .maximumSize(MAXIMUM_SIZE)
+                .expireAfterWrite(maxStaleness)
+                .ticker(ticker)
+                .build(loader::apply);
+    }
+
+    UserStatistics get(LocalDate signupsSince) {
+        return statistics.get(signupsSince);
+    }
+}
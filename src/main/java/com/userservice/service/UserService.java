@@ -1,43 +1,170 @@
 package com.userservice.service;
 
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.userservice.dao.DuplicateEmailException;
 import com.userservice.dao.UserDao;
+import com.userservice.model.PageRequest;
 import com.userservice.model.User;
+import com.userservice.model.UserPatch;
+import com.userservice.model.UserQuery;
+import com.userservice.model.UserStatistics;
+import com.userservice.model.UserSummary;
 
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 public class UserService {
 
+    private static final Duration DEFAULT_STATISTICS_STALENESS = Duration.ofSeconds(30);
+
     private final UserDao userDao;
+    private final RetryExecutor retryExecutor;
+    private final WriteBehindUserWriter writeBehindWriter;
+    private final StatisticsCache statistics;
+    private final UserValidator validator = UserValidator.instance();
 
     public UserService(UserDao userDao) {
+        this(userDao, null);
+    }
+
+    /** {@code retryExecutor} may be {@code null} for {@link RetryExecutor#defaults()}. */
+    public UserService(UserDao userDao, RetryExecutor retryExecutor) {
+        this(userDao, retryExecutor, null);
+    }
+
+    /**
+     * {@code writeBehindWriter} enables write-behind mode for {@link #createUserBuffered}; without it
+     * buffered creation saves synchronously.
+     */
+    public UserService(UserDao userDao, RetryExecutor retryExecutor, WriteBehindUserWriter writeBehindWriter) {
+        this(userDao, retryExecutor, writeBehindWriter, null);
+    }
+
+    /**
+     * {@code statisticsStaleness} bounds how old the result of {@link #getStatistics} may be; {@code null} for
+     * 30 seconds, zero to compute it on every call.
+     */
+    public UserService(UserDao userDao, RetryExecutor retryExecutor, WriteBehindUserWriter writeBehindWriter,
+                       Duration statisticsStaleness) {
         this.userDao = userDao;
+        this.retryExecutor = retryExecutor != null ? retryExecutor : RetryExecutor.defaults();
+        this.writeBehindWriter = writeBehindWriter;
+        this.statistics = new StatisticsCache(userDao::statistics,
+                statisticsStaleness != null ? statisticsStaleness : DEFAULT_STATISTICS_STALENESS, Ticker.systemTicker());
     }
 
+    /**
+     * Checks the email and saves the user in one transaction; an email already in use throws
+     * {@link DuplicateEmailException}, as the DAO does for one taken concurrently.
+     */
     public User createUser(String name, String email, Integer age) {
-        if (name == null || name.trim().isEmpty()) {
-            throw new IllegalArgumentException("Name cannot be empty");
-        }
-        if (email == null || !email.contains("@")) {
-            throw new IllegalArgumentException("invalid email");
-        }
-        if (age == null || age < 0) {
-        throw new IllegalArgumentException ("Age most be non-negative");
+        validator.validate(name, email, age);
+        return userDao.inTransaction(() -> {
+            if (userDao.existsByEmail(email)) {
+                throw new DuplicateEmailException(email, null);
+            }
+
+            User user = new User(name, email, age);
+            return userDao.save(user);
+        });
+    }
+
+    /**
+     * Validates the user like {@link #createUser} and hands it to the write-behind writer, if configured.
+     * The future completes when the user is committed, or fails with the error of its own insert.
+     */
+    public CompletableFuture<User> createUserBuffered(String name, String email, Integer age) {
+        validator.validate(name, email, age);
+        if (userDao.existsByEmail(email)) {
+            throw new DuplicateEmailException(email, null);
         }
 
         User user = new User(name, email, age);
-        return userDao.save(user);
+        if (writeBehindWriter == null) {
+            return CompletableFuture.completedFuture(userDao.save(user));
+        }
+        return writeBehindWriter.submit(user);
+    }
+
+    public List<User> saveAll(Collection<User> users) {
+        for (User user : users) {
+            validator.validate(user.getName(), user.getEmail(), user.getAge());
+        }
+        return userDao.saveAll(users);
     }
 
     public Optional<User> getUserById(Long id) {
         return userDao.findById(id);
     }
 
+    public List<User> getUsersByIds(Collection<Long> ids) {
+        return userDao.findAllByIds(ids);
+    }
+
+    public Optional<User> getUserByEmail(String email) {
+        return userDao.findByEmail(email);
+    }
+
+    public boolean existsByEmail(String email) {
+        return userDao.existsByEmail(email);
+    }
+
     public List<User> getAllUsers() {
         return userDao.findAll();
     }
 
+    public List<User> getUsersPage(Long afterId, int pageSize) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+        return userDao.findPage(afterId, pageSize);
+    }
+
+    public List<User> searchUsers(UserQuery query, PageRequest page) {
+        if (query.minAge() != null && query.maxAge() != null && query.minAge() > query.maxAge()) {
+            throw new IllegalArgumentException("Minimum age cannot exceed maximum age");
+        }
+        return userDao.search(query, page);
+    }
+
+    public Stream<User> streamAllUsers() {
+        return userDao.streamAll();
+    }
+
+    public Optional<UserSummary> getUserSummary(Long id) {
+        return userDao.findSummaryById(id);
+    }
+
+    public List<UserSummary> getUserSummariesPage(Long afterId, int pageSize) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+        return userDao.findSummaryPage(afterId, pageSize);
+    }
+
+    public Stream<UserSummary> streamUserSummaries() {
+        return userDao.streamSummaries();
+    }
+
+    /**
+     * Total users, users per age and signups per day from {@code signupsSince} on. Cheap to poll: the result is
+     * computed at most once per staleness bound and day, see {@link UserStatistics#computedAt()}.
+     */
+    public UserStatistics getStatistics(LocalDate signupsSince) {
+        if (signupsSince == null) {
+            throw new IllegalArgumentException("Signups start day is required");
+        }
+        return statistics.get(signupsSince);
+    }
+
     public User updateUser(Long id, String name, String email, Integer age) {
+        validator.validate(name, email, age);
         User user =new User();
         user.setId(id);
         user.setName(name);
@@ -46,7 +173,62 @@ public class UserService {
         return userDao.update(user);
     }
 
-    public void deleteUser(Long id) {
-        userDao.deleteById(id);
+    /**
+     * Changes only the non-null fields of {@code patch} with one statement.
+     * Returns {@code false} if there is no user with that id.
+     */
+    public boolean patchUser(Long id, UserPatch patch) {
+        if (patch.isEmpty()) {
+            throw new IllegalArgumentException("Nothing to update");
+        }
+        validator.validate(patch);
+        return userDao.patch(id, patch) > 0;
+    }
+
+    /**
+     * Read-modify-write under optimistic locking: reads the user, asks {@code change} for a patch based on it and
+     * applies the patch only if nobody changed the user in between. On a conflict the whole cycle is retried with
+     * backoff, so {@code change} may run several times and must not have side effects. Each attempt reads and
+     * writes in one transaction on the primary, never from a replica that may lag behind the version it checks.
+     * Returns {@code false} if there is no user with that id.
+     */
+    public boolean patchUser(Long id, Function<? super User, UserPatch> change) {
+        return retryExecutor.execute(() -> userDao.inTransaction(() -> {
+            Optional<User> current = userDao.findById(id);
+            if (current.isEmpty()) {
+                return false;
+            }
+            UserPatch patch = change.apply(current.get());
+            if (patch.isEmpty()) {
+                return true;
+            }
+            validator.validate(patch);
+            return userDao.patch(id, current.get().getVersion(), patch) > 0;
+        }));
+    }
+
+    /** Returns {@code false} if there was no user with that id. */
+    public boolean deleteUser(Long id) {
+        return userDao.deleteById(id) > 0;
+    }
+
+    /** Validates every user like {@link #saveAll}, and that it has an id, before updating any of them. */
+    public List<User> updateAll(Collection<User> users) {
+        for (User user : users) {
+            if (user.getId() == null) {
+                throw new IllegalArgumentException("User id is required");
+            }
+            validator.validate(user.getName(), user.getEmail(), user.getAge());
+        }
+        return userDao.updateAll(users);
+    }
+
+    public int deleteAllById(Collection<Long> ids) {
+        for (Long id : ids) {
+            if (id == null) {
+                throw new IllegalArgumentException("User id is required");
+            }
+        }
+        return userDao.deleteAllById(ids);
     }
 }
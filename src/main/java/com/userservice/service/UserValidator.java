@@ -0,0 +1,155 @@
+package com.userservice.service;
+
+import com.userservice.model.User;
+import com.userservice.model.UserPatch;
+
+/**
+ * Checks user fields in one pass and reports every broken rule at once as a bit mask of {@link Violation}s,
+ * 0 meaning valid. Checking allocates nothing, and the validator is stateless, so one instance can be shared by
+ * any number of threads, e.g. bulk import workers.
+ * <p>
+ * Emails must be {@code local@domain} in RFC 5321/5322 dot-atom form: ASCII only, local part of up to 64 atext
+ * characters with single inner dots, domain of at least two dot-separated labels of letters, digits and inner
+ * hyphens, up to 63 characters each, and 254 characters overall. Quoted local parts, comments and IP literals
+ * are not accepted.
+ */
+public final class UserValidator {
+
+    public static final int MAX_AGE = 150;
+
+    private static final int LOCAL_PART_MAX_LENGTH = 64;
+    private static final int DOMAIN_LABEL_MAX_LENGTH = 63;
+
+    private static final UserValidator INSTANCE = new UserValidator();
+
+    // Character classes, built once: atext of RFC 5322 for the local part, letters/digits/hyphen for domain labels
+    private static final boolean[] LOCAL_CHARS = new boolean[128];
+    private static final boolean[] LABEL_CHARS = new boolean[128];
+
+    static {
+        for (char c = 'a'; c <= 'z'; c++) {
+            LOCAL_CHARS[c] = LABEL_CHARS[c] = true;
+            LOCAL_CHARS[Character.toUpperCase(c)] = LABEL_CHARS[Character.toUpperCase(c)] = true;
+        }
+        for (char c = '0'; c <= '9'; c++) {
+            LOCAL_CHARS[c] = LABEL_CHARS[c] = true;
+        }
+        for (char c : "!#$%&'*+-/=?^_`{|}~".toCharArray()) {
+            LOCAL_CHARS[c] = true;
+        }
+        LABEL_CHARS['-'] = true;
+    }
+
+    private UserValidator() {
+    }
+
+    public static UserValidator instance() {
+        return INSTANCE;
+    }
+
+    /** Violations of a complete user, e.g. on create or full update. */
+    public int check(String name, String email, int age) {
+        return checkName(name) | checkEmail(email) | checkAge(age);
+    }
+
+    public int check(String name, String email, Integer age) {
+        return checkName(name) | checkEmail(email) | (age == null ? Violation.AGE_REQUIRED.bit() : checkAge(age));
+    }
+
+    /** Violations of the fields a patch sets; null fields stay unchanged and aren't checked. */
+    public int check(UserPatch patch) {
+        return (patch.name() == null ? 0 : checkName(patch.name()))
+                | (patch.email() == null ? 0 : checkEmail(patch.email()))
+                | (patch.age() == null ? 0 : checkAge(patch.age()));
+    }
+
+    public void validate(String name, String email, int age) {
+        throwIfInvalid(check(name, email, age));
+    }
+
+    public void validate(String name, String email, Integer age) {
+        throwIfInvalid(check(name, email, age));
+    }
+
+    public void validate(UserPatch patch) {
+        throwIfInvalid(check(patch));
+    }
+
+    private static void throwIfInvalid(int violations) {
+        if (violations != 0) {
+            throw new ValidationException(violations);
+        }
+    }
+
+    int checkName(String name) {
+        if (name == null) {
+            return Violation.NAME_EMPTY.bit();
+        }
+        if (name.length() > User.NAME_MAX_LENGTH) {
+            return Violation.NAME_TOO_LONG.bit();
+        }
+        // Blank is the same as name.trim().isEmpty() without the copy. Line breaks and other control characters
+        // would split a CSV export into lines the importer can't read back
+        boolean blank = true;
+        boolean control = false;
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            blank &= c <= ' ';
+            control |= Character.isISOControl(c);
+        }
+        if (blank) {
+            return Violation.NAME_EMPTY.bit();
+        }
+        return control ? Violation.NAME_CONTROL_CHARACTER.bit() : 0;
+    }
+
+    int checkEmail(String email) {
+        if (email == null) {
+            return Violation.EMAIL_INVALID.bit();
+        }
+        if (email.length() > User.EMAIL_MAX_LENGTH) {
+            return Violation.EMAIL_TOO_LONG.bit();
+        }
+        int at = email.indexOf('@');
+        if (at <= 0 || at > LOCAL_PART_MAX_LENGTH
+                || !isDotAtom(email, 0, at, LOCAL_CHARS, Integer.MAX_VALUE, false)
+                || !isDotAtom(email, at + 1, email.length(), LABEL_CHARS, DOMAIN_LABEL_MAX_LENGTH, true)) {
+            return Violation.EMAIL_INVALID.bit();
+        }
+        return 0;
+    }
+
+    int checkAge(int age) {
+        if (age < 0) {
+            return Violation.AGE_NEGATIVE.bit();
+        }
+        return age > MAX_AGE ? Violation.AGE_TOO_HIGH.bit() : 0;
+    }
+
+    /**
+     * Whether {@code text[from, to)} is a non-empty run of dot-separated atoms made of {@code allowed} characters.
+     * Domains additionally need two or more labels, none starting or ending with a hyphen.
+     */
+    private static boolean isDotAtom(String text, int from, int to, boolean[] allowed, int maxAtomLength,
+                                     boolean domain) {
+        int atomStart = from;
+        int atoms = 0;
+        for (int i = from; i <= to; i++) {
+            char c = i == to ? '.' : text.charAt(i);
+            if (c == '.') {
+                int length = i - atomStart;
+                if (length == 0 || length > maxAtomLength) {
+                    return false;
+                }
+                if (domain && (text.charAt(atomStart) == '-' || text.charAt(i - 1) == '-')) {
+                    return false;
+                }
+                atoms++;
+                atomStart = i + 1;
+            } else if (c >= 128 || !allowed[c]) {
+                return false;
+            }
+        }
+        return !domain || atoms >= 2;
+    }
+}
@@ -0,0 +1,25 @@
+package com.userservice.service;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/** Thrown when a user breaks one or more {@link Violation}s; the message lists all of them. */
+public class ValidationException extends IllegalArgumentException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final transient Set<Violation> violations;
+
+    public ValidationException(int mask) {
+        this(Violation.of(mask));
+    }
+
+    private ValidationException(Set<Violation> violations) {
+        super(violations.stream().map(Violation::message).collect(Collectors.joining("; ")));
+        this.violations = violations;
+    }
+
+    public Set<Violation> getViolations() {
+        return violations;
+    }
+}
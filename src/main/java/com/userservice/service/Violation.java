@@ -0,0 +1,43 @@
+package com.userservice.service;
+
+import com.userservice.model.User;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/** A rule a user's fields can break; {@link UserValidator} reports them as a bit mask of {@link #bit()}s. */
+public enum Violation {
+
+    NAME_EMPTY("Name cannot be empty"),
+    NAME_TOO_LONG("Name must be at most " + User.NAME_MAX_LENGTH + " characters"),
+    NAME_CONTROL_CHARACTER("Name must not contain control characters"),
+    EMAIL_INVALID("invalid email"),
+    EMAIL_TOO_LONG("Email must be at most " + User.EMAIL_MAX_LENGTH + " characters"),
+    AGE_REQUIRED("Age is required"),
+    AGE_NEGATIVE("Age must be non-negative"),
+    AGE_TOO_HIGH("Age must be at most " + UserValidator.MAX_AGE);
+
+    private final String message;
+
+    Violation(String message) {
+        this.message = message;
+    }
+
+    public String message() {
+        return message;
+    }
+
+    public int bit() {
+        return 1 << ordinal();
+    }
+
+    public static Set<Violation> of(int mask) {
+        Set<Violation> violations = EnumSet.noneOf(Violation.class);
+        for (Violation violation : values()) {
+            if ((mask & violation.bit()) != 0) {
+                violations.add(violation);
+            }
+        }
+        return violations;
+    }
+}
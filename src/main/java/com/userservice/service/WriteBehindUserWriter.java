@@ -0,0 +1,200 @@
+package com.userservice.service;
+
+import com.userservice.dao.UserDao;
+import com.userservice.model.User;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Write-behind buffer for inserts. Submitted users go into a bounded queue that a background thread drains
+ * with {@link UserDao#saveAll}, one transaction per batch, as soon as {@code batchSize} users are waiting or the
+ * oldest one has waited {@code maxDelay}. The returned future completes once the user is committed.
+ * <p>
+ * When the queue is full, {@link #submit} blocks for up to {@code enqueueTimeout} and then rejects the user.
+ * If a batch fails, its users are saved one by one so only the offending ones (e.g. a duplicate email) fail.
+ * If the flusher thread is interrupted it stops and the writer rejects further users; those already accepted are
+ * written by {@link #close()}. {@link #close()} stops accepting users and drains the queue; register it with
+ * {@code HibernateUtil.addShutdownHook} so pending users are written before the SessionFactory closes.
+ */
+public class WriteBehindUserWriter implements AutoCloseable {
+
+    private static final Logger logger = LogManager.getLogger(WriteBehindUserWriter.class);
+    private static final long POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final UserDao userDao;
+    private final BlockingQueue<Pending> queue;
+    private final int batchSize;
+    private final long maxDelayNanos;
+    private final Duration enqueueTimeout;
+    private final Thread flusher;
+    // Submitters enqueue under the read lock, close() and an exiting flusher flip their flag under the write lock:
+    // nothing can be enqueued once either has happened, so close()'s final drain sees every accepted user
+    private final ReadWriteLock closeLock = new ReentrantReadWriteLock();
+    // Users the flusher had taken when it was interrupted; close() writes them with the rest of the queue
+    private final List<Pending> unflushed = new ArrayList<>();
+    private volatile boolean closed;
+    private volatile boolean flusherStopped;
+
+    public WriteBehindUserWriter(UserDao userDao, int capacity, int batchSize, Duration maxDelay,
+                                 Duration enqueueTimeout) {
+        if (capacity <= 0 || batchSize <= 0) {
+            throw new IllegalArgumentException("Capacity and batch size must be positive");
+        }
+        this.userDao = userDao;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.maxDelayNanos = maxDelay.toNanos();
+        this.enqueueTimeout = enqueueTimeout;
+        this.flusher = new Thread(this::run, "user-write-behind");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    /**
+     * Queues the user for insertion. Blocks while the queue is full and throws
+     * {@link RejectedExecutionException} if it stays full for the enqueue timeout, the writer is closed or its
+     * flusher has stopped.
+     */
+    public CompletableFuture<User> submit(User user) {
+        Pending pending = new Pending(user, new CompletableFuture<>());
+        closeLock.readLock().lock();
+        try {
+            if (closed) {
+                throw new RejectedExecutionException("Write-behind writer is closed");
+            }
+            if (flusherStopped) {
+                throw new RejectedExecutionException("Write-behind flusher has stopped");
+            }
+            if (!queue.offer(pending, enqueueTimeout.toNanos(), TimeUnit.NANOSECONDS)) {
+                throw new RejectedExecutionException("Write-behind queue is full");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted while waiting for queue space", e);
+        } finally {
+            closeLock.readLock().unlock();
+        }
+        return pending.future;
+    }
+
+    /** Number of users waiting to be written. */
+    public int pending() {
+        return queue.size();
+    }
+
+    private void run() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        while (!closed || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(POLL_NANOS, TimeUnit.NANOSECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + maxDelayNanos;
+                while (batch.size() < batchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        break;
+                    }
+                    // Short polls so close() doesn't wait out the whole delay
+                    Pending next = queue.poll(Math.min(remaining, POLL_NANOS), TimeUnit.NANOSECONDS);
+                    if (next != null) {
+                        batch.add(next);
+                    } else if (closed) {
+                        break;
+                    }
+                }
+                flush(batch);
+            } catch (InterruptedException e) {
+                logger.warn("Write-behind flusher interrupted; {} taken and {} queued users are written on close",
+                        batch.size(), queue.size());
+                unflushed.addAll(batch);
+                stopAccepting();
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void stopAccepting() {
+        closeLock.writeLock().lock();
+        try {
+            flusherStopped = true;
+        } finally {
+            closeLock.writeLock().unlock();
+        }
+    }
+
+    private void flush(List<Pending> batch) {
+        try {
+            userDao.saveAll(batch.stream().map(Pending::user).toList());
+            batch.forEach(Pending::complete);
+            logger.debug("Flushed {} buffered users", batch.size());
+        } catch (RuntimeException e) {
+            logger.warn("Batch of {} buffered users failed, saving them one by one", batch.size(), e);
+            for (Pending pending : batch) {
+                saveOne(pending);
+            }
+        }
+    }
+
+    private void saveOne(Pending pending) {
+        User user = pending.user;
+        // The rolled-back batch already assigned an id; persist() would treat the user as detached
+        user.setId(null);
+        user.setVersion(null);
+        try {
+            userDao.save(user);
+            pending.complete();
+        } catch (RuntimeException e) {
+            pending.future.completeExceptionally(e);
+        }
+    }
+
+    /** Stops accepting users and returns once everything queued so far has been written. */
+    @Override
+    public void close() {
+        closeLock.writeLock().lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        } finally {
+            closeLock.writeLock().unlock();
+        }
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Users the flusher left behind: taken before an interrupt, or queued while it was exiting
+        List<Pending> rest = new ArrayList<>(unflushed);
+        queue.drainTo(rest);
+        for (int from = 0; from < rest.size(); from += batchSize) {
+            flush(rest.subList(from, Math.min(from + batchSize, rest.size())));
+        }
+        logger.info("Write-behind writer drained and closed");
+    }
+
+    private record Pending(User user, CompletableFuture<User> future) {
+
+        void complete() {
+            future.complete(user);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.userservice.util;
+
+import com.userservice.model.User;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Hit/miss/eviction counters of the {@link User} second-level cache region and of the query cache.
+ * Hits and misses come from Hibernate {@link Statistics}; evictions from the JCache statistics MBean
+ * that Caffeine registers when {@code monitoring.statistics} is enabled in application.conf.
+ */
+public final class CacheStatistics {
+
+    private static final Logger logger = LogManager.getLogger(CacheStatistics.class);
+
+    private static final String USER_REGION = User.CACHE_REGION;
+
+    private CacheStatistics() {
+    }
+
+    public record Snapshot(long entityHits,
+                           long entityMisses,
+                           long entityPuts,
+                           long entityEvictions,
+                           long queryHits,
+                           long queryMisses,
+                           long queryPuts) {
+
+        public double entityHitRatio() {
+            long lookups = entityHits + entityMisses;
+            return lookups == 0 ? 0 : (double) entityHits / lookups;
+        }
+    }
+
+    public static Snapshot snapshot(SessionFactory sessionFactory) {
+        Statistics statistics = sessionFactory.getStatistics();
+        CacheRegionStatistics region = statistics.getDomainDataRegionStatistics(USER_REGION);
+        return new Snapshot(region.getHitCount(),
+                region.getMissCount(),
+                region.getPutCount(),
+                evictions(USER_REGION),
+                statistics.getQueryCacheHitCount(),
+                statistics.getQueryCacheMissCount(),
+                statistics.getQueryCachePutCount());
+    }
+
+    public static void log(SessionFactory sessionFactory) {
+        if (!sessionFactory.getStatistics().isStatisticsEnabled()) {
+            return;
+        }
+        Snapshot snapshot = snapshot(sessionFactory);
+        logger.info("User cache: hits={}, misses={}, puts={}, evictions={}, hitRatio={}; "
+                        + "query cache: hits={}, misses={}, puts={}",
+                snapshot.entityHits(), snapshot.entityMisses(), snapshot.entityPuts(), snapshot.entityEvictions(),
+                String.format("%.3f", snapshot.entityHitRatio()),
+                snapshot.queryHits(), snapshot.queryMisses(), snapshot.queryPuts());
+    }
+
+    private static long evictions(String cacheName) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            long evictions = 0;
+            for (ObjectName name : server.queryNames(new ObjectName("javax.cache:type=CacheStatistics,*"), null)) {
+                if (cacheName.equals(name.getKeyProperty("Cache"))) {
+                    evictions += ((Number) server.getAttribute(name, "CacheEvictions")).longValue();
+                }
+            }
+            return evictions;
+        } catch (Exception e) {
+            logger.debug("JCache statistics are not available for {}", cacheName, e);
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.userservice.util;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.hibernate.SessionFactory;
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+
+import java.util.Optional;
+
+/**
+ * Point-in-time view of the HikariCP pool behind a {@link SessionFactory}.
+ */
+public final class ConnectionPoolMetrics {
+
+    private ConnectionPoolMetrics() {
+    }
+
+    public record Snapshot(String poolName,
+                           int maxPoolSize,
+                           int activeConnections,
+                           int idleConnections,
+                           int totalConnections,
+                           int threadsAwaitingConnection,
+                           long connectionsAcquired,
+                           double averageWaitMillis,
+                           double maxWaitMillis,
+                           long connectionTimeouts) {
+    }
+
+    /**
+     * Returns the pool snapshot, or empty if the session factory is not backed by HikariCP.
+     */
+    public static Optional<Snapshot> snapshot(SessionFactory sessionFactory) {
+        return dataSource(sessionFactory).map(ConnectionPoolMetrics::snapshot);
+    }
+
+    public static Optional<HikariDataSource> dataSource(SessionFactory sessionFactory) {
+        ConnectionProvider provider = sessionFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(ConnectionProvider.class);
+        if (provider == null || !provider.isUnwrappableAs(HikariDataSource.class)) {
+            return Optional.empty();
+        }
+        return Optional.of(provider.unwrap(HikariDataSource.class));
+    }
+
+    private static Snapshot snapshot(HikariDataSource dataSource) {
+        HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+        PoolMetricsTrackerFactory.Tracker tracker = PoolMetricsTrackerFactory.tracker(dataSource.getPoolName());
+
+        long acquired = tracker == null ? 0 : tracker.acquiredCount.sum();
+        double averageWaitMillis = acquired == 0 ? 0 : tracker.acquiredNanos.sum() / 1_000_000.0 / acquired;
+        double maxWaitMillis = tracker == null ? 0 : tracker.maxAcquiredNanos.get() / 1_000_000.0;
+        long timeouts = tracker == null ? 0 : tracker.timeouts.sum();
+
+        return new Snapshot(dataSource.getPoolName(),
+                dataSource.getMaximumPoolSize(),
+                pool == null ? 0 : pool.getActiveConnections(),
+                pool == null ? 0 : pool.getIdleConnections(),
+                pool == null ? 0 : pool.getTotalConnections(),
+                pool == null ? 0 : pool.getThreadsAwaitingConnection(),
+                acquired,
+                averageWaitMillis,
+                maxWaitMillis,
+                timeouts);
+    }
+}
@@ -0,0 +1,58 @@
+package com.userservice.util;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runtime overrides for the settings in the Hibernate configuration files.
+ * Environment variables from {@link #ENV_SETTINGS} are applied first, then every
+ * {@code hibernate.*} and {@code userservice.*} system property, so {@code -Dhibernate.hikari.maximumPoolSize=20}
+ * wins over both.
+ */
+public final class HibernateSettings {
+
+    private static final Logger logger = LogManager.getLogger(HibernateSettings.class);
+
+    private static final List<String> SYSTEM_PROPERTY_PREFIXES = List.of("hibernate.", "userservice.");
+
+    private static final Map<String, String> ENV_SETTINGS = Map.ofEntries(
+            Map.entry("DB_URL", "hibernate.connection.url"),
+            Map.entry("DB_USERNAME", "hibernate.connection.username"),
+            Map.entry("DB_PASSWORD", "hibernate.connection.password"),
+            Map.entry("DB_REPLICA_URL", "userservice.replica.url"),
+            Map.entry("DB_REPLICA_USERNAME", "userservice.replica.username"),
+            Map.entry("DB_REPLICA_PASSWORD", "userservice.replica.password"),
+            Map.entry("DB_POOL_MAX_SIZE", "hibernate.hikari.maximumPoolSize"),
+            Map.entry("DB_POOL_MIN_IDLE", "hibernate.hikari.minimumIdle"),
+            Map.entry("DB_POOL_CONNECTION_TIMEOUT_MS", "hibernate.hikari.connectionTimeout"),
+            Map.entry("DB_POOL_IDLE_TIMEOUT_MS", "hibernate.hikari.idleTimeout"),
+            Map.entry("DB_POOL_MAX_LIFETIME_MS", "hibernate.hikari.maxLifetime"),
+            Map.entry("DB_POOL_LEAK_DETECTION_MS", "hibernate.hikari.leakDetectionThreshold"),
+            Map.entry("DB_STATEMENT_CACHE_QUERIES", "hibernate.hikari.dataSource.preparedStatementCacheQueries"),
+            Map.entry("DB_STATEMENT_CACHE_SIZE_MIB", "hibernate.hikari.dataSource.preparedStatementCacheSizeMiB"),
+            Map.entry("DB_PREPARE_THRESHOLD", "hibernate.hikari.dataSource.prepareThreshold"));
+
+    private HibernateSettings() {
+    }
+
+    public static StandardServiceRegistryBuilder applyOverrides(StandardServiceRegistryBuilder builder) {
+        ENV_SETTINGS.forEach((env, setting) -> {
+            String value = System.getenv(env);
+            if (value != null) {
+                builder.applySetting(setting, value);
+                logger.debug("Setting {} overridden from environment variable {}", setting, env);
+            }
+        });
+        System.getProperties().stringPropertyNames().stream()
+                .filter(name -> SYSTEM_PROPERTY_PREFIXES.stream().anyMatch(name::startsWith))
+                .forEach(name -> {
+                    builder.applySetting(name, System.getProperty(name));
+                    logger.debug("Setting {} overridden from system property", name);
+                });
+        return builder;
+    }
+}
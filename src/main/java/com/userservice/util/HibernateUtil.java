@@ -1,37 +1,60 @@
 package com.userservice.util;
 
 import org.hibernate.SessionFactory;
-import org.hibernate.boot.MetadataSources;
-import org.hibernate.boot.registry.StandardServiceRegistry;
-import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.util.Deque;
+import java.util.concurrent.ConcurrentLinkedDeque;
+
 public class HibernateUtil {
 
     private static final Logger logger = LogManager.getLogger(HibernateUtil.class);
 
-    private static SessionFactory sessionFactory = buildSessionFactory();
-
-    private static SessionFactory buildSessionFactory() {
-        try {
-            final StandardServiceRegistry registry = new StandardServiceRegistryBuilder()
-                    .configure() // configures settings from hibernate.cfg.xml
-                    .build();
-            return new MetadataSources(registry).buildMetadata().buildSessionFactory();
-        } catch (Exception e) {
-            logger.error("Initial SessionFactory creation failed.", e);
-            throw new ExceptionInInitializerError(e);
-        }
-    }
+    // Built on first use, see SessionFactoryHolder
+    private static final SessionFactoryHolder holder = new SessionFactoryHolder("hibernate.cfg.xml");
+    // Null unless userservice.replica.url (DB_REPLICA_URL) is set
+    private static final SessionFactoryHolder replicaHolder = holder.replica();
+    private static final Deque<AutoCloseable> shutdownHooks = new ConcurrentLinkedDeque<>();
 
     public static SessionFactory getSessionFactory() {
-        return sessionFactory;
+        return holder.get();
+    }
+
+    /** The application's lazily built SessionFactory, for injection into DAOs. */
+    public static SessionFactoryHolder holder() {
+        return holder;
+    }
+
+    /** The read replica's lazily built SessionFactory, or null if no replica is configured. */
+    public static SessionFactoryHolder replicaHolder() {
+        return replicaHolder;
+    }
+
+    /**
+     * Registers a component to close in {@link #shutdown()} before the SessionFactory, e.g. to drain buffered writes.
+     * Hooks run in reverse registration order.
+     */
+    public static void addShutdownHook(AutoCloseable hook) {
+        shutdownHooks.push(hook);
     }
 
     public static void shutdown() {
-        if (sessionFactory != null) {
-            sessionFactory.close();
+        AutoCloseable hook;
+        while ((hook = shutdownHooks.poll()) != null) {
+            try {
+                hook.close();
+            } catch (Exception e) {
+                logger.error("Shutdown hook {} failed", hook, e);
+            }
+        }
+        if (replicaHolder != null && replicaHolder.isInitialized()) {
+            replicaHolder.close();
+            logger.info("Replica SessionFactory closed.");
+        }
+        if (holder.isInitialized()) {
+            CacheStatistics.log(holder.get());
+            holder.close();
             logger.info("SessionFactory closed.");
         }
     }
@@ -0,0 +1,66 @@
+package com.userservice.util;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hikari metrics hook recording connection wait times per pool.
+ * Enabled with {@code hibernate.hikari.metricsTrackerFactory}; read through {@link ConnectionPoolMetrics}.
+ */
+public class PoolMetricsTrackerFactory implements MetricsTrackerFactory {
+
+    private static final Map<String, Tracker> trackers = new ConcurrentHashMap<>();
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        Tracker tracker = new Tracker(poolName);
+        trackers.put(poolName, tracker);
+        return tracker;
+    }
+
+    static Tracker tracker(String poolName) {
+        return trackers.get(poolName);
+    }
+
+    static final class Tracker implements IMetricsTracker {
+
+        private final String poolName;
+        final LongAdder acquiredCount = new LongAdder();
+        final LongAdder acquiredNanos = new LongAdder();
+        final LongAccumulator maxAcquiredNanos = new LongAccumulator(Math::max, 0);
+        final LongAdder usageMillis = new LongAdder();
+        final LongAdder timeouts = new LongAdder();
+
+        private Tracker(String poolName) {
+            this.poolName = poolName;
+        }
+
+        @Override
+        public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+            acquiredCount.increment();
+            acquiredNanos.add(elapsedAcquiredNanos);
+            maxAcquiredNanos.accumulate(elapsedAcquiredNanos);
+        }
+
+        @Override
+        public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+            usageMillis.add(elapsedBorrowedMillis);
+        }
+
+        @Override
+        public void recordConnectionTimeout() {
+            timeouts.increment();
+        }
+
+        @Override
+        public void close() {
+            trackers.remove(poolName, this);
+        }
+    }
+}
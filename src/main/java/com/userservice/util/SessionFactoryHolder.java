@@ -0,0 +1,188 @@
+package com.userservice.util;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Builds a SessionFactory on first use instead of at class load. Creating the holder only reads the configuration
+ * file and the {@link HibernateSettings} overrides, so callers can inject it and show their UI or accept requests
+ * right away; the metadata build, schema validation and pool start happen in the first {@link #get()}, or earlier
+ * in the background via {@link #warmUp()}.
+ * <p>
+ * Startup can be cut further with {@code -Dhibernate.hbm2ddl.auto=none} (no schema validation) and
+ * {@code -Dhibernate.boot.allow_jdbc_metadata_access=false} (the configured dialect is used as is instead of being
+ * refined from database metadata).
+ */
+public class SessionFactoryHolder implements Supplier<SessionFactory>, AutoCloseable {
+
+    private static final Logger logger = LogManager.getLogger(SessionFactoryHolder.class);
+
+    public static final String REPLICA_URL_SETTING = "userservice.replica.url";
+    private static final String REPLICA_USERNAME_SETTING = "userservice.replica.username";
+    private static final String REPLICA_PASSWORD_SETTING = "userservice.replica.password";
+    private static final String REPLICA_POOL_SIZE_SETTING = "userservice.replica.pool_size";
+    private static final String REPLICA_CONNECTION_TIMEOUT_SETTING = "userservice.replica.connection_timeout_ms";
+    private static final String DEFAULT_REPLICA_CONNECTION_TIMEOUT_MS = "2000";
+
+    private final String configResource;
+    private final Map<String, ?> extraSettings;
+    private final Map<String, Object> settings;
+    private volatile SessionFactory sessionFactory;
+    private volatile CompletableFuture<SessionFactory> warmUp;
+    private volatile Duration bootstrapTime;
+    private boolean closed;
+
+    public SessionFactoryHolder(String configResource) {
+        this(configResource, Map.of());
+    }
+
+    /** Extra settings are applied on top of the configuration file and the runtime overrides. */
+    public SessionFactoryHolder(String configResource, Map<String, ?> extraSettings) {
+        this.configResource = configResource;
+        this.extraSettings = Map.copyOf(extraSettings);
+        Map<String, Object> resolved = new HashMap<>(configure(configResource, extraSettings).getSettings());
+        this.settings = Collections.unmodifiableMap(resolved);
+    }
+
+    /** Effective settings, available without building the SessionFactory. */
+    public Map<String, Object> settings() {
+        return settings;
+    }
+
+    /**
+     * A holder for the read-only replica configured with {@code userservice.replica.url}, or null if none is set.
+     * The replica uses the same configuration with its own connection pool; it never touches the schema and has no
+     * second-level or query cache, which writes through the primary could not invalidate.
+     */
+    public SessionFactoryHolder replica() {
+        Object url = settings.get(REPLICA_URL_SETTING);
+        if (url == null || url.toString().isBlank()) {
+            return null;
+        }
+        Map<String, Object> replica = new HashMap<>(extraSettings);
+        replica.put("hibernate.connection.url", url);
+        copySetting(REPLICA_USERNAME_SETTING, "hibernate.connection.username", replica);
+        copySetting(REPLICA_PASSWORD_SETTING, "hibernate.connection.password", replica);
+        copySetting(REPLICA_POOL_SIZE_SETTING, "hibernate.hikari.maximumPoolSize", replica);
+        // Fail over to the primary quickly instead of waiting the primary pool's full timeout
+        replica.put("hibernate.hikari.connectionTimeout",
+                settings.getOrDefault(REPLICA_CONNECTION_TIMEOUT_SETTING, DEFAULT_REPLICA_CONNECTION_TIMEOUT_MS));
+        replica.put("hibernate.hikari.poolName", "replica");
+        replica.put("hibernate.hikari.readOnly", true);
+        replica.put("hibernate.hbm2ddl.auto", "none");
+        replica.put("hibernate.cache.use_second_level_cache", false);
+        replica.put("hibernate.cache.use_query_cache", false);
+        return new SessionFactoryHolder(configResource, replica);
+    }
+
+    private void copySetting(String from, String to, Map<String, Object> target) {
+        Object value = settings.get(from);
+        if (value != null) {
+            target.put(to, value);
+        }
+    }
+
+    @Override
+    public SessionFactory get() {
+        SessionFactory current = sessionFactory;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            if (closed) {
+                throw new IllegalStateException("SessionFactory holder is closed");
+            }
+            if (sessionFactory == null) {
+                long start = System.nanoTime();
+                sessionFactory = build(configResource, settings);
+                bootstrapTime = Duration.ofNanos(System.nanoTime() - start);
+            }
+            return sessionFactory;
+        }
+    }
+
+    /** Starts building the SessionFactory on a daemon thread; repeated calls return the same future. */
+    public synchronized CompletableFuture<SessionFactory> warmUp() {
+        if (warmUp == null) {
+            warmUp = new CompletableFuture<>();
+            Thread thread = new Thread(() -> {
+                try {
+                    warmUp.complete(get());
+                } catch (Throwable e) {
+                    logger.error("SessionFactory warm-up failed", e);
+                    warmUp.completeExceptionally(e);
+                }
+            }, "session-factory-warmup");
+            thread.setDaemon(true);
+            thread.start();
+        }
+        return warmUp;
+    }
+
+    public boolean isInitialized() {
+        return sessionFactory != null;
+    }
+
+    /** Time the SessionFactory took to build, or null if it hasn't been built yet. */
+    public Duration bootstrapTime() {
+        return bootstrapTime;
+    }
+
+    /** Closes the SessionFactory if it was built; a holder that was never used doesn't build one just to close it. */
+    @Override
+    public synchronized void close() {
+        closed = true;
+        if (sessionFactory != null) {
+            sessionFactory.close();
+            sessionFactory = null;
+        }
+    }
+
+    /**
+     * Builds a SessionFactory from a configuration file, the runtime overrides and extra settings, logging how long
+     * each bootstrap phase took. Shared by the holder and the test builders.
+     */
+    public static SessionFactory build(String configResource, Map<String, ?> extraSettings) {
+        try {
+            long start = System.nanoTime();
+            final StandardServiceRegistry registry = configure(configResource, extraSettings).build();
+            long registryBuilt = System.nanoTime();
+            Metadata metadata = new MetadataSources(registry).buildMetadata();
+            long metadataBuilt = System.nanoTime();
+            SessionFactory sessionFactory = metadata.buildSessionFactory();
+            long factoryBuilt = System.nanoTime();
+            logger.info("SessionFactory built from {} in {} ms (registry {} ms, metadata {} ms, session factory {} ms)",
+                    configResource, millis(factoryBuilt - start), millis(registryBuilt - start),
+                    millis(metadataBuilt - registryBuilt), millis(factoryBuilt - metadataBuilt));
+            return sessionFactory;
+        } catch (Exception e) {
+            logger.error("SessionFactory creation failed.", e);
+            // Called lazily from get(), not from a static initializer: callers can catch it and try again
+            throw new IllegalStateException("Failed to build SessionFactory from " + configResource, e);
+        }
+    }
+
+    private static StandardServiceRegistryBuilder configure(String configResource, Map<String, ?> extraSettings) {
+        StandardServiceRegistryBuilder builder = HibernateSettings.applyOverrides(
+                new StandardServiceRegistryBuilder().configure(configResource));
+        extraSettings.forEach((name, value) -> builder.applySetting(name, String.valueOf(value)));
+        return builder;
+    }
+
+    private static long millis(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+}
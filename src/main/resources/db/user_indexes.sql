@@ -0,0 +1,6 @@
+-- Search indexes for users. hbm2ddl creates the first two from @Table(indexes) in tests; apply this in
+-- environments that run with hbm2ddl.auto=validate. One statement per line (hibernate.hbm2ddl.import_files).
+CREATE INDEX IF NOT EXISTS idx_users_age_id ON users (age, id);
+CREATE INDEX IF NOT EXISTS idx_users_created_at_id ON users (created_at, id);
+-- text_pattern_ops lets LIKE 'prefix%' use the index under any collation
+CREATE INDEX IF NOT EXISTS idx_users_lower_name ON users (lower(name) text_pattern_ops);
@@ -0,0 +1,7 @@
+-- Change outbox for environments that run with hbm2ddl.auto=validate; in tests hbm2ddl creates the tables and only
+-- the partial index below is new. One statement per line (hibernate.hbm2ddl.import_files).
+CREATE TABLE IF NOT EXISTS user_outbox (id uuid PRIMARY KEY, position bigint, user_id bigint NOT NULL, type varchar(10) NOT NULL, changes varchar(4000) NOT NULL, user_version bigint, created_at timestamp(6) NOT NULL);
+CREATE UNIQUE INDEX IF NOT EXISTS idx_user_outbox_position ON user_outbox (position);
+-- The relay looks for unstamped events on every poll; keeps that lookup small however long the outbox gets
+CREATE INDEX IF NOT EXISTS idx_user_outbox_unstamped ON user_outbox (created_at, id) WHERE position IS NULL;
+CREATE TABLE IF NOT EXISTS user_outbox_head (id integer PRIMARY KEY, position bigint NOT NULL);
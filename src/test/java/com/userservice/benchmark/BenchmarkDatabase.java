@@ -0,0 +1,61 @@
+package com.userservice.benchmark;
+
+import com.userservice.dao.UserDao;
+import com.userservice.model.User;
+import com.userservice.util.TestHibernateUtil;
+import org.hibernate.SessionFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Database used by the benchmarks: an in-memory H2 in PostgreSQL mode so they run offline,
+ * or the database given by {@code -Dhibernate.connection.url} (plus username/password) when set.
+ */
+final class BenchmarkDatabase {
+
+    private BenchmarkDatabase() {
+    }
+
+    static SessionFactory open() {
+        return open(Map.of());
+    }
+
+    static SessionFactory open(Map<String, Object> extraSettings) {
+        return TestHibernateUtil.buildSessionFactory(settings(extraSettings));
+    }
+
+    /** Settings for a fresh benchmark database, for callers that build their own SessionFactory. */
+    static Map<String, Object> settings(Map<String, Object> extraSettings) {
+        Map<String, Object> settings = new HashMap<>();
+        settings.put("hibernate.show_sql", "false");
+        settings.put("hibernate.format_sql", "false");
+        if (System.getProperty("hibernate.connection.url") == null) {
+            settings.put("hibernate.connection.driver_class", "org.h2.Driver");
+            settings.put("hibernate.connection.url",
+                    "jdbc:h2:mem:bench-" + UUID.randomUUID() + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1");
+            settings.put("hibernate.connection.username", "sa");
+            settings.put("hibernate.connection.password", "");
+            settings.put("hibernate.dialect", "org.hibernate.dialect.H2Dialect");
+            // db/user_indexes.sql is PostgreSQL-specific
+            settings.put("hibernate.hbm2ddl.import_files", "");
+        }
+        settings.putAll(extraSettings);
+        return settings;
+    }
+
+    static List<User> seed(UserDao userDao, int count) {
+        List<User> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            users.add(new User("User" + i, uniqueEmail(), 18 + i % 60));
+        }
+        return userDao.saveAll(users);
+    }
+
+    static String uniqueEmail() {
+        return "bench_" + UUID.randomUUID() + "@mail.com";
+    }
+}
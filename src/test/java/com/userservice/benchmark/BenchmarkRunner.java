@@ -0,0 +1,39 @@
+package com.userservice.benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Runs the benchmarks once per thread count in {@code bench.threads} (e.g. {@code 1,4,16}) and writes
+ * one JSON result file per run into {@code bench.resultDir}. Regular JMH command line options
+ * (e.g. {@code -p tableSize=100000}) are passed through.
+ */
+public final class BenchmarkRunner {
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String include = System.getProperty("bench.include", "com.userservice.benchmark.*");
+        Path resultDir = Path.of(System.getProperty("bench.resultDir", "target/jmh"));
+        Files.createDirectories(resultDir);
+
+        for (String threadCount : System.getProperty("bench.threads", "1,4").split(",")) {
+            int threads = Integer.parseInt(threadCount.trim());
+            Options options = new OptionsBuilder()
+                    .parent(new CommandLineOptions(args))
+                    .include(include)
+                    .threads(threads)
+                    .resultFormat(ResultFormatType.JSON)
+                    .result(resultDir.resolve("results-" + threads + "-threads.json").toString())
+                    .build();
+            new Runner(options).run();
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.userservice.benchmark;
+
+import com.userservice.dao.UserDaoImpl;
+import com.userservice.model.User;
+import com.userservice.util.SessionFactoryHolder;
+import org.hibernate.SessionFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time from creating a {@link SessionFactoryHolder} to the result of the first query, with and without schema
+ * validation and JDBC metadata access during boot. Each invocation bootstraps a new SessionFactory against a
+ * schema created once per trial; a freshly started JVM additionally pays for class loading.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BootstrapBenchmark {
+
+    @Param({"validate", "none"})
+    String schemaAction;
+
+    @Param({"true", "false"})
+    String jdbcMetadataAccess;
+
+    SessionFactory schemaOwner;
+    Map<String, Object> settings;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        settings = new HashMap<>(BenchmarkDatabase.settings(Map.of()));
+        schemaOwner = BenchmarkDatabase.open(settings);
+        settings.put("hibernate.hbm2ddl.auto", schemaAction);
+        settings.put("hibernate.boot.allow_jdbc_metadata_access", jdbcMetadataAccess);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        schemaOwner.close();
+    }
+
+    @Benchmark
+    public Optional<User> timeToFirstQuery() {
+        try (SessionFactoryHolder holder = new SessionFactoryHolder("test-hibernate.cfg.xml", settings)) {
+            return new UserDaoImpl(holder).findById(1L);
+        }
+    }
+}
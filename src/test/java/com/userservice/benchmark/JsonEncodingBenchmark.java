@@ -0,0 +1,79 @@
+package com.userservice.benchmark;
+
+import com.userservice.http.JsonWriter;
+import com.userservice.model.User;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of encoding one page of users as the HTTP API does. {@code jsonWriter} allocates only its buffer per page
+ * under {@code -prof gc}; {@code stringBuilder} is the usual build-a-String-then-getBytes approach for comparison.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JsonEncodingBenchmark {
+
+    @Param({"1", "100"})
+    int pageSize;
+
+    private final OutputStream out = OutputStream.nullOutputStream();
+    private List<User> page;
+
+    @Setup
+    public void setUp() {
+        page = new ArrayList<>();
+        for (int i = 0; i < pageSize; i++) {
+            User user = new User((long) i + 1, "User \"" + i + "\"", "user" + i + "@mail.com", 20 + i % 50,
+                    LocalDateTime.of(2024, 5, 1, 12, 30, 15, 123_000_000));
+            user.setVersion((long) i);
+            page.add(user);
+        }
+    }
+
+    @Benchmark
+    public void jsonWriter() throws IOException {
+        JsonWriter writer = new JsonWriter(out);
+        writer.raw('[');
+        for (int i = 0; i < page.size(); i++) {
+            if (i > 0) {
+                writer.raw(',');
+            }
+            writer.user(page.get(i));
+        }
+        writer.raw(']');
+        writer.flush();
+    }
+
+    @Benchmark
+    public void stringBuilder() throws IOException {
+        StringBuilder json = new StringBuilder().append('[');
+        for (int i = 0; i < page.size(); i++) {
+            User user = page.get(i);
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"id\":").append(user.getId())
+                    .append(",\"name\":\"").append(escape(user.getName()))
+                    .append("\",\"email\":\"").append(escape(user.getEmail()))
+                    .append("\",\"age\":").append(user.getAge())
+                    .append(",\"createdAt\":\"").append(user.getCreatedAt())
+                    .append("\",\"version\":").append(user.getVersion()).append('}');
+        }
+        out.write(json.append(']').toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+}
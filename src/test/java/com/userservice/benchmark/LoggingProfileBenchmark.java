@@ -0,0 +1,74 @@
+package com.userservice.benchmark;
+
+import com.userservice.dao.UserDao;
+import com.userservice.dao.UserDaoImpl;
+import com.userservice.model.User;
+import org.apache.logging.log4j.core.config.Configurator;
+import org.hibernate.SessionFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.net.URISyntaxException;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-operation DAO latency under each logging profile. {@code dev} is log4j2.xml with SQL echo on, as the
+ * application used to run; {@code prod} is log4j2-prod.xml (async loggers, file appender) with SQL echo off.
+ * The dev run prints every statement to the console, which is exactly the cost being measured.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LoggingProfileBenchmark {
+
+    @Param({"dev", "prod"})
+    String profile;
+
+    SessionFactory sessionFactory;
+    UserDao userDao;
+    List<User> users;
+
+    @Setup(Level.Trial)
+    public void setUp() throws URISyntaxException {
+        boolean prod = "prod".equals(profile);
+        if (System.getProperty("userservice.log.dir") == null) {
+            System.setProperty("userservice.log.dir", "target/bench-logs");
+        }
+        String config = prod ? "log4j2-prod.xml" : "log4j2.xml";
+        Configurator.reconfigure(getClass().getClassLoader().getResource(config).toURI());
+
+        sessionFactory = BenchmarkDatabase.open(Map.of(
+                "hibernate.show_sql", String.valueOf(!prod),
+                "hibernate.format_sql", String.valueOf(!prod)));
+        userDao = new UserDaoImpl(sessionFactory);
+        users = BenchmarkDatabase.seed(userDao, 1000);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        sessionFactory.close();
+    }
+
+    @Benchmark
+    public User save() {
+        return userDao.save(new User("Bench", BenchmarkDatabase.uniqueEmail(), 30));
+    }
+
+    @Benchmark
+    public Optional<User> findById() {
+        return userDao.findById(users.get(ThreadLocalRandom.current().nextInt(users.size())).getId());
+    }
+
+    @Benchmark
+    public User update() {
+        User user = users.get(ThreadLocalRandom.current().nextInt(users.size()));
+        return userDao.update(new User(user.getId(), "Updated", user.getEmail(),
+                ThreadLocalRandom.current().nextInt(18, 80), user.getCreatedAt()));
+    }
+}
@@ -0,0 +1,42 @@
+package com.userservice.benchmark;
+
+import com.userservice.dao.InstrumentedUserDao;
+import com.userservice.dao.UserDao;
+import com.userservice.metrics.MetricsRegistry;
+import com.userservice.model.User;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of {@link InstrumentedUserDao} over a stubbed DAO. Run with {@code -prof gc} to confirm that recording
+ * does not allocate, and with several threads to see contention on the shared counters.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MetricsOverheadBenchmark {
+
+    UserDao raw;
+    UserDao instrumented;
+
+    @Setup
+    public void setUp() {
+        raw = StubUserDao.create();
+        instrumented = new InstrumentedUserDao(raw, new MetricsRegistry());
+    }
+
+    @Benchmark
+    public Optional<User> findByIdRaw() {
+        return raw.findById(42L);
+    }
+
+    @Benchmark
+    public Optional<User> findByIdInstrumented() {
+        return instrumented.findById(42L);
+    }
+}
@@ -0,0 +1,76 @@
+package com.userservice.benchmark;
+
+import com.userservice.bulk.ProgressListener;
+import com.userservice.bulk.UserProcessor;
+import com.userservice.dao.UserDao;
+import com.userservice.dao.UserDaoImpl;
+import com.userservice.model.User;
+import com.userservice.service.UserValidator;
+import org.hibernate.SessionFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Re-validating every user: one cursor over the whole table versus {@link UserProcessor} with a cursor per worker.
+ * On a machine with several cores the processor's time should drop with {@code parallelism} up to the core count.
+ * The processor runs no more workers than the pool can serve, six with the test pool of eight connections.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProcessingBenchmark {
+
+    private final UserValidator validator = UserValidator.instance();
+
+    @Param({"100000"})
+    int tableSize;
+
+    @Param({"1", "2", "4", "6"})
+    int parallelism;
+
+    SessionFactory sessionFactory;
+    UserDao userDao;
+    UserProcessor processor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        sessionFactory = BenchmarkDatabase.open();
+        userDao = new UserDaoImpl(sessionFactory);
+        BenchmarkDatabase.seed(userDao, tableSize);
+        processor = new UserProcessor(userDao, List.of(sessionFactory), parallelism,
+                UserProcessor.DEFAULT_CHECKPOINT_INTERVAL);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        sessionFactory.close();
+    }
+
+    @Benchmark
+    public long streamAll() {
+        LongAdder valid = new LongAdder();
+        try (Stream<User> users = userDao.streamAll()) {
+            users.forEach(user -> validate(user, valid));
+        }
+        return valid.sum();
+    }
+
+    @Benchmark
+    public long forEachUser() {
+        LongAdder valid = new LongAdder();
+        processor.forEachUser(user -> validate(user, valid), null, ProgressListener.none());
+        return valid.sum();
+    }
+
+    private void validate(User user, LongAdder valid) {
+        validator.validate(user.getName(), user.getEmail(), user.getAge());
+        valid.increment();
+    }
+}
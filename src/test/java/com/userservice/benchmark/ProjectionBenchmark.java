@@ -0,0 +1,75 @@
+package com.userservice.benchmark;
+
+import com.userservice.dao.UserDao;
+import com.userservice.dao.UserDaoImpl;
+import com.userservice.model.User;
+import com.userservice.model.UserSummary;
+import org.hibernate.SessionFactory;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Entity reads versus {@link UserSummary} projections over a large table. Run with {@code -prof gc}:
+ * {@code gc.alloc.rate.norm} is the memory cost per call.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProjectionBenchmark {
+
+    private static final int PAGE_SIZE = 1000;
+
+    @Param({"100000"})
+    int tableSize;
+
+    SessionFactory sessionFactory;
+    UserDao userDao;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        sessionFactory = BenchmarkDatabase.open();
+        userDao = new UserDaoImpl(sessionFactory);
+        BenchmarkDatabase.seed(userDao, tableSize);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        sessionFactory.close();
+    }
+
+    @Benchmark
+    public List<User> findAllEntities() {
+        return userDao.findAll();
+    }
+
+    @Benchmark
+    public void streamEntities(Blackhole blackhole) {
+        try (Stream<User> users = userDao.streamAll()) {
+            users.forEach(blackhole::consume);
+        }
+    }
+
+    @Benchmark
+    public void streamSummaries(Blackhole blackhole) {
+        try (Stream<UserSummary> summaries = userDao.streamSummaries()) {
+            summaries.forEach(blackhole::consume);
+        }
+    }
+
+    @Benchmark
+    public List<User> entityPage() {
+        return userDao.findPage(null, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<UserSummary> summaryPage() {
+        return userDao.findSummaryPage(null, PAGE_SIZE);
+    }
+}
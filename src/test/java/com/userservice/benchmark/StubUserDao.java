@@ -0,0 +1,35 @@
+package com.userservice.benchmark;
+
+import com.userservice.dao.UserDao;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Allocation-free {@link UserDao} stand-in for benchmarking the service layer alone:
+ * writes return their argument, lookups find nothing, transactions just run their work.
+ */
+final class StubUserDao {
+
+    private StubUserDao() {
+    }
+
+    static UserDao create() {
+        return (UserDao) Proxy.newProxyInstance(UserDao.class.getClassLoader(), new Class<?>[]{UserDao.class},
+                (proxy, method, args) -> {
+                    if (method.isDefault()) return InvocationHandler.invokeDefault(proxy, method, args);
+                    Class<?> type = method.getReturnType();
+                    if (args != null && args.length == 1 && type.isInstance(args[0])) return args[0];
+                    if (type == boolean.class) return false;
+                    if (type == int.class) return 0;
+                    if (type == long.class) return 0L;
+                    if (type == Optional.class) return Optional.empty();
+                    if (type == List.class) return List.of();
+                    if (type == Stream.class) return Stream.empty();
+                    return null;
+                });
+    }
+}
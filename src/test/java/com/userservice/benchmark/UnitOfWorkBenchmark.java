@@ -0,0 +1,110 @@
+package com.userservice.benchmark;
+
+import com.userservice.dao.UserDao;
+import com.userservice.dao.UserDaoImpl;
+import com.userservice.model.User;
+import com.userservice.model.UserPatch;
+import com.userservice.util.ConnectionPoolMetrics;
+import org.hibernate.SessionFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A composite operation (check the email, insert, rename, read back) as separate DAO calls and as one unit of
+ * work, plus a read-only composite of three lookups. Every iteration also prints how many pool checkouts an
+ * invocation needed.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UnitOfWorkBenchmark {
+
+    SessionFactory sessionFactory;
+    UserDao userDao;
+    List<User> users;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        sessionFactory = BenchmarkDatabase.open();
+        userDao = new UserDaoImpl(sessionFactory);
+        users = BenchmarkDatabase.seed(userDao, 1000);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        sessionFactory.close();
+    }
+
+    @Benchmark
+    public User createSeparately(Checkouts checkouts) {
+        checkouts.operations++;
+        return create();
+    }
+
+    @Benchmark
+    public User createInUnitOfWork(Checkouts checkouts) {
+        checkouts.operations++;
+        return userDao.inTransaction(this::create);
+    }
+
+    private User create() {
+        String email = BenchmarkDatabase.uniqueEmail();
+        if (userDao.existsByEmail(email)) {
+            throw new IllegalStateException("Email already in use");
+        }
+        User user = userDao.save(new User("Bench", email, 30));
+        userDao.patch(user.getId(), new UserPatch("Renamed", null, null));
+        return userDao.findById(user.getId()).orElseThrow();
+    }
+
+    @Benchmark
+    public int readSeparately(Checkouts checkouts) {
+        checkouts.operations++;
+        return read();
+    }
+
+    @Benchmark
+    public int readInReadOnlyUnitOfWork(Checkouts checkouts) {
+        checkouts.operations++;
+        return userDao.inReadOnlyTransaction(this::read);
+    }
+
+    private int read() {
+        User user = users.get(ThreadLocalRandom.current().nextInt(users.size()));
+        return userDao.findPage(user.getId(), 10).size()
+                + userDao.findSummaryPage(user.getId(), 10).size()
+                + (userDao.findByEmail(user.getEmail()).isPresent() ? 1 : 0);
+    }
+
+    /** Counts pool checkouts over an iteration and prints them per operation when it ends. */
+    @State(Scope.Thread)
+    public static class Checkouts {
+
+        long operations;
+        long acquiredBefore;
+        SessionFactory sessionFactory;
+
+        @Setup(Level.Iteration)
+        public void reset(UnitOfWorkBenchmark benchmark) {
+            sessionFactory = benchmark.sessionFactory;
+            operations = 0;
+            acquiredBefore = acquired();
+        }
+
+        @TearDown(Level.Iteration)
+        public void report() {
+            System.out.printf("  connection checkouts per operation: %.2f%n",
+                    operations == 0 ? 0 : (double) (acquired() - acquiredBefore) / operations);
+        }
+
+        private long acquired() {
+            return ConnectionPoolMetrics.snapshot(sessionFactory).orElseThrow().connectionsAcquired();
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.userservice.benchmark;
+
+import com.userservice.dao.UserDao;
+import com.userservice.dao.UserDaoImpl;
+import com.userservice.model.User;
+import org.hibernate.SessionFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UserDaoBenchmark {
+
+    @Param({"1000", "10000"})
+    int tableSize;
+
+    SessionFactory sessionFactory;
+    UserDao userDao;
+    List<User> users;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        sessionFactory = BenchmarkDatabase.open();
+        userDao = new UserDaoImpl(sessionFactory);
+        users = BenchmarkDatabase.seed(userDao, tableSize);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        sessionFactory.close();
+    }
+
+    User randomUser() {
+        return users.get(ThreadLocalRandom.current().nextInt(users.size()));
+    }
+
+    @Benchmark
+    public User save() {
+        return userDao.save(new User("Bench", BenchmarkDatabase.uniqueEmail(), 30));
+    }
+
+    @Benchmark
+    public Optional<User> findById() {
+        return userDao.findById(randomUser().getId());
+    }
+
+    @Benchmark
+    public List<User> findAll() {
+        return userDao.findAll();
+    }
+
+    @Benchmark
+    public User update() {
+        User user = randomUser();
+        return userDao.update(new User(user.getId(), "Updated", user.getEmail(),
+                ThreadLocalRandom.current().nextInt(18, 80), user.getCreatedAt()));
+    }
+
+    @Benchmark
+    public void deleteById(DeleteTarget target) {
+        userDao.deleteById(target.id);
+    }
+
+    /** Inserts a fresh row before every deleteById invocation so each call deletes an existing user. */
+    @State(Scope.Thread)
+    public static class DeleteTarget {
+
+        Long id;
+
+        @Setup(Level.Invocation)
+        public void insert(UserDaoBenchmark benchmark) {
+            id = benchmark.userDao.save(new User("Doomed", BenchmarkDatabase.uniqueEmail(), 30)).getId();
+        }
+    }
+}
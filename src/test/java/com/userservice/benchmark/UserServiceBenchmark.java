@@ -0,0 +1,40 @@
+package com.userservice.benchmark;
+
+import com.userservice.model.User;
+import com.userservice.service.UserService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Validation cost of {@link UserService#createUser} with persistence stubbed out.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UserServiceBenchmark {
+
+    UserService userService;
+
+    @Setup
+    public void setUp() {
+        userService = new UserService(StubUserDao.create());
+    }
+
+    @Benchmark
+    public User createValidUser() {
+        return userService.createUser("Alice Smith", "alice.smith@mail.com", 30);
+    }
+
+    @Benchmark
+    public Object createInvalidUser() {
+        try {
+            return userService.createUser("   ", "alice.smith-at-mail.com", -1);
+        } catch (IllegalArgumentException e) {
+            return e;
+        }
+    }
+}
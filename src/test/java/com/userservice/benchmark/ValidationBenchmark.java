@@ -0,0 +1,53 @@
+package com.userservice.benchmark;
+
+import com.userservice.service.UserValidator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Cost of validating one user. {@code validator} is {@link UserValidator} on valid input and should show 0 B/op
+ * under {@code -prof gc}; {@code legacyChecks} is what UserService checked before (trim and contains)
+ * and {@code regex} a typical Pattern-based email check, for comparison.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ValidationBenchmark {
+
+    private static final Pattern EMAIL = Pattern.compile(
+            "^[A-Za-z0-9!#$%&'*+/=?^_`{|}~-]+(\\.[A-Za-z0-9!#$%&'*+/=?^_`{|}~-]+)*"
+                    + "@[A-Za-z0-9]([A-Za-z0-9-]*[A-Za-z0-9])?(\\.[A-Za-z0-9]([A-Za-z0-9-]*[A-Za-z0-9])?)+$");
+
+    private final UserValidator validator = UserValidator.instance();
+
+    String name = "  Jane Doe  ";
+    String email = "jane.doe+news@mail.example.com";
+    int age = 34;
+    String invalidName = "   ";
+    String invalidEmail = "jane.doe.mail.example.com";
+
+    @Benchmark
+    public int validator() {
+        return validator.check(name, email, age);
+    }
+
+    @Benchmark
+    public int validatorInvalid() {
+        return validator.check(invalidName, invalidEmail, -1);
+    }
+
+    @Benchmark
+    public boolean legacyChecks() {
+        return !name.trim().isEmpty() && email.contains("@") && age >= 0;
+    }
+
+    @Benchmark
+    public boolean regex() {
+        return !name.isBlank() && EMAIL.matcher(email).matches() && age >= 0;
+    }
+}
@@ -0,0 +1,88 @@
+package com.userservice.bulk;
+
+import com.userservice.model.User;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RecordCodecTest {
+
+    private static final LocalDateTime CREATED = LocalDateTime.of(2024, 5, 1, 12, 30);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void csv_roundTripsQuotedFields() {
+        User user = new User(7L, "Smith, \"Jo\"", "jo@mail.com", 41, CREATED);
+        Function<String, UserRecord> parser = CsvCodec.INSTANCE.parser(CsvCodec.INSTANCE.header());
+
+        UserRecord record = parser.apply(CsvCodec.INSTANCE.format(user));
+
+        assertEquals(new UserRecord("Smith, \"Jo\"", "jo@mail.com", 41, CREATED), record);
+    }
+
+    @Test
+    void csv_mapsColumnsByHeaderName() {
+        Function<String, UserRecord> parser = CsvCodec.INSTANCE.parser("Email,AGE,name");
+
+        assertEquals(new UserRecord("Ann", "ann@mail.com", 30, null), parser.apply("ann@mail.com,30,Ann"));
+        assertThrows(IllegalArgumentException.class, () -> parser.apply("ann@mail.com,thirty,Ann"));
+        assertThrows(IllegalArgumentException.class, () -> parser.apply("ann@mail.com,30"));
+        assertThrows(IllegalArgumentException.class, () -> CsvCodec.INSTANCE.parser("id,email"));
+    }
+
+    @Test
+    void json_roundTripsEscapedStrings() {
+        User user = new User(7L, "Jo \"JJ\" \\ Smith\t", "jo@mail.com", 41, CREATED);
+        Function<String, UserRecord> parser = JsonLinesCodec.INSTANCE.parser(null);
+
+        UserRecord record = parser.apply(JsonLinesCodec.INSTANCE.format(user));
+
+        assertEquals(new UserRecord("Jo \"JJ\" \\ Smith\t", "jo@mail.com", 41, CREATED), record);
+    }
+
+    @Test
+    void json_ignoresUnknownMembersAndRejectsMalformedLines() {
+        Function<String, UserRecord> parser = JsonLinesCodec.INSTANCE.parser(null);
+
+        assertEquals(new UserRecord("Ann", "ann@mail.com", 30, null),
+                parser.apply(" {\"extra\": true, \"name\": \"Ann\", \"email\": \"ann@mail.com\", \"age\": 30, \"createdAt\": null} "));
+        assertThrows(IllegalArgumentException.class, () -> parser.apply("{\"name\": \"Ann\""));
+        assertThrows(IllegalArgumentException.class, () -> parser.apply("{\"tags\": [1]}"));
+    }
+
+    @Test
+    void lineReader_tracksOffsetsAcrossLineEndings() throws Exception {
+        Path file = directory.resolve("lines.txt");
+        Files.writeString(file, "first\r\nsecond\n\nthird", StandardCharsets.UTF_8);
+
+        long afterFirst;
+        try (LineReader reader = new LineReader(file, 0)) {
+            assertEquals("first", reader.readLine());
+            afterFirst = reader.position();
+            assertEquals("second", reader.readLine());
+            assertEquals("", reader.readLine());
+            assertEquals("third", reader.readLine());
+            assertNull(reader.readLine());
+            assertEquals(Files.size(file), reader.position());
+        }
+        try (LineReader reader = new LineReader(file, afterFirst)) {
+            assertEquals("second", reader.readLine());
+        }
+    }
+
+    @Test
+    void format_followsFileExtension() {
+        assertEquals(BulkFormat.CSV, BulkFormat.of(Path.of("users.csv")));
+        assertEquals(BulkFormat.JSON, BulkFormat.of(Path.of("dump/users.JSONL")));
+        assertEquals(BulkFormat.JSON, BulkFormat.of(Path.of("users.ndjson")));
+    }
+}
@@ -0,0 +1,38 @@
+package com.userservice.bulk;
+
+import com.userservice.dao.InMemoryUserDao;
+import com.userservice.model.User;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UserExporterTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void exportedCsvImportsBack() {
+        InMemoryUserDao source = new InMemoryUserDao();
+        List<User> users = source.saveAll(List.of(new User("Ann", "ann@mail.com", 30),
+                new User("Lee, \"Bob\"", "bob@mail.com", 40), new User("Cy", "cy@mail.com", 50)));
+        source.deleteById(users.get(0).getId());
+        Path file = directory.resolve("users.csv");
+        List<TransferProgress> progress = new CopyOnWriteArrayList<>();
+
+        TransferResult exported = new UserExporter(source, 1).export(file, BulkFormat.CSV, null, progress::add);
+
+        assertEquals(2, exported.records());
+        assertEquals(100.0, progress.get(progress.size() - 1).percent());
+        InMemoryUserDao target = new InMemoryUserDao();
+        TransferResult imported = new UserImporter(target, null, 10, 1)
+                .importFile(file, BulkFormat.CSV, null, ProgressListener.none());
+        assertEquals(0, imported.rejected());
+        assertEquals(List.of("Lee, \"Bob\"", "Cy"), target.findAll().stream().map(User::getName).toList());
+    }
+}
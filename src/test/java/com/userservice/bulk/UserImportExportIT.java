@@ -0,0 +1,195 @@
+package com.userservice.bulk;
+
+import com.userservice.dao.UserDao;
+import com.userservice.dao.UserDaoImpl;
+import com.userservice.model.ChangeType;
+import com.userservice.model.User;
+import com.userservice.util.TestHibernateUtil;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.io.TempDir;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Testcontainers
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class UserImportExportIT {
+
+    private static final int USERS = 2_500;
+
+    @Container
+    private static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15.2")
+            .withDatabaseName("testdb")
+            .withUsername("test")
+            .withPassword("test");
+
+    @TempDir
+    Path directory;
+
+    private SessionFactory sessionFactory;
+    private UserDao userDao;
+
+    @BeforeAll
+    void setUpAll() {
+        System.setProperty("hibernate.connection.url", postgres.getJdbcUrl());
+        System.setProperty("hibernate.connection.username", postgres.getUsername());
+        System.setProperty("hibernate.connection.password", postgres.getPassword());
+        sessionFactory = TestHibernateUtil.getSessionFactory();
+        userDao = new UserDaoImpl(sessionFactory);
+    }
+
+    @AfterAll
+    void tearDownAll() {
+        TestHibernateUtil.shutdown();
+    }
+
+    @BeforeEach
+    void cleanDatabase() {
+        try (Session session = sessionFactory.openSession()) {
+            Transaction tx = session.beginTransaction();
+            session.createMutationQuery("DELETE FROM OutboxEvent").executeUpdate();
+            session.createMutationQuery("DELETE FROM User").executeUpdate();
+            tx.commit();
+        }
+    }
+
+    @Test
+    void testCopyImportRejectsOnlyInvalidAndDuplicateRows() throws Exception {
+        Path file = writeCsv(USERS);
+        Files.writeString(file, ",nobody@mail.com,30\nDup,user7@mail.com,30\nBad,bad@mail.com,old\n",
+                StandardOpenOption.APPEND);
+        UserImporter importer = new UserImporter(userDao, sessionFactory, 500, 4);
+
+        TransferResult result = importer.importFile(file, BulkFormat.CSV, null, ProgressListener.none());
+
+        assertTrue(importer.usesCopy());
+        assertEquals(USERS, result.records());
+        assertEquals(3, result.rejected());
+        assertEquals(USERS, countUsers());
+        assertEquals(USERS, countCreateEvents());
+        List<String> rejects = Files.readAllLines(UserImporter.rejectsFile(file));
+        assertEquals(3, rejects.size());
+        assertTrue(rejects.get(0).startsWith((USERS + 2) + "\tName cannot be empty"), rejects.get(0));
+        assertTrue(rejects.stream().anyMatch(line -> line.contains("Invalid age: old")));
+        assertTrue(userDao.findByEmail("user7@mail.com").isPresent());
+        // COPY ids come from the same sequence, so regular inserts still work afterwards
+        assertNotNull(userDao.save(new User("After", "after@mail.com", 20)).getId());
+    }
+
+    @Test
+    void testBatchImportWithoutCopy() throws Exception {
+        Path file = writeCsv(USERS);
+        UserImporter importer = new UserImporter(userDao, null, 300, 2);
+
+        TransferResult result = importer.importFile(file, BulkFormat.CSV, null, ProgressListener.none());
+
+        assertFalse(importer.usesCopy());
+        assertEquals(USERS, result.records());
+        assertEquals(0, result.rejected());
+        assertEquals(USERS, countUsers());
+        assertFalse(Files.exists(UserImporter.rejectsFile(file)));
+    }
+
+    @Test
+    void testInterruptedImportResumesFromCheckpoint() throws Exception {
+        Path file = writeCsv(USERS);
+        Path checkpoint = BulkCli.checkpointFile(file);
+        UserImporter importer = new UserImporter(userDao, sessionFactory, 400, 2);
+
+        assertThrows(IllegalStateException.class, () -> importer.importFile(file, BulkFormat.CSV, checkpoint,
+                progress -> {
+                    throw new IllegalStateException("Simulated crash after " + progress.records());
+                }));
+        assertTrue(Files.exists(checkpoint));
+        long imported = countUsers();
+        assertTrue(imported > 0 && imported < USERS);
+
+        TransferResult resumed = importer.importFile(file, BulkFormat.CSV, checkpoint, ProgressListener.none());
+
+        assertEquals(USERS - imported, resumed.records());
+        assertEquals(USERS, countUsers());
+        assertFalse(Files.exists(checkpoint));
+    }
+
+    @Test
+    void testExportRoundTripsAndResumes() throws Exception {
+        new UserImporter(userDao, sessionFactory).importFile(writeCsv(USERS), BulkFormat.CSV, null,
+                ProgressListener.none());
+        Path file = directory.resolve("export.jsonl");
+        Path checkpoint = BulkCli.checkpointFile(file);
+        UserExporter exporter = new UserExporter(userDao, 1000);
+
+        assertThrows(RuntimeException.class, () -> exporter.export(file, BulkFormat.JSON, checkpoint, progress -> {
+            throw new IllegalStateException("Simulated crash");
+        }));
+        assertTrue(Files.exists(checkpoint));
+        TransferResult resumed = exporter.export(file, BulkFormat.JSON, checkpoint, ProgressListener.none());
+
+        assertEquals(USERS - 1000, resumed.records());
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        assertEquals(USERS, lines.size());
+        List<Long> ids = new ArrayList<>();
+        for (String line : lines) {
+            ids.add(Long.valueOf(JsonLinesCodec.parseObject(line).get("id")));
+            assertNotNull(JsonLinesCodec.INSTANCE.parser(null).apply(line).createdAt());
+        }
+        for (int i = 1; i < ids.size(); i++) {
+            assertTrue(ids.get(i) > ids.get(i - 1), "Ids must be exported once, in order");
+        }
+    }
+
+    @Test
+    void testProcessorWorkersAreBoundedByThePool() throws Exception {
+        new UserImporter(userDao, sessionFactory).importFile(writeCsv(USERS), BulkFormat.CSV, null,
+                ProgressListener.none());
+        // The test pool holds 8 connections, two of which stay with the rest of the application
+        UserProcessor processor = new UserProcessor(userDao, List.of(sessionFactory), 32, 100);
+
+        TransferResult result = processor.forEachUser(user -> {
+        }, null, ProgressListener.none());
+
+        assertEquals(6, processor.parallelism());
+        assertEquals(USERS, result.records());
+    }
+
+    private Path writeCsv(int count) throws Exception {
+        Path file = directory.resolve("users-" + System.nanoTime() + ".csv");
+        List<String> lines = new ArrayList<>(count + 1);
+        lines.add("name,email,age");
+        for (int i = 0; i < count; i++) {
+            lines.add("\"User, " + i + "\",user" + i + "@mail.com," + (18 + i % 60));
+        }
+        Files.write(file, lines, StandardCharsets.UTF_8);
+        return file;
+    }
+
+    private long countCreateEvents() {
+        try (Session session = sessionFactory.openSession()) {
+            return session.createSelectionQuery("SELECT count(e) FROM OutboxEvent e WHERE e.type = :type", Long.class)
+                    .setParameter("type", ChangeType.CREATE)
+                    .getSingleResult();
+        }
+    }
+
+    private long countUsers() {
+        try (Session session = sessionFactory.openSession()) {
+            return session.createSelectionQuery("SELECT count(u) FROM User u", Long.class).getSingleResult();
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.userservice.bulk;
+
+import com.userservice.dao.InMemoryUserDao;
+import com.userservice.model.IdRange;
+import com.userservice.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UserProcessorTest {
+
+    private static final int USERS = 500;
+
+    @TempDir
+    Path directory;
+
+    private final InMemoryUserDao userDao = new InMemoryUserDao();
+    private List<Long> ids;
+
+    @BeforeEach
+    void seed() {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            users.add(new User("User " + i, "user" + i + "@mail.com", 20 + i % 50));
+        }
+        ids = userDao.saveAll(users).stream().map(User::getId).toList();
+        // Gaps in the id range, so partitions hold different numbers of users
+        userDao.deleteAllById(ids.subList(100, 220));
+        ids = userDao.findAll().stream().map(User::getId).toList();
+    }
+
+    @Test
+    void idRange_splitsIntoNearlyEqualParts() {
+        assertEquals(List.of(new IdRange(1, 4), new IdRange(5, 7), new IdRange(8, 10)), new IdRange(1, 10).split(3));
+        assertEquals(List.of(new IdRange(5, 5), new IdRange(6, 6)), new IdRange(5, 6).split(4));
+    }
+
+    @Test
+    void forEachUser_visitsEveryUserOnce() {
+        Map<Long, Integer> visits = new ConcurrentHashMap<>();
+        List<TransferProgress> progress = new CopyOnWriteArrayList<>();
+        Path checkpoint = directory.resolve("job.checkpoint");
+
+        TransferResult result = new UserProcessor(userDao, 4, 25)
+                .forEachUser(user -> visits.merge(user.getId(), 1, Integer::sum), checkpoint, progress::add);
+
+        assertEquals(ids.size(), result.records());
+        assertEquals(Set.copyOf(ids), visits.keySet());
+        assertTrue(visits.values().stream().allMatch(count -> count == 1));
+        assertEquals(100.0, progress.stream().mapToDouble(TransferProgress::percent).max().orElseThrow());
+        assertEquals(ids.size(), progress.stream().mapToLong(TransferProgress::records).max().orElseThrow());
+        assertFalse(Files.exists(checkpoint));
+    }
+
+    @Test
+    void forEachUser_afterFailure_resumesFromPartitionCheckpoints() {
+        Path checkpoint = directory.resolve("job.checkpoint");
+        Set<Long> firstRun = ConcurrentHashMap.newKeySet();
+        long failingId = ids.get(ids.size() - 30);
+        UserProcessor processor = new UserProcessor(userDao, 2, 10);
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> processor.forEachUser(user -> {
+            if (user.getId() == failingId) {
+                throw new IllegalStateException("Enrichment failed");
+            }
+            firstRun.add(user.getId());
+        }, checkpoint, ProgressListener.none()));
+        assertEquals("Enrichment failed", e.getMessage());
+        assertTrue(Files.exists(checkpoint));
+
+        User late = userDao.save(new User("Late", "late@mail.com", 30));
+        Set<Long> secondRun = ConcurrentHashMap.newKeySet();
+        TransferResult result = processor.forEachUser(user -> secondRun.add(user.getId()), checkpoint,
+                ProgressListener.none());
+
+        assertTrue(secondRun.contains(failingId));
+        assertEquals(Set.copyOf(ids), Stream.concat(firstRun.stream(), secondRun.stream()).collect(Collectors.toSet()));
+        assertTrue(result.records() < ids.size(), "Partitions finished before the failure are not visited again");
+        assertFalse(secondRun.contains(late.getId()), "The resumed run keeps the id range of the first");
+        assertFalse(Files.exists(checkpoint));
+    }
+
+    @Test
+    void mapReduce_combinesPartitionsInIdOrder() {
+        UserProcessor processor = new UserProcessor(userDao, 3);
+        AtomicInteger reports = new AtomicInteger();
+
+        List<Long> visited = processor.mapReduce(user -> List.of(user.getId()), List.of(), (left, right) -> {
+            List<Long> joined = new ArrayList<>(left);
+            joined.addAll(right);
+            return joined;
+        }, progress -> reports.incrementAndGet());
+        long ages = processor.mapReduce(user -> (long) user.getAge(), 0L, Long::sum, ProgressListener.none());
+
+        assertEquals(ids, visited);
+        assertTrue(reports.get() > 0);
+        assertEquals(userDao.findAll().stream().mapToLong(User::getAge).sum(), ages);
+        assertEquals(0L, new UserProcessor(new InMemoryUserDao(), 3)
+                .mapReduce(user -> 1L, 0L, Long::sum, ProgressListener.none()));
+    }
+}
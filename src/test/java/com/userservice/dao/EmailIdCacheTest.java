@@ -0,0 +1,52 @@
+package com.userservice.dao;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EmailIdCacheTest {
+
+    private final EmailIdCache cache = new EmailIdCache(100, Duration.ofMinutes(1));
+
+    @Test
+    void put_thenGetId_returnsId() {
+        cache.put("a@mail.com", 1L);
+
+        assertEquals(1L, cache.getId("a@mail.com"));
+        assertNull(cache.getId("b@mail.com"));
+        assertNull(cache.getId(null));
+    }
+
+    @Test
+    void put_withNewEmailForSameId_dropsOldEmail() {
+        cache.put("old@mail.com", 1L);
+
+        cache.put("new@mail.com", 1L);
+
+        assertNull(cache.getId("old@mail.com"));
+        assertEquals(1L, cache.getId("new@mail.com"));
+    }
+
+    @Test
+    void evict_removesMappingById() {
+        cache.put("a@mail.com", 1L);
+        cache.put("b@mail.com", 2L);
+
+        cache.evict(1L);
+
+        assertNull(cache.getId("a@mail.com"));
+        assertEquals(2L, cache.getId("b@mail.com"));
+    }
+
+    @Test
+    void expiredEntries_areNotReturned() throws InterruptedException {
+        EmailIdCache shortLived = new EmailIdCache(100, Duration.ofMillis(10));
+        shortLived.put("a@mail.com", 1L);
+
+        Thread.sleep(50);
+
+        assertNull(shortLived.getId("a@mail.com"));
+    }
+}
@@ -0,0 +1,151 @@
+package com.userservice.dao;
+
+import com.userservice.model.User;
+import com.userservice.model.UserPatch;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Hammers one {@link InMemoryUserDao} from many threads and checks that no write is lost or duplicated. */
+public class InMemoryUserDaoConcurrencyTest {
+
+    private static final Logger logger = LogManager.getLogger(InMemoryUserDaoConcurrencyTest.class);
+
+    private static final int THREADS = 8;
+
+    private final InMemoryUserDao userDao = new InMemoryUserDao();
+    private final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void racingSaves_keepEveryEmailUnique() throws Exception {
+        int emails = 500;
+        AtomicInteger duplicates = new AtomicInteger();
+
+        runConcurrently(thread -> {
+            for (int i = 0; i < emails; i++) {
+                try {
+                    userDao.save(new User("User " + thread, "user" + i + "@mail.com", 30));
+                } catch (DuplicateEmailException e) {
+                    duplicates.incrementAndGet();
+                }
+            }
+        });
+
+        assertEquals(emails, userDao.findAll().size());
+        assertEquals(emails * (THREADS - 1), duplicates.get());
+        for (int i = 0; i < emails; i++) {
+            assertTrue(userDao.existsByEmail("user" + i + "@mail.com"));
+        }
+    }
+
+    @Test
+    void versionedIncrements_areNeverLost() throws Exception {
+        Long id = userDao.save(new User("Counter", "counter@mail.com", 0)).getId();
+        int incrementsPerThread = 1_000;
+        AtomicInteger conflicts = new AtomicInteger();
+
+        runConcurrently(thread -> {
+            for (int i = 0; i < incrementsPerThread; ) {
+                User current = userDao.findById(id).orElseThrow();
+                // Widens the read-modify-write window so conflicts happen even on few cores
+                Thread.yield();
+                try {
+                    userDao.patch(id, current.getVersion(), new UserPatch(null, null, current.getAge() + 1));
+                    i++;
+                } catch (OptimisticLockConflictException e) {
+                    conflicts.incrementAndGet();
+                }
+            }
+        });
+
+        User counter = userDao.findById(id).orElseThrow();
+        assertEquals(THREADS * incrementsPerThread, counter.getAge());
+        assertEquals(THREADS * incrementsPerThread, counter.getVersion());
+        logger.info("{} increments, {} version conflicts", counter.getAge(), conflicts.get());
+    }
+
+    @Test
+    void emailChurn_keepsIndexConsistentWithRows() throws Exception {
+        int users = 20;
+        int emails = 30;
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < users; i++) {
+            ids.add(userDao.save(new User("User " + i, "user" + i + "@mail.com", 30)).getId());
+        }
+
+        runConcurrently(thread -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < 20_000; i++) {
+                Long id = ids.get(random.nextInt(users));
+                String email = "user" + random.nextInt(emails) + "@mail.com";
+                try {
+                    if (random.nextBoolean()) {
+                        userDao.patch(id, new UserPatch(null, email, null));
+                    } else {
+                        User user = userDao.findById(id).orElseThrow();
+                        userDao.update(new User(id, user.getName(), email, user.getAge(), null));
+                    }
+                } catch (DuplicateEmailException e) {
+                    // Expected when the email belongs to another user
+                }
+            }
+        });
+
+        Set<String> held = new HashSet<>();
+        for (User user : userDao.findAll()) {
+            assertTrue(held.add(user.getEmail()), "Email held twice: " + user.getEmail());
+            assertEquals(user.getId(), userDao.findByEmail(user.getEmail()).orElseThrow().getId());
+        }
+        for (int i = 0; i < emails; i++) {
+            String email = "user" + i + "@mail.com";
+            assertEquals(held.contains(email), userDao.existsByEmail(email), email);
+            if (!held.contains(email)) {
+                // A leaked reservation would make the free email look taken
+                assertNotNull(userDao.save(new User("Free", email, 30)).getId());
+            }
+        }
+    }
+
+    private void runConcurrently(ThreadTask task) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Void>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            Callable<Void> callable = () -> {
+                start.await();
+                task.run(thread);
+                return null;
+            };
+            futures.add(executor.submit(callable));
+        }
+        start.countDown();
+        for (Future<Void> future : futures) {
+            future.get();
+        }
+    }
+
+    @FunctionalInterface
+    private interface ThreadTask {
+        void run(int thread) throws Exception;
+    }
+}
@@ -0,0 +1,31 @@
+package com.userservice.dao;
+
+import com.userservice.model.User;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InMemoryUserDaoTest extends UserDaoContractTest {
+
+    @Override
+    protected UserDao createDao() {
+        return new InMemoryUserDao();
+    }
+
+    @Test
+    void copyOf_keepsIdsAndVersionsAndContinuesTheSequence() {
+        User alice = userDao.save(new User("Alice", "alice@mail.com", 30));
+        userDao.update(new User(alice.getId(), "Alicia", "alice@mail.com", 30, null));
+
+        InMemoryUserDao copy = InMemoryUserDao.copyOf(userDao);
+        User next = copy.save(new User("Bob", "bob@mail.com", 40));
+
+        User copied = copy.findById(alice.getId()).orElseThrow();
+        assertEquals("Alicia", copied.getName());
+        assertEquals(1L, copied.getVersion());
+        assertTrue(next.getId() > alice.getId());
+        assertEquals(List.of(alice.getId()), userDao.findAll().stream().map(User::getId).toList());
+    }
+}
@@ -0,0 +1,112 @@
+package com.userservice.dao;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.exception.JDBCConnectionException;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+public class ReplicaRouterTest {
+
+    private static final Duration STICKINESS = Duration.ofSeconds(2);
+    private static final Duration RETRY = Duration.ofSeconds(30);
+
+    private final SessionFactory primary = mock(SessionFactory.class);
+    private final SessionFactory replica = mock(SessionFactory.class);
+    private final MutableClock clock = new MutableClock();
+    private final ReplicaRouter router = new ReplicaRouter(() -> primary, () -> replica, STICKINESS, RETRY, clock);
+
+    @Test
+    void read_usesReplica() {
+        assertSame(replica, router.read(Function.identity()));
+    }
+
+    @Test
+    void read_withoutReplica_usesPrimary() {
+        ReplicaRouter primaryOnly = new ReplicaRouter(() -> primary);
+        primaryOnly.writeCompleted();
+
+        assertSame(primary, primaryOnly.read(Function.identity()));
+        assertFalse(primaryOnly.isReplicaAvailable());
+    }
+
+    @Test
+    void read_afterWrite_staysOnPrimaryForStickinessWindow() {
+        router.writeCompleted();
+        assertSame(primary, router.read(Function.identity()));
+
+        clock.advance(STICKINESS.minusMillis(1));
+        assertSame(primary, router.read(Function.identity()));
+
+        clock.advance(Duration.ofMillis(1));
+        assertSame(replica, router.read(Function.identity()));
+    }
+
+    @Test
+    void read_afterWriteOnAnotherThread_usesReplica() throws Exception {
+        Thread writer = new Thread(router::writeCompleted);
+        writer.start();
+        writer.join();
+
+        assertSame(replica, router.read(Function.identity()));
+    }
+
+    @Test
+    void read_ofUserWrittenOnAnotherThread_staysOnPrimaryForStickinessWindow() throws Exception {
+        Thread writer = new Thread(() -> router.writeCompleted(List.of(7L)));
+        writer.start();
+        writer.join();
+
+        assertSame(primary, router.read(List.of(7L), Function.identity()));
+        assertSame(replica, router.read(List.of(8L), Function.identity()));
+        assertSame(replica, router.read(Function.identity()));
+
+        clock.advance(STICKINESS);
+        assertSame(replica, router.read(List.of(7L), Function.identity()));
+    }
+
+    @Test
+    void read_whenReplicaUnreachable_fallsBackAndRetriesAfterInterval() {
+        SessionFactory used = router.read(factory -> {
+            if (factory == replica) {
+                throw new JDBCConnectionException("Unable to acquire JDBC Connection",
+                        new SQLTransientConnectionException("replica - Connection is not available"));
+            }
+            return factory;
+        });
+
+        assertSame(primary, used);
+        assertFalse(router.isReplicaAvailable());
+        assertSame(primary, router.read(Function.identity()));
+
+        clock.advance(RETRY);
+        assertTrue(router.isReplicaAvailable());
+        assertSame(replica, router.read(Function.identity()));
+    }
+
+    @Test
+    void read_whenReplicaFailsToStart_usesPrimary() {
+        ReplicaRouter broken = new ReplicaRouter(() -> primary, () -> {
+            throw new IllegalStateException("Connection refused");
+        }, STICKINESS, RETRY, clock);
+
+        assertSame(primary, broken.read(Function.identity()));
+        assertFalse(broken.isReplicaAvailable());
+    }
+
+    @Test
+    void read_rethrowsQueryErrorsWithoutFallback() {
+        IllegalArgumentException error = new IllegalArgumentException("Bad query");
+
+        assertSame(error, assertThrows(IllegalArgumentException.class, () -> router.read(factory -> {
+            throw error;
+        })));
+        assertTrue(router.isReplicaAvailable());
+    }
+}
@@ -0,0 +1,222 @@
+package com.userservice.dao;
+
+import com.userservice.model.User;
+import com.userservice.model.UserPatch;
+import com.userservice.model.UserSummary;
+import com.userservice.util.SessionFactoryHolder;
+import com.userservice.util.TestHibernateUtil;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Two independent PostgreSQL instances stand in for a primary and its replica: rows only reach the replica when
+ * the test copies them, which makes replication lag and the routing of each read observable.
+ */
+@Testcontainers
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class ReplicaRoutingIT {
+
+    private static final String CONFIG = "test-hibernate.cfg.xml";
+    private static final Duration STICKINESS = Duration.ofSeconds(2);
+    private static final Duration RETRY = Duration.ofSeconds(30);
+
+    @Container
+    private static final PostgreSQLContainer<?> primary = new PostgreSQLContainer<>("postgres:15.2")
+            .withDatabaseName("testdb")
+            .withUsername("test")
+            .withPassword("test");
+
+    @Container
+    private static final PostgreSQLContainer<?> replica = new PostgreSQLContainer<>("postgres:15.2")
+            .withDatabaseName("testdb")
+            .withUsername("test")
+            .withPassword("test");
+
+    // Owns the replica's schema and plays the replication stream
+    private SessionFactory replicaAdmin;
+    private SessionFactoryHolder primaryHolder;
+    private SessionFactoryHolder replicaHolder;
+    private MutableClock clock;
+    private UserDao userDao;
+
+    @BeforeAll
+    void setUpAll() {
+        System.setProperty("hibernate.connection.url", primary.getJdbcUrl());
+        System.setProperty("hibernate.connection.username", primary.getUsername());
+        System.setProperty("hibernate.connection.password", primary.getPassword());
+        replicaAdmin = TestHibernateUtil.buildSessionFactory(Map.of(
+                "hibernate.connection.url", replica.getJdbcUrl(),
+                "hibernate.cache.use_second_level_cache", false,
+                "hibernate.cache.use_query_cache", false));
+    }
+
+    @AfterAll
+    void tearDownAll() {
+        replicaAdmin.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        primaryHolder = new SessionFactoryHolder(CONFIG, Map.of(
+                SessionFactoryHolder.REPLICA_URL_SETTING, replica.getJdbcUrl(),
+                "hibernate.show_sql", false));
+        replicaHolder = primaryHolder.replica();
+        clock = new MutableClock();
+        userDao = new UserDaoImpl(new ReplicaRouter(primaryHolder, replicaHolder, STICKINESS, RETRY, clock),
+                primaryHolder.settings());
+        try (Session session = replicaAdmin.openSession()) {
+            Transaction tx = session.beginTransaction();
+            session.createMutationQuery("DELETE FROM User").executeUpdate();
+            tx.commit();
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        replicaHolder.close();
+        // create-drop: the primary starts from an empty schema in every test
+        primaryHolder.close();
+    }
+
+    @Test
+    void testReadsGoToReplicaExceptRightAfterWrites() {
+        User saved = userDao.save(new User("Alice", "alice@mail.com", 30));
+
+        // Read-your-writes: the replica hasn't seen the row yet, so the read must come from the primary
+        assertEquals(List.of(saved.getId()), ids(userDao.findPage(null, 10)));
+
+        clock.advance(STICKINESS);
+        assertTrue(userDao.findPage(null, 10).isEmpty(), "Outside the window reads are served by the lagging replica");
+        assertTrue(userDao.findSummaryById(saved.getId()).isEmpty());
+        assertTrue(userDao.findById(saved.getId()).isPresent(), "Users cached on the primary don't need a query");
+
+        replicate(saved);
+
+        assertEquals(List.of(saved.getId()), ids(userDao.findPage(null, 10)));
+        assertEquals(new UserSummary(saved.getId(), "Alice", "alice@mail.com"),
+                userDao.findSummaryById(saved.getId()).orElseThrow());
+    }
+
+    @Test
+    void testWriteOnAnotherThreadLeavesReadsOnReplica() throws Exception {
+        Thread writer = new Thread(() -> userDao.save(new User("Alice", "alice@mail.com", 30)));
+        writer.start();
+        writer.join();
+
+        assertTrue(userDao.findPage(null, 10).isEmpty(), "Only the writing thread reads from the primary");
+    }
+
+    @Test
+    void testUserWrittenOnAnotherThreadIsReadFromPrimary() throws Exception {
+        AtomicReference<User> saved = new AtomicReference<>();
+        Thread writer = new Thread(() -> saved.set(userDao.save(new User("Alice", "alice@mail.com", 30))));
+        writer.start();
+        writer.join();
+        Long id = saved.get().getId();
+
+        assertTrue(userDao.findSummaryById(id).isPresent(), "Reads of a user just written go to the primary");
+        assertTrue(userDao.findPage(null, 10).isEmpty(), "Reads that aren't by id stay on the replica");
+
+        clock.advance(STICKINESS);
+        assertTrue(userDao.findSummaryById(id).isEmpty(), "After the window the lagging replica serves the user");
+    }
+
+    @Test
+    void testVersionConflictSendsRetryToPrimary() throws Exception {
+        User saved = userDao.save(new User("Alice", "alice@mail.com", 30));
+        replicate(saved);
+        clock.advance(STICKINESS);
+        Thread other = new Thread(() -> userDao.patch(saved.getId(), new UserPatch(null, null, 31)));
+        other.start();
+        other.join();
+        // The patched user no longer sticks to the primary, but the replica still lags
+        clock.advance(STICKINESS);
+
+        User stale = userDao.findById(saved.getId()).orElseThrow();
+        assertEquals(30, stale.getAge(), "The lagging replica still has the old row");
+        assertThrows(OptimisticLockConflictException.class,
+                () -> userDao.patch(saved.getId(), stale.getVersion(), new UserPatch(null, null, 32)));
+
+        User current = userDao.findById(saved.getId()).orElseThrow();
+        assertEquals(31, current.getAge(), "After a conflict the retry must read the primary");
+        assertEquals(1, userDao.patch(saved.getId(), current.getVersion(), new UserPatch(null, null, 32)));
+    }
+
+    @Test
+    void testReplicaOutageFallsBackToPrimary() {
+        try (PostgreSQLContainer<?> shortLived = new PostgreSQLContainer<>("postgres:15.2")
+                .withDatabaseName("testdb")
+                .withUsername("test")
+                .withPassword("test")) {
+            shortLived.start();
+            try (SessionFactoryHolder shortLivedReplica = new SessionFactoryHolder(CONFIG, Map.of(
+                    SessionFactoryHolder.REPLICA_URL_SETTING, shortLived.getJdbcUrl(),
+                    "hibernate.show_sql", false)).replica()) {
+                ReplicaRouter router = new ReplicaRouter(primaryHolder, shortLivedReplica, STICKINESS, RETRY, clock);
+                UserDao dao = new UserDaoImpl(router, primaryHolder.settings());
+                User saved = dao.save(new User("Bob", "bob@mail.com", 40));
+                clock.advance(STICKINESS);
+                // The replica has no schema, but any answer from it proves the read was routed there
+                assertThrows(RuntimeException.class, () -> dao.findPage(null, 10));
+
+                shortLived.stop();
+
+                assertEquals(List.of(saved.getId()), ids(dao.findPage(null, 10)));
+                assertFalse(router.isReplicaAvailable());
+            }
+        }
+    }
+
+    @Test
+    void testUnreachableReplicaAtStartupUsesPrimary() {
+        try (SessionFactoryHolder unreachable = new SessionFactoryHolder(CONFIG, Map.of(
+                SessionFactoryHolder.REPLICA_URL_SETTING, "jdbc:postgresql://localhost:1/testdb",
+                "hibernate.show_sql", false)).replica()) {
+            ReplicaRouter router = new ReplicaRouter(primaryHolder, unreachable, STICKINESS, RETRY, clock);
+            UserDao dao = new UserDaoImpl(router, primaryHolder.settings());
+            User saved = dao.save(new User("Carol", "carol@mail.com", 50));
+            clock.advance(STICKINESS);
+
+            assertEquals(List.of(saved.getId()), ids(dao.findPage(null, 10)));
+            assertFalse(router.isReplicaAvailable());
+            assertFalse(unreachable.isInitialized());
+        }
+    }
+
+    private void replicate(User user) {
+        try (Session session = replicaAdmin.openSession()) {
+            Transaction tx = session.beginTransaction();
+            session.createNativeMutationQuery(
+                            "INSERT INTO users (id, name, email, age, created_at, version) VALUES (?, ?, ?, ?, ?, ?)")
+                    .setParameter(1, user.getId())
+                    .setParameter(2, user.getName())
+                    .setParameter(3, user.getEmail())
+                    .setParameter(4, user.getAge())
+                    .setParameter(5, user.getCreatedAt())
+                    .setParameter(6, user.getVersion())
+                    .executeUpdate();
+            tx.commit();
+        }
+    }
+
+    private static List<Long> ids(List<User> users) {
+        return users.stream().map(User::getId).toList();
+    }
+}
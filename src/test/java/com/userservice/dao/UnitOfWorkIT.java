@@ -0,0 +1,191 @@
+package com.userservice.dao;
+
+import com.userservice.model.User;
+import com.userservice.model.UserPatch;
+import com.userservice.util.ConnectionPoolMetrics;
+import com.userservice.util.TestHibernateUtil;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.hibernate.stat.EntityStatistics;
+import org.junit.jupiter.api.*;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Testcontainers
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class UnitOfWorkIT {
+
+    @Container
+    private static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15.2")
+            .withDatabaseName("testdb")
+            .withUsername("test")
+            .withPassword("test");
+
+    private SessionFactory sessionFactory;
+    private UnitOfWork unitOfWork;
+    private UserDao userDao;
+
+    @BeforeAll
+    void setUpAll() {
+        System.setProperty("hibernate.connection.url", postgres.getJdbcUrl());
+        System.setProperty("hibernate.connection.username", postgres.getUsername());
+        System.setProperty("hibernate.connection.password", postgres.getPassword());
+        sessionFactory = TestHibernateUtil.getSessionFactory();
+        unitOfWork = new UnitOfWork(sessionFactory);
+    }
+
+    @AfterAll
+    void tearDownAll() {
+        TestHibernateUtil.shutdown();
+    }
+
+    @BeforeEach
+    void cleanDatabase() {
+        try (Session session = sessionFactory.openSession()) {
+            Transaction tx = session.beginTransaction();
+            session.createMutationQuery("DELETE FROM User").executeUpdate();
+            session.createMutationQuery("DELETE FROM OutboxEvent").executeUpdate();
+            tx.commit();
+        }
+        sessionFactory.getCache().evictAllRegions();
+        // A fresh DAO, so the email cache doesn't remember users of earlier tests
+        userDao = new UserDaoImpl(sessionFactory);
+    }
+
+    private long connectionsAcquired() {
+        return ConnectionPoolMetrics.snapshot(sessionFactory).orElseThrow().connectionsAcquired();
+    }
+
+    private long count(String entity) {
+        try (Session session = sessionFactory.openSession()) {
+            return session.createQuery("SELECT count(e) FROM " + entity + " e", Long.class).getSingleResult();
+        }
+    }
+
+    @Test
+    void testDaoCallsShareOneConnectionAndTransaction() {
+        long before = connectionsAcquired();
+
+        User saved = userDao.inTransaction(() -> {
+            assertFalse(userDao.existsByEmail("ann@mail.com"));
+            User ann = userDao.save(new User("Ann", "ann@mail.com", 30));
+            // Sees its own uncommitted write
+            assertEquals(ann.getId(), userDao.findByEmail("ann@mail.com").orElseThrow().getId());
+            userDao.patch(ann.getId(), new UserPatch("Anna", null, null));
+            assertEquals("Anna", ann.getName(), "The patch refreshes the user the unit already holds");
+            assertEquals(1, userDao.findPage(null, 10).size());
+            return ann;
+        });
+
+        assertEquals(1, connectionsAcquired() - before);
+        assertEquals("Anna", userDao.findById(saved.getId()).orElseThrow().getName());
+        assertEquals(2, count("OutboxEvent"));
+    }
+
+    @Test
+    void testFailureRollsBackEveryCall() {
+        assertThrows(IllegalStateException.class, () -> userDao.inTransaction(() -> {
+            userDao.save(new User("Ann", "ann@mail.com", 30));
+            userDao.save(new User("Bob", "bob@mail.com", 40));
+            throw new IllegalStateException("Changed my mind");
+        }));
+
+        assertEquals(0, count("User"));
+        assertEquals(0, count("OutboxEvent"));
+        // Caches are only updated after a commit
+        assertFalse(userDao.existsByEmail("ann@mail.com"));
+    }
+
+    @Test
+    void testCaughtFailureOfJoinedCallStillRollsBack() {
+        User ann = userDao.save(new User("Ann", "ann@mail.com", 30));
+
+        assertThrows(DataAccessException.class, () -> userDao.inTransaction(() -> {
+            userDao.save(new User("Bob", "bob@mail.com", 40));
+            assertThrows(DataAccessException.class,
+                    () -> userDao.update(new User(-1L, "Nobody", "nobody@mail.com", 50, null)));
+            return null;
+        }));
+
+        assertEquals(List.of(ann.getId()), userDao.findAll().stream().map(User::getId).toList());
+    }
+
+    @Test
+    void testRequiresNewCommitsOnItsOwn() {
+        assertThrows(IllegalStateException.class, () -> unitOfWork.execute(outer -> {
+            userDao.save(new User("Ann", "ann@mail.com", 30));
+            unitOfWork.execute(UnitOfWork.Propagation.REQUIRES_NEW, false, inner -> {
+                assertNotSame(outer, inner);
+                return userDao.save(new User("Audit", "audit@mail.com", 40));
+            });
+            throw new IllegalStateException("Outer work failed");
+        }));
+
+        assertTrue(userDao.findByEmail("audit@mail.com").isPresent());
+        assertTrue(userDao.findByEmail("ann@mail.com").isEmpty());
+    }
+
+    @Test
+    void testReadOnlyWorkIsNotFlushedAndRejectsWrites() {
+        User ann = userDao.save(new User("Ann", "ann@mail.com", 30));
+
+        userDao.inReadOnlyTransaction(() -> {
+            User loaded = userDao.findById(ann.getId()).orElseThrow();
+            loaded.setName("Changed in memory only");
+            return null;
+        });
+        DataAccessException e = assertThrows(DataAccessException.class,
+                () -> unitOfWork.readOnly(session -> userDao.save(new User("Bob", "bob@mail.com", 40))));
+
+        assertInstanceOf(IllegalStateException.class, e.getCause());
+        assertEquals("Ann", userDao.findById(ann.getId()).orElseThrow().getName());
+        assertTrue(userDao.findByEmail("bob@mail.com").isEmpty());
+    }
+
+    @Test
+    void testFlushFailuresAreTranslated() {
+        userDao.save(new User("Ann", "ann@mail.com", 30));
+
+        assertThrows(DuplicateEmailException.class, () -> unitOfWork.execute(session -> {
+            User copy = new User("Copy", "copy@mail.com", 30);
+            session.persist(copy);
+            session.flush();
+            copy.setEmail("ann@mail.com");
+            return copy;
+        }));
+        assertThrows(OptimisticLockConflictException.class, () -> unitOfWork.execute(session -> {
+            User ann = session.createQuery("FROM User", User.class).getSingleResult();
+            unitOfWork.execute(UnitOfWork.Propagation.REQUIRES_NEW, false,
+                    inner -> userDao.patch(ann.getId(), new UserPatch("Concurrent", null, null)));
+            ann.setName("Stale");
+            return ann;
+        }));
+        assertEquals("Concurrent", userDao.findByEmail("ann@mail.com").orElseThrow().getName());
+    }
+
+    @Test
+    void testReadDuringPatchDoesNotCacheTheOldRow() {
+        User ann = userDao.save(new User("Ann", "ann@mail.com", 30));
+        sessionFactory.getCache().evictAllRegions();
+        EntityStatistics statistics = sessionFactory.getStatistics().getEntityStatistics(User.class.getName());
+
+        userDao.inTransaction(() -> {
+            userDao.patch(ann.getId(), new UserPatch(null, null, 31));
+            long puts = statistics.getCachePutCount();
+            // Outside the unit the patch isn't committed yet
+            int age = CompletableFuture.supplyAsync(() -> userDao.findById(ann.getId()).orElseThrow().getAge()).join();
+            assertEquals(30, age);
+            assertEquals(puts, statistics.getCachePutCount(), "The patched user is locked in the cache");
+            return null;
+        });
+
+        assertEquals(31, userDao.findById(ann.getId()).orElseThrow().getAge());
+    }
+}
@@ -0,0 +1,300 @@
+package com.userservice.dao;
+
+import com.userservice.model.IdRange;
+import com.userservice.model.PageRequest;
+import com.userservice.model.User;
+import com.userservice.model.UserPatch;
+import com.userservice.model.UserQuery;
+import com.userservice.model.UserSort;
+import com.userservice.model.UserStatistics;
+import com.userservice.model.UserSummary;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Behaviour every {@link UserDao} must share, run against {@link InMemoryUserDao} by {@link InMemoryUserDaoTest}
+ * and against {@link UserDaoImpl} on PostgreSQL by {@link UserDaoImplContractIT}.
+ */
+public abstract class UserDaoContractTest {
+
+    protected UserDao userDao;
+
+    /** A DAO over an empty store. */
+    protected abstract UserDao createDao();
+
+    @BeforeEach
+    void createEmptyDao() {
+        userDao = createDao();
+    }
+
+    @Test
+    void save_assignsIdAndVersion() {
+        User saved = userDao.save(new User("Alice", "alice@mail.com", 30));
+
+        assertNotNull(saved.getId());
+        assertEquals(0L, saved.getVersion());
+        User found = userDao.findById(saved.getId()).orElseThrow();
+        assertEquals("Alice", found.getName());
+        assertEquals("alice@mail.com", found.getEmail());
+        assertEquals(30, found.getAge());
+        assertNotNull(found.getCreatedAt());
+    }
+
+    @Test
+    void save_withTakenEmail_throwsDuplicateEmail() {
+        userDao.save(new User("Alice", "alice@mail.com", 30));
+
+        DuplicateEmailException e = assertThrows(DuplicateEmailException.class,
+                () -> userDao.save(new User("Other", "alice@mail.com", 40)));
+
+        assertEquals("alice@mail.com", e.getEmail());
+        assertEquals(1, userDao.findAll().size());
+        assertEquals("Alice", userDao.findByEmail("alice@mail.com").orElseThrow().getName());
+    }
+
+    @Test
+    void update_andPatch_toTakenEmail_throwDuplicateEmail() {
+        User alice = userDao.save(new User("Alice", "alice@mail.com", 30));
+        User bob = userDao.save(new User("Bob", "bob@mail.com", 40));
+
+        assertThrows(DuplicateEmailException.class,
+                () -> userDao.update(new User(bob.getId(), "Bob", "alice@mail.com", 40, null)));
+        assertThrows(DuplicateEmailException.class,
+                () -> userDao.patch(bob.getId(), new UserPatch(null, "alice@mail.com", null)));
+
+        assertEquals(alice.getId(), userDao.findByEmail("alice@mail.com").orElseThrow().getId());
+        assertEquals("bob@mail.com", userDao.findById(bob.getId()).orElseThrow().getEmail());
+    }
+
+    @Test
+    void saveAll_withTakenEmail_savesNothing() {
+        userDao.save(new User("Alice", "alice@mail.com", 30));
+
+        assertThrows(DuplicateEmailException.class, () -> userDao.saveAll(List.of(
+                new User("Bob", "bob@mail.com", 40),
+                new User("Copy", "alice@mail.com", 50))));
+
+        assertEquals(1, userDao.findAll().size());
+        assertFalse(userDao.existsByEmail("bob@mail.com"));
+    }
+
+    @Test
+    void deletedEmail_canBeReused() {
+        User alice = userDao.save(new User("Alice", "alice@mail.com", 30));
+
+        assertEquals(1, userDao.deleteById(alice.getId()));
+        assertEquals(0, userDao.deleteById(alice.getId()));
+
+        assertFalse(userDao.existsByEmail("alice@mail.com"));
+        assertNotNull(userDao.save(new User("New Alice", "alice@mail.com", 20)).getId());
+    }
+
+    @Test
+    void findByEmail_followsEmailChanges() {
+        User alice = userDao.save(new User("Alice", "alice@mail.com", 30));
+
+        assertEquals(1, userDao.patch(alice.getId(), new UserPatch(null, "new@mail.com", null)));
+
+        assertTrue(userDao.findByEmail("alice@mail.com").isEmpty());
+        assertFalse(userDao.existsByEmail("alice@mail.com"));
+        assertEquals(alice.getId(), userDao.findByEmail("new@mail.com").orElseThrow().getId());
+        // The old email is free again
+        assertNotNull(userDao.save(new User("Other", "alice@mail.com", 40)).getId());
+    }
+
+    @Test
+    void findById_missing_isEmpty() {
+        assertTrue(userDao.findById(Long.MAX_VALUE).isEmpty());
+        assertTrue(userDao.findSummaryById(Long.MAX_VALUE).isEmpty());
+        assertTrue(userDao.findByEmail("nobody@mail.com").isEmpty());
+    }
+
+    @Test
+    void returnedUsers_areDetached() {
+        User alice = userDao.save(new User("Alice", "alice@mail.com", 30));
+
+        userDao.findById(alice.getId()).orElseThrow().setName("Changed");
+
+        assertEquals("Alice", userDao.findById(alice.getId()).orElseThrow().getName());
+    }
+
+    @Test
+    void findAllByIds_preservesOrderAndSkipsMissing() {
+        List<User> users = saveUsers(3);
+
+        List<User> found = userDao.findAllByIds(List.of(users.get(2).getId(), Long.MAX_VALUE, users.get(0).getId()));
+
+        assertEquals(List.of(users.get(2).getId(), users.get(0).getId()), ids(found));
+        assertTrue(userDao.findAllByIds(List.of()).isEmpty());
+    }
+
+    @Test
+    void pagesAndStreams_areOrderedById() {
+        List<User> users = saveUsers(5);
+        List<Long> expected = ids(users);
+
+        List<User> first = userDao.findPage(null, 3);
+        List<User> second = userDao.findPage(first.get(2).getId(), 3);
+
+        assertEquals(expected.subList(0, 3), ids(first));
+        assertEquals(expected.subList(3, 5), ids(second));
+        assertEquals(expected.subList(2, 5),
+                userDao.findSummaryPage(first.get(1).getId(), 10).stream().map(UserSummary::id).toList());
+        try (Stream<User> stream = userDao.streamAll()) {
+            assertEquals(expected, ids(stream.toList()));
+        }
+        try (Stream<UserSummary> stream = userDao.streamSummaries()) {
+            assertEquals(new UserSummary(users.get(0).getId(), "User 0", "user0@mail.com"), stream.findFirst().get());
+        }
+    }
+
+    @Test
+    void search_filtersAndPagesInSortOrder() {
+        for (int i = 0; i < 6; i++) {
+            userDao.save(new User((i % 2 == 0 ? "Alice " : "Bob ") + i, "user" + i + "@mail.com", 20 + i / 2));
+        }
+        userDao.save(new User("alice_", "lower@mail.com", 99));
+        UserQuery query = UserQuery.builder().namePrefix("ALICE").maxAge(50).build();
+
+        List<User> first = userDao.search(query, PageRequest.first(UserSort.AGE, true, 2));
+        List<User> second = userDao.search(query, PageRequest.first(UserSort.AGE, true, 2).after(first.get(1)));
+
+        assertEquals(List.of("Alice 4", "Alice 2"), first.stream().map(User::getName).toList());
+        assertEquals(List.of("Alice 0"), second.stream().map(User::getName).toList());
+    }
+
+    @Test
+    void update_bumpsVersionAndKeepsCreatedAt() {
+        User alice = userDao.save(new User("Alice", "alice@mail.com", 30));
+
+        User updated = userDao.update(new User(alice.getId(), "Alicia", "alice@mail.com", 31, null));
+
+        assertEquals(1L, updated.getVersion());
+        User found = userDao.findById(alice.getId()).orElseThrow();
+        assertEquals("Alicia", found.getName());
+        assertEquals(31, found.getAge());
+        assertNotNull(found.getCreatedAt());
+    }
+
+    @Test
+    void update_withStaleVersion_conflicts() {
+        User saved = userDao.save(new User("Original", "original@mail.com", 30));
+        User first = userDao.findById(saved.getId()).orElseThrow();
+        User second = userDao.findById(saved.getId()).orElseThrow();
+        first.setName("First");
+        userDao.update(first);
+        second.setName("Second");
+
+        assertThrows(OptimisticLockConflictException.class, () -> userDao.update(second));
+        assertEquals("First", userDao.findById(saved.getId()).orElseThrow().getName());
+    }
+
+    @Test
+    void update_missingUser_fails() {
+        UserNotFoundException error = assertThrows(UserNotFoundException.class,
+                () -> userDao.update(new User(Long.MAX_VALUE, "Nobody", "nobody@mail.com", 30, null)));
+        assertEquals(Long.MAX_VALUE, error.getId());
+    }
+
+    @Test
+    void patch_withExpectedVersion() {
+        User saved = userDao.save(new User("Original", "original@mail.com", 30));
+        long version = saved.getVersion();
+
+        assertEquals(1, userDao.patch(saved.getId(), version, new UserPatch("First", null, null)));
+        assertThrows(OptimisticLockConflictException.class,
+                () -> userDao.patch(saved.getId(), version, new UserPatch("Second", null, null)));
+        assertEquals(0, userDao.patch(Long.MAX_VALUE, version, new UserPatch("Nobody", null, null)));
+        assertEquals(0, userDao.patch(Long.MAX_VALUE, new UserPatch("Nobody", null, null)));
+        assertThrows(IllegalArgumentException.class,
+                () -> userDao.patch(saved.getId(), new UserPatch(null, null, null)));
+
+        User found = userDao.findById(saved.getId()).orElseThrow();
+        assertEquals("First", found.getName());
+        assertEquals(30, found.getAge());
+        assertEquals(version + 1, found.getVersion());
+    }
+
+    @Test
+    void updateAll_andDeleteAllById() {
+        List<User> users = saveUsers(3);
+        users.forEach(user -> user.setAge(user.getAge() + 10));
+
+        userDao.updateAll(users);
+
+        assertEquals(List.of(30, 31, 32), userDao.findAll().stream().map(User::getAge).sorted().toList());
+        assertEquals(2, userDao.deleteAllById(List.of(users.get(0).getId(), users.get(1).getId(), Long.MAX_VALUE)));
+        assertEquals(List.of(users.get(2).getId()), ids(userDao.findAll()));
+    }
+
+    @Test
+    void updateAll_unknownId_updatesNothing() {
+        List<User> users = saveUsers(2);
+        users.forEach(user -> user.setAge(user.getAge() + 10));
+        User unknown = new User(Long.MAX_VALUE, "Nobody", "nobody@mail.com", 30, null);
+        List<User> batch = List.of(users.get(0), unknown, users.get(1));
+
+        UserNotFoundException error = assertThrows(UserNotFoundException.class, () -> userDao.updateAll(batch));
+
+        assertEquals(Long.MAX_VALUE, error.getId());
+        assertEquals(List.of(20, 21), userDao.findAll().stream().map(User::getAge).sorted().toList());
+        assertTrue(userDao.findByEmail("nobody@mail.com").isEmpty());
+    }
+
+    @Test
+    void findIdRange_andStreamRange() {
+        assertTrue(userDao.findIdRange().isEmpty());
+        List<User> users = saveUsers(5);
+        List<Long> expected = ids(users);
+
+        IdRange range = userDao.findIdRange().orElseThrow();
+
+        assertEquals(new IdRange(expected.get(0), expected.get(4)), range);
+        try (Stream<User> stream = userDao.streamRange(new IdRange(expected.get(1), expected.get(3)))) {
+            assertEquals(expected.subList(1, 4), ids(stream.toList()));
+        }
+        try (Stream<User> stream = userDao.streamRange(new IdRange(range.last() + 1, range.last() + 10))) {
+            assertEquals(0, stream.count());
+        }
+    }
+
+    @Test
+    void statistics_countByAgeAndSignupDay() {
+        userDao.save(new User(null, "Before", "before@mail.com", 25, LocalDateTime.of(2023, 12, 31, 23, 59)));
+        userDao.save(new User(null, "Morning", "morning@mail.com", 30, LocalDateTime.of(2024, 1, 1, 8, 0)));
+        userDao.save(new User(null, "Midnight", "midnight@mail.com", 34, LocalDateTime.of(2024, 1, 1, 23, 59, 59)));
+        userDao.save(new User(null, "Later", "later@mail.com", 41, LocalDateTime.of(2024, 1, 3, 0, 0)));
+
+        UserStatistics statistics = userDao.statistics(LocalDate.of(2024, 1, 1));
+
+        assertEquals(4, statistics.totalUsers());
+        assertEquals(Map.of(25, 1L, 30, 1L, 34, 1L, 41, 1L), statistics.usersByAge());
+        assertEquals(Map.of(20, 1L, 30, 2L, 40, 1L), statistics.ageHistogram(10));
+        assertEquals(List.of(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 3)),
+                List.copyOf(statistics.signupsByDay().keySet()));
+        assertEquals(List.of(2L, 1L), List.copyOf(statistics.signupsByDay().values()));
+        assertNotNull(statistics.computedAt());
+        assertEquals(0, createDao().statistics(LocalDate.of(2024, 1, 1)).totalUsers());
+    }
+
+    private List<User> saveUsers(int count) {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            users.add(new User("User " + i, "user" + i + "@mail.com", 20 + i));
+        }
+        return userDao.saveAll(users);
+    }
+
+    private static List<Long> ids(List<User> users) {
+        return users.stream().map(User::getId).toList();
+    }
+}
@@ -0,0 +1,44 @@
+package com.userservice.dao;
+
+import com.userservice.util.TestHibernateUtil;
+import org.hibernate.Session;
+import org.hibernate.Transaction;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.TestInstance;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+@Testcontainers
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class UserDaoImplContractIT extends UserDaoContractTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15.2")
+            .withDatabaseName("testdb")
+            .withUsername("test")
+            .withPassword("test");
+
+    @BeforeAll
+    void setUpAll() {
+        System.setProperty("hibernate.connection.url", postgres.getJdbcUrl());
+        System.setProperty("hibernate.connection.username", postgres.getUsername());
+        System.setProperty("hibernate.connection.password", postgres.getPassword());
+    }
+
+    @AfterAll
+    void tearDownAll() {
+        TestHibernateUtil.shutdown();
+    }
+
+    @Override
+    protected UserDao createDao() {
+        try (Session session = TestHibernateUtil.getSessionFactory().openSession()) {
+            Transaction tx = session.beginTransaction();
+            session.createMutationQuery("DELETE FROM User").executeUpdate();
+            tx.commit();
+        }
+        return new UserDaoImpl(TestHibernateUtil.getSessionFactory());
+    }
+}
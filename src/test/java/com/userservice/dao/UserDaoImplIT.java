@@ -1,17 +1,26 @@
 package com.userservice.dao;
 
+import com.userservice.model.PageRequest;
 import com.userservice.model.User;
+import com.userservice.model.UserPatch;
+import com.userservice.model.UserQuery;
+import com.userservice.model.UserSort;
+import com.userservice.model.UserSummary;
+import com.userservice.util.CacheStatistics;
 import com.userservice.util.TestHibernateUtil;
 import org.hibernate.Session;
 import org.hibernate.Transaction;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.*;
 import org.testcontainers.containers.PostgreSQLContainer;
 import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -135,6 +144,46 @@ public class UserDaoImplIT {
         assertTrue(users.stream().anyMatch(u -> u.getName().equals("Charlie")));
     }
 
+    @Test
+    void testFindPage() {
+        try (Session session = TestHibernateUtil.getSessionFactory().openSession()) {
+            Transaction tx = session.beginTransaction();
+            for (int i = 0; i < 5; i++) {
+                session.persist(new User("User" + i, generateUniqueEmail(), 20 + i));
+            }
+            tx.commit();
+        }
+
+        List<User> firstPage = userDao.findPage(null, 2);
+        List<User> secondPage = userDao.findPage(firstPage.get(1).getId(), 2);
+        List<User> lastPage = userDao.findPage(secondPage.get(1).getId(), 2);
+
+        assertEquals(2, firstPage.size());
+        assertEquals(2, secondPage.size());
+        assertEquals(1, lastPage.size());
+        assertTrue(firstPage.get(1).getId() < secondPage.get(0).getId());
+        assertTrue(userDao.findPage(lastPage.get(0).getId(), 2).isEmpty());
+    }
+
+    @Test
+    void testStreamAll() {
+        try (Session session = TestHibernateUtil.getSessionFactory().openSession()) {
+            Transaction tx = session.beginTransaction();
+            for (int i = 0; i < 10; i++) {
+                session.persist(new User("User" + i, generateUniqueEmail(), 20 + i));
+            }
+            tx.commit();
+        }
+
+        List<Long> ids;
+        try (Stream<User> users = userDao.streamAll()) {
+            ids = users.map(User::getId).toList();
+        }
+
+        assertEquals(10, ids.size());
+        assertEquals(ids.stream().sorted().toList(), ids, "Users should be streamed in id order");
+    }
+
     @Test
     void testUpdateUser() {
         Long userId;
@@ -190,4 +239,348 @@ public class UserDaoImplIT {
     void testDeleteNotExistentUser() {
         assertDoesNotThrow(() -> userDao.deleteById(99999L));
     }
+
+    @Test
+    void testSaveAllBatchesStatements() {
+        Statistics statistics = TestHibernateUtil.getSessionFactory().getStatistics();
+
+        statistics.clear();
+        for (int i = 0; i < 100; i++) {
+            userDao.save(new User("Single" + i, generateUniqueEmail(), 30));
+        }
+        long singleStatements = statistics.getPrepareStatementCount();
+
+        List<User> batch = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            batch.add(new User("Batched" + i, generateUniqueEmail(), 30));
+        }
+        statistics.clear();
+        List<User> saved = userDao.saveAll(batch);
+        long batchedStatements = statistics.getPrepareStatementCount();
+
+        System.out.printf("100 inserts: %d statements one by one, %d batched%n", singleStatements, batchedStatements);
+        assertEquals(100, saved.size());
+        assertTrue(saved.stream().allMatch(u -> u.getId() != null));
+        assertEquals(200, userDao.findAll().size());
+        assertTrue(batchedStatements * 10 < singleStatements,
+                "Batched insert should prepare far fewer statements than single inserts");
+    }
+
+    @Test
+    void testUpdateAll() {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            users.add(new User("Before" + i, generateUniqueEmail(), 30));
+        }
+        userDao.saveAll(users);
+
+        users.forEach(u -> u.setName("After"));
+        userDao.updateAll(users);
+
+        assertTrue(userDao.findAll().stream().allMatch(u -> u.getName().equals("After")));
+    }
+
+    @Test
+    void testDeleteAllById() {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            users.add(new User("ToDelete" + i, generateUniqueEmail(), 30));
+        }
+        userDao.saveAll(users);
+
+        List<Long> ids = new ArrayList<>(users.stream().map(User::getId).toList());
+        ids.add(99999L);
+        int deleted = userDao.deleteAllById(ids);
+
+        assertEquals(60, deleted);
+        assertTrue(userDao.findAll().isEmpty());
+    }
+
+    @Test
+    void testFindByIdServedFromSecondLevelCache() {
+        User saved = userDao.save(new User("Cached", generateUniqueEmail(), 33));
+        TestHibernateUtil.getSessionFactory().getStatistics().clear();
+
+        userDao.findById(saved.getId());
+        userDao.findById(saved.getId());
+        userDao.findById(saved.getId());
+
+        CacheStatistics.Snapshot snapshot = CacheStatistics.snapshot(TestHibernateUtil.getSessionFactory());
+        assertTrue(snapshot.entityHits() >= 2, "Repeated lookups should hit the second-level cache");
+        assertTrue(TestHibernateUtil.getSessionFactory().getStatistics().getEntityLoadCount() <= 1,
+                "At most the first lookup should load the row from the database");
+    }
+
+    @Test
+    void testUpdateRefreshesCachedUser() {
+        User saved = userDao.save(new User("Before", generateUniqueEmail(), 33));
+        userDao.findById(saved.getId());
+
+        saved.setName("After");
+        userDao.update(saved);
+
+        assertEquals("After", userDao.findById(saved.getId()).orElseThrow().getName());
+    }
+
+    @Test
+    void testDeleteEvictsCachedUser() {
+        User saved = userDao.save(new User("Doomed", generateUniqueEmail(), 33));
+        userDao.findById(saved.getId());
+
+        userDao.deleteById(saved.getId());
+
+        assertTrue(userDao.findById(saved.getId()).isEmpty());
+    }
+
+    @Test
+    void testFindAllUsesQueryCacheAndSeesNewRows() {
+        userDao.save(new User("First", generateUniqueEmail(), 33));
+        userDao.findAll();
+        TestHibernateUtil.getSessionFactory().getStatistics().clear();
+
+        assertEquals(1, userDao.findAll().size());
+        assertEquals(1, TestHibernateUtil.getSessionFactory().getStatistics().getQueryCacheHitCount());
+
+        userDao.save(new User("Second", generateUniqueEmail(), 34));
+        assertEquals(2, userDao.findAll().size(), "An insert must invalidate the cached query result");
+    }
+
+    @Test
+    void testFindByEmail() {
+        String email = generateUniqueEmail();
+        User saved = userDao.save(new User("ByEmail", email, 27));
+
+        Optional<User> found = userDao.findByEmail(email);
+
+        assertTrue(found.isPresent());
+        assertEquals(saved.getId(), found.get().getId());
+        assertTrue(userDao.findByEmail(generateUniqueEmail()).isEmpty());
+    }
+
+    @Test
+    void testExistsByEmailFollowsWrites() {
+        String email = generateUniqueEmail();
+        assertFalse(userDao.existsByEmail(email));
+
+        User saved = userDao.save(new User("Exists", email, 27));
+        assertTrue(userDao.existsByEmail(email));
+
+        String newEmail = generateUniqueEmail();
+        saved.setEmail(newEmail);
+        userDao.update(saved);
+        assertFalse(userDao.existsByEmail(email), "Old email must not resolve after update");
+        assertTrue(userDao.existsByEmail(newEmail));
+
+        userDao.deleteById(saved.getId());
+        assertFalse(userDao.existsByEmail(newEmail), "Email must not resolve after delete");
+    }
+
+    @Test
+    void testFindAllByIdsPreservesOrderAndSkipsMissing() {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            users.add(new User("Multi" + i, generateUniqueEmail(), 20 + i));
+        }
+        userDao.saveAll(users);
+        Long first = users.get(0).getId();
+        Long third = users.get(2).getId();
+        Long fifth = users.get(4).getId();
+
+        List<User> found = userDao.findAllByIds(List.of(fifth, 99999L, first, third));
+
+        assertEquals(List.of(fifth, first, third), found.stream().map(User::getId).toList());
+    }
+
+    @Test
+    void testFindAllByIdsQueriesOnlyUncachedIds() {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            users.add(new User("Multi" + i, generateUniqueEmail(), 20 + i));
+        }
+        userDao.saveAll(users);
+        List<Long> ids = users.stream().map(User::getId).toList();
+        TestHibernateUtil.getSessionFactory().getCache().evictEntityData(User.class);
+        userDao.findById(ids.get(0));
+        Statistics statistics = TestHibernateUtil.getSessionFactory().getStatistics();
+        statistics.clear();
+
+        List<User> found = userDao.findAllByIds(ids);
+
+        assertEquals(10, found.size());
+        assertEquals(9, statistics.getEntityLoadCount(), "The cached user should not be loaded again");
+        assertTrue(statistics.getPrepareStatementCount() <= 1, "Missing ids should be fetched in one batch");
+    }
+
+    @Test
+    void testPatchUpdatesOnlyGivenColumnsInOneStatement() {
+        User saved = userDao.save(new User("Before", generateUniqueEmail(), 33));
+        Statistics statistics = TestHibernateUtil.getSessionFactory().getStatistics();
+        statistics.clear();
+
+        int updated = userDao.patch(saved.getId(), new UserPatch(null, null, 34));
+
+        assertEquals(1, updated);
+        assertEquals(2, statistics.getPrepareStatementCount(), "Patch should be a single UPDATE plus its outbox INSERT");
+        User fromDb = userDao.findById(saved.getId()).orElseThrow();
+        assertEquals("Before", fromDb.getName());
+        assertEquals(saved.getEmail(), fromDb.getEmail());
+        assertEquals(34, fromDb.getAge());
+        assertNotNull(fromDb.getCreatedAt());
+    }
+
+    @Test
+    void testPatchMissingUserReturnsZero() {
+        assertEquals(0, userDao.patch(99999L, new UserPatch("Nobody", null, null)));
+    }
+
+    @Test
+    void testPatchEmailMovesNaturalId() {
+        User saved = userDao.save(new User("Mover", generateUniqueEmail(), 33));
+        String newEmail = generateUniqueEmail();
+
+        userDao.patch(saved.getId(), new UserPatch(null, newEmail, null));
+
+        assertFalse(userDao.existsByEmail(saved.getEmail()));
+        assertEquals(saved.getId(), userDao.findByEmail(newEmail).orElseThrow().getId());
+    }
+
+    @Test
+    void testDeleteByIdIsOneStatementAndReturnsCount() {
+        User saved = userDao.save(new User("Doomed", generateUniqueEmail(), 33));
+        Statistics statistics = TestHibernateUtil.getSessionFactory().getStatistics();
+        statistics.clear();
+
+        assertEquals(1, userDao.deleteById(saved.getId()));
+        assertEquals(2, statistics.getPrepareStatementCount(),
+                "Delete should not load the user first: one DELETE plus its outbox INSERT");
+        assertEquals(0, userDao.deleteById(saved.getId()));
+    }
+
+    @Test
+    void testPatchEvictsOnlyThePatchedUser() {
+        User patched = userDao.save(new User("Patched", generateUniqueEmail(), 33));
+        User other = userDao.save(new User("Other", generateUniqueEmail(), 34));
+        userDao.findById(patched.getId());
+        userDao.findById(other.getId());
+        userDao.findByEmail(patched.getEmail());
+        Statistics statistics = TestHibernateUtil.getSessionFactory().getStatistics();
+        statistics.clear();
+
+        userDao.patch(patched.getId(), new UserPatch("Renamed", generateUniqueEmail(), null));
+
+        assertEquals("Other", userDao.findById(other.getId()).orElseThrow().getName());
+        assertEquals(1, CacheStatistics.snapshot(TestHibernateUtil.getSessionFactory()).entityHits(),
+                "The other user should still be served from the second-level cache");
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals("Renamed", userDao.findById(patched.getId()).orElseThrow().getName());
+        assertEquals(1, statistics.getEntityLoadCount(), "The patched user must be loaded again");
+        assertFalse(userDao.existsByEmail(patched.getEmail()), "The old email must not resolve from the cache");
+    }
+
+    @Test
+    void testDeleteEvictsOnlyTheDeletedUser() {
+        User deleted = userDao.save(new User("Deleted", generateUniqueEmail(), 33));
+        User other = userDao.save(new User("Other", generateUniqueEmail(), 34));
+        userDao.findById(deleted.getId());
+        userDao.findById(other.getId());
+        userDao.findByEmail(deleted.getEmail());
+        userDao.findAll();
+        Statistics statistics = TestHibernateUtil.getSessionFactory().getStatistics();
+        statistics.clear();
+
+        userDao.deleteById(deleted.getId());
+
+        assertEquals("Other", userDao.findById(other.getId()).orElseThrow().getName());
+        assertEquals(1, CacheStatistics.snapshot(TestHibernateUtil.getSessionFactory()).entityHits(),
+                "The other user should still be served from the second-level cache");
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertTrue(userDao.findById(deleted.getId()).isEmpty());
+        assertFalse(userDao.existsByEmail(deleted.getEmail()), "The email must not resolve from the cache");
+        assertEquals(List.of(other.getId()), userDao.findAll().stream().map(User::getId).toList(),
+                "The cached findAll result must not list the deleted user");
+    }
+
+    @Test
+    void testUpdateKeepsCreatedAt() {
+        User saved = userDao.save(new User("Before", generateUniqueEmail(), 33));
+
+        User updated = userDao.update(new User(saved.getId(), "After", saved.getEmail(), 33, null));
+
+        assertNotNull(updated.getCreatedAt());
+        assertNotNull(userDao.findById(saved.getId()).orElseThrow().getCreatedAt());
+    }
+
+    @Test
+    void testUpdateWithStaleVersionConflicts() {
+        User saved = userDao.save(new User("Original", generateUniqueEmail(), 33));
+        User first = userDao.findById(saved.getId()).orElseThrow();
+        User second = userDao.findById(saved.getId()).orElseThrow();
+
+        first.setName("First");
+        userDao.update(first);
+        second.setName("Second");
+
+        assertThrows(OptimisticLockConflictException.class, () -> userDao.update(second));
+        assertEquals("First", userDao.findById(saved.getId()).orElseThrow().getName());
+    }
+
+    @Test
+    void testPatchWithExpectedVersion() {
+        User saved = userDao.save(new User("Original", generateUniqueEmail(), 33));
+        long version = saved.getVersion();
+
+        assertEquals(1, userDao.patch(saved.getId(), version, new UserPatch("First", null, null)));
+        assertThrows(OptimisticLockConflictException.class,
+                () -> userDao.patch(saved.getId(), version, new UserPatch("Second", null, null)));
+        assertEquals(0, userDao.patch(99999L, version, new UserPatch("Nobody", null, null)));
+
+        User fromDb = userDao.findById(saved.getId()).orElseThrow();
+        assertEquals("First", fromDb.getName());
+        assertEquals(version + 1, fromDb.getVersion());
+    }
+
+    @Test
+    void testSummariesDoNotLoadEntities() {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            users.add(new User("Summary" + i, generateUniqueEmail(), 20 + i));
+        }
+        userDao.saveAll(users);
+        Statistics statistics = TestHibernateUtil.getSessionFactory().getStatistics();
+        statistics.clear();
+
+        List<UserSummary> page = userDao.findSummaryPage(null, 3);
+        List<UserSummary> streamed;
+        try (Stream<UserSummary> summaries = userDao.streamSummaries()) {
+            streamed = summaries.toList();
+        }
+        UserSummary single = userDao.findSummaryById(users.get(4).getId()).orElseThrow();
+
+        assertEquals(users.subList(0, 3).stream().map(User::getId).toList(), page.stream().map(UserSummary::id).toList());
+        assertEquals(5, streamed.size());
+        assertEquals(new UserSummary(users.get(4).getId(), "Summary4", users.get(4).getEmail()), single);
+        assertTrue(userDao.findSummaryById(99999L).isEmpty());
+        assertEquals(0, statistics.getEntityLoadCount(), "Projections must not hydrate entities");
+    }
+
+    @Test
+    void testSearchCombinesCriteriaAndPagesInSortOrder() {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            users.add(new User(i % 2 == 0 ? "Alice_" + i : "Bob" + i, generateUniqueEmail(), 20 + i % 5));
+        }
+        users.add(new User("AliceX1", generateUniqueEmail(), 22));
+        userDao.saveAll(users);
+        UserQuery query = UserQuery.builder().namePrefix("alice_").minAge(21).maxAge(23).build();
+
+        List<User> firstPage = userDao.search(query, PageRequest.first(UserSort.AGE, true, 3));
+        List<User> secondPage = userDao.search(query, PageRequest.first(UserSort.AGE, true, 3).after(firstPage.get(2)));
+
+        List<User> all = new ArrayList<>(firstPage);
+        all.addAll(secondPage);
+        assertEquals(List.of(23, 23, 22, 22, 21, 21), all.stream().map(User::getAge).toList(),
+                "Only Alice_ users aged 21..23 match; the underscore must not act as a wildcard");
+        assertEquals(all.stream().map(User::getId).distinct().count(), all.size());
+        assertTrue(all.stream().allMatch(user -> user.getName().startsWith("Alice_")));
+    }
 }
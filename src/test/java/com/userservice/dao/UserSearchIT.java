@@ -0,0 +1,160 @@
+package com.userservice.dao;
+
+import com.userservice.model.PageRequest;
+import com.userservice.model.User;
+import com.userservice.model.UserQuery;
+import com.userservice.model.UserSort;
+import com.userservice.util.TestHibernateUtil;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that {@link UserDao#search} queries are served by the search indexes on a table large enough for the
+ * planner to prefer them over a sequential scan. Plans of the statements Hibernate actually runs are taken
+ * from the server log via {@code auto_explain}.
+ */
+@Testcontainers
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class UserSearchIT {
+
+    private static final int USERS = 50_000;
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    @Container
+    private static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15.2")
+            .withDatabaseName("testdb")
+            .withUsername("test")
+            .withPassword("test")
+            .withCommand("postgres",
+                    "-c", "shared_preload_libraries=auto_explain",
+                    "-c", "auto_explain.log_min_duration=-1");
+
+    private SessionFactory sessionFactory;
+    private UserDao userDao;
+
+    @BeforeAll
+    void setUpAll() {
+        System.setProperty("hibernate.connection.url", postgres.getJdbcUrl());
+        System.setProperty("hibernate.connection.username", postgres.getUsername());
+        System.setProperty("hibernate.connection.password", postgres.getPassword());
+        sessionFactory = TestHibernateUtil.buildSessionFactory(Map.of("hibernate.show_sql", false));
+        userDao = new UserDaoImpl(sessionFactory);
+
+        List<User> batch = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            User user = new User("Name" + i, "search" + i + "@mail.com", 18 + i % 60);
+            user.setCreatedAt(BASE.plusMinutes(i));
+            batch.add(user);
+            if (batch.size() == 10_000) {
+                userDao.saveAll(batch);
+                batch.clear();
+            }
+        }
+        try (Session session = sessionFactory.openSession()) {
+            session.doWork(connection -> {
+                try (var statement = connection.createStatement()) {
+                    statement.execute("ANALYZE users");
+                    // Reloaded config reaches pooled backends too, so only the searches get their plans logged
+                    statement.execute("ALTER SYSTEM SET auto_explain.log_min_duration = 0");
+                    statement.execute("SELECT pg_reload_conf()");
+                }
+            });
+        }
+    }
+
+    @AfterAll
+    void tearDownAll() {
+        sessionFactory.close();
+    }
+
+    @Test
+    void testAgeRangeSortedByAgeUsesAgeIndex() {
+        PageRequest page = PageRequest.first(UserSort.AGE, false, 20);
+        List<User> users = new ArrayList<>();
+
+        String plan = planOf(() -> users.addAll(userDao.search(UserQuery.builder().minAge(30).maxAge(31).build(), page)));
+
+        assertEquals(20, users.size());
+        assertTrue(users.stream().allMatch(user -> user.getAge() == 30));
+        assertPlanUses("idx_users_age_id", plan);
+    }
+
+    @Test
+    void testCreatedRangeSortedByCreationUsesCreatedAtIndex() {
+        LocalDateTime before = BASE.plusDays(11);
+        UserQuery query = UserQuery.builder().createdFrom(BASE.plusDays(10)).createdBefore(before).build();
+        List<User> users = new ArrayList<>();
+
+        String plan = planOf(() -> users.addAll(userDao.search(query, PageRequest.first(UserSort.CREATED_AT, true, 50))));
+
+        assertEquals(50, users.size());
+        assertEquals(before.minusMinutes(1), users.get(0).getCreatedAt());
+        assertPlanUses("idx_users_created_at_id", plan);
+    }
+
+    @Test
+    void testNamePrefixUsesLowerNameIndex() {
+        List<User> users = new ArrayList<>();
+
+        String plan = planOf(() -> users.addAll(
+                userDao.search(UserQuery.builder().namePrefix("NAME1234").build(), PageRequest.first(20))));
+
+        assertEquals(11, users.size());
+        assertPlanUses("idx_users_lower_name", plan);
+    }
+
+    @Test
+    void testKeysetPagingVisitsEveryMatchOnce() {
+        UserQuery query = UserQuery.builder().minAge(40).maxAge(40).build();
+        PageRequest page = PageRequest.first(UserSort.AGE, false, 100);
+        List<Long> seen = new ArrayList<>();
+        List<User> users;
+        while (!(users = userDao.search(query, page)).isEmpty()) {
+            users.forEach(user -> seen.add(user.getId()));
+            page = page.after(users.get(users.size() - 1));
+        }
+
+        assertEquals(USERS / 60 + (USERS % 60 > 22 ? 1 : 0), seen.size());
+        assertEquals(seen.stream().distinct().count(), seen.size());
+    }
+
+    /** Runs the search and returns the server log it produced, waiting briefly for auto_explain to flush. */
+    private String planOf(Runnable search) {
+        int mark = postgres.getLogs().length();
+        search.run();
+        Supplier<String> logged = () -> postgres.getLogs().substring(mark);
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (!logged.get().contains("Query Text") && System.nanoTime() < deadline) {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        return logged.get();
+    }
+
+    private static void assertPlanUses(String index, String plan) {
+        String text = plan.toLowerCase(Locale.ROOT);
+        assertTrue(text.contains("query text"), "No plan logged:\n" + plan);
+        assertTrue(text.contains(index), "Expected " + index + " in plan:\n" + plan);
+        assertFalse(text.contains("seq scan"), "Unexpected sequential scan:\n" + plan);
+    }
+}
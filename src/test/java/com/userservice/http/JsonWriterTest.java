@@ -0,0 +1,76 @@
+package com.userservice.http;
+
+import com.userservice.model.User;
+import com.userservice.util.FlatJson;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JsonWriterTest {
+
+    @Test
+    void user_writesEveryField() throws IOException {
+        User user = new User(7L, "Ann", "ann@mail.com", 30, LocalDateTime.of(2024, 5, 1, 12, 30));
+        user.setVersion(3L);
+
+        assertEquals("{\"id\":7,\"name\":\"Ann\",\"email\":\"ann@mail.com\",\"age\":30,"
+                + "\"createdAt\":\"2024-05-01T12:30:00\",\"version\":3}", write(writer -> writer.user(user)));
+    }
+
+    @Test
+    void string_escapesAndEncodesUtf8() throws IOException {
+        String name = "Jo \"Q\" \\ \n\t\u0001 Zoë 日本 😀";
+
+        String json = write(writer -> writer.string(name));
+
+        assertEquals("\"Jo \\\"Q\\\" \\\\ \\n\\t\\u0001 Zoë 日本 😀\"", json);
+        assertEquals(name, FlatJson.parseObject("{\"name\":" + json + "}").get("name"));
+    }
+
+    @Test
+    void numbersAndTimestamps_matchJdkFormatting() throws IOException {
+        for (long value : new long[]{0, 9, 10, -1, 1234567890123L, Long.MAX_VALUE, Long.MIN_VALUE}) {
+            assertEquals(Long.toString(value), write(writer -> writer.number(value)));
+        }
+        for (int nano : new int[]{0, 5_000_000, 120_000, 123_456_789}) {
+            LocalDateTime time = LocalDateTime.of(2024, 1, 2, 3, 4, 5, nano);
+            assertEquals("\"" + time + "\"", write(writer -> writer.timestamp(time)));
+        }
+        assertEquals("null", write(writer -> writer.number((Long) null)));
+        assertEquals("null", write(writer -> writer.timestamp(null)));
+    }
+
+    @Test
+    void smallBuffer_flushesAsItGoes() throws IOException {
+        User user = new User(1L, "A much longer name than the buffer", "long@mail.com", 30, LocalDateTime.now());
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        new JsonWriter(expected).user(user).flush();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        JsonWriter writer = new JsonWriter(out, 64);
+        writer.user(user).flush();
+
+        assertEquals(expected.toString(StandardCharsets.UTF_8), out.toString(StandardCharsets.UTF_8));
+        Map<String, String> parsed = FlatJson.parseObject(out.toString(StandardCharsets.UTF_8));
+        assertEquals("A much longer name than the buffer", parsed.get("name"));
+    }
+
+    private static String write(Write write) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        JsonWriter writer = new JsonWriter(out);
+        write.to(writer);
+        writer.flush();
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    @FunctionalInterface
+    private interface Write {
+        void to(JsonWriter writer) throws IOException;
+    }
+}
@@ -0,0 +1,127 @@
+package com.userservice.http;
+
+import com.userservice.dao.InMemoryUserDao;
+import com.userservice.metrics.LatencyHistogram;
+import com.userservice.model.User;
+import com.userservice.service.UserService;
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Local load generator: concurrent clients on virtual threads send a create/get/page mix against a server over
+ * {@link InMemoryUserDao}, so the numbers reflect the HTTP front end rather than a database. Tagged {@code load}
+ * and left out of the default build; run it with {@code mvn test -Dtest=UserHttpServerLoadTest -DexcludedGroups=}.
+ */
+@Tag("load")
+public class UserHttpServerLoadTest {
+
+    private static final Logger logger = LogManager.getLogger(UserHttpServerLoadTest.class);
+
+    private static final int CLIENTS = 64;
+    private static final int SEEDED_USERS = 1_000;
+    private static final Duration WARM_UP = Duration.ofSeconds(1);
+    private static final Duration MEASURE = Duration.ofSeconds(3);
+
+    @BeforeAll
+    static void disableNagle() {
+        // As Main does; only takes effect if no server has started in this JVM yet
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    @Test
+    void mixedLoad_reportsThroughputAndTailLatency() throws Exception {
+        InMemoryUserDao userDao = new InMemoryUserDao();
+        List<User> seed = new ArrayList<>();
+        for (int i = 0; i < SEEDED_USERS; i++) {
+            seed.add(new User("User " + i, "user" + i + "@mail.com", 20 + i % 50));
+        }
+        long[] ids = userDao.saveAll(seed).stream().mapToLong(User::getId).toArray();
+
+        try (UserHttpServer server = UserHttpServer.start(0, new UserService(userDao), Duration.ofSeconds(5));
+             HttpClient client = HttpClient.newBuilder()
+                     .version(HttpClient.Version.HTTP_1_1)
+                     .executor(Executors.newVirtualThreadPerTaskExecutor())
+                     .build()) {
+            String base = "http://localhost:" + server.port();
+            run(client, base, ids, WARM_UP, new LatencyHistogram(), new AtomicInteger());
+
+            LatencyHistogram latencyMicros = new LatencyHistogram();
+            AtomicInteger failures = new AtomicInteger();
+            long started = System.nanoTime();
+            run(client, base, ids, MEASURE, latencyMicros, failures);
+            double seconds = (System.nanoTime() - started) / 1e9;
+
+            logger.printf(Level.INFO, "%d clients: %,d requests in %.1f s = %,.0f req/s; "
+                            + "latency p50 %,d us, p99 %,d us, p99.9 %,d us, max %,d us",
+                    CLIENTS, latencyMicros.count(), seconds, latencyMicros.count() / seconds,
+                    latencyMicros.percentile(0.50), latencyMicros.percentile(0.99),
+                    latencyMicros.percentile(0.999), latencyMicros.max());
+            assertEquals(0, failures.get());
+            assertTrue(latencyMicros.count() > 0);
+        }
+    }
+
+    private static void run(HttpClient client, String base, long[] ids, Duration duration,
+                            LatencyHistogram latencyMicros, AtomicInteger failures) throws Exception {
+        long deadline = System.nanoTime() + duration.toNanos();
+        AtomicInteger created = new AtomicInteger();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<Void>> futures = new ArrayList<>();
+            for (int c = 0; c < CLIENTS; c++) {
+                futures.add(clients.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    while (System.nanoTime() < deadline) {
+                        int roll = random.nextInt(100);
+                        HttpRequest request;
+                        int expected;
+                        if (roll < 10) {
+                            String email = "load" + System.nanoTime() + "-" + created.incrementAndGet() + "@mail.com";
+                            request = HttpRequest.newBuilder(URI.create(base + "/users"))
+                                    .POST(HttpRequest.BodyPublishers.ofString(
+                                            "{\"name\":\"Load\",\"email\":\"" + email + "\",\"age\":30}"))
+                                    .build();
+                            expected = 201;
+                        } else if (roll < 80) {
+                            long id = ids[random.nextInt(ids.length)];
+                            request = HttpRequest.newBuilder(URI.create(base + "/users/" + id)).build();
+                            expected = 200;
+                        } else {
+                            long after = ids[random.nextInt(ids.length)];
+                            request = HttpRequest.newBuilder(URI.create(base + "/users?limit=20&after=" + after)).build();
+                            expected = 200;
+                        }
+                        long start = System.nanoTime();
+                        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                        latencyMicros.record((System.nanoTime() - start) / 1_000);
+                        if (response.statusCode() != expected) {
+                            failures.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        }
+    }
+}
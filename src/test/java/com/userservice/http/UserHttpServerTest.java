@@ -0,0 +1,195 @@
+package com.userservice.http;
+
+import com.userservice.dao.InMemoryUserDao;
+import com.userservice.model.User;
+import com.userservice.service.UserService;
+import com.userservice.util.FlatJson;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UserHttpServerTest {
+
+    private final InMemoryUserDao userDao = new InMemoryUserDao();
+    private final HttpClient client = HttpClient.newHttpClient();
+    private UserHttpServer server;
+
+    @AfterEach
+    void tearDown() {
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    @Test
+    void create_thenGet() throws Exception {
+        start(new UserService(userDao), Duration.ofSeconds(5));
+
+        HttpResponse<String> created = send("POST", "/users", "{\"name\":\"Ann\",\"email\":\"ann@mail.com\",\"age\":30}");
+
+        assertEquals(201, created.statusCode());
+        Map<String, String> user = FlatJson.parseObject(created.body());
+        assertEquals("/users/" + user.get("id"), created.headers().firstValue("Location").orElseThrow());
+        assertEquals("application/json; charset=utf-8", created.headers().firstValue("Content-Type").orElseThrow());
+        assertEquals("0", user.get("version"));
+
+        HttpResponse<String> found = send("GET", "/users/" + user.get("id"), null);
+        assertEquals(200, found.statusCode());
+        assertEquals(created.body(), found.body());
+        assertEquals(404, send("GET", "/users/" + Long.MAX_VALUE, null).statusCode());
+    }
+
+    @Test
+    void invalidRequests_areRejected() throws Exception {
+        start(new UserService(userDao), Duration.ofSeconds(5));
+        userDao.save(new User("Ann", "ann@mail.com", 30));
+
+        assertError(400, "Missing field: age", send("POST", "/users", "{\"name\":\"Bob\",\"email\":\"bob@mail.com\"}"));
+        assertEquals(400, send("POST", "/users", "{\"name\":\"Bob\",\"email\":\"bob@mail.com\",\"age\":-1}").statusCode());
+        assertEquals(400, send("POST", "/users", "not json").statusCode());
+        assertEquals(400, send("GET", "/users/abc", null).statusCode());
+        assertEquals(400, send("GET", "/users?limit=0", null).statusCode());
+        assertEquals(413, send("POST", "/users", "{\"name\":\"" + "x".repeat(70_000) + "\"}").statusCode());
+        assertEquals(405, send("DELETE", "/users", null).statusCode());
+        assertEquals(404, send("GET", "/users/1/friends", null).statusCode());
+        assertEquals(1, userDao.findAll().size());
+    }
+
+    @Test
+    void putAndPatch_updateAndReturnTheUser() throws Exception {
+        start(new UserService(userDao), Duration.ofSeconds(5));
+        Long id = userDao.save(new User("Ann", "ann@mail.com", 30)).getId();
+        userDao.save(new User("Bob", "bob@mail.com", 40));
+
+        HttpResponse<String> patched = send("PATCH", "/users/" + id, "{\"age\":31}");
+        assertEquals(200, patched.statusCode());
+        assertEquals("31", FlatJson.parseObject(patched.body()).get("age"));
+        assertEquals("Ann", FlatJson.parseObject(patched.body()).get("name"));
+
+        assertEquals(400, send("PUT", "/users/" + id, "{\"name\":\"Anna\"}").statusCode());
+        HttpResponse<String> replaced = send("PUT", "/users/" + id,
+                "{\"name\":\"Anna\",\"email\":\"anna@mail.com\",\"age\":32}");
+        assertEquals(200, replaced.statusCode());
+        assertEquals("2", FlatJson.parseObject(replaced.body()).get("version"));
+
+        assertEquals(409, send("PATCH", "/users/" + id, "{\"email\":\"bob@mail.com\"}").statusCode());
+        assertError(409, "Email already in use: bob@mail.com",
+                send("POST", "/users", "{\"name\":\"Bob\",\"email\":\"bob@mail.com\",\"age\":40}"));
+        assertEquals(404, send("PATCH", "/users/" + Long.MAX_VALUE, "{\"age\":31}").statusCode());
+        assertEquals("anna@mail.com", userDao.findById(id).orElseThrow().getEmail());
+    }
+
+    @Test
+    void delete_returnsNoContentOnce() throws Exception {
+        start(new UserService(userDao), Duration.ofSeconds(5));
+        Long id = userDao.save(new User("Ann", "ann@mail.com", 30)).getId();
+
+        assertEquals(204, send("DELETE", "/users/" + id, null).statusCode());
+        assertEquals(404, send("DELETE", "/users/" + id, null).statusCode());
+        assertTrue(userDao.findById(id).isEmpty());
+    }
+
+    @Test
+    void list_streamsAllUsers_andPagesByLimit() throws Exception {
+        start(new UserService(userDao), Duration.ofSeconds(5));
+        for (int i = 0; i < 5; i++) {
+            userDao.save(new User("User " + i, "user" + i + "@mail.com", 20 + i));
+        }
+
+        HttpResponse<String> all = send("GET", "/users", null);
+        assertEquals(200, all.statusCode());
+        assertEquals(5, all.body().split("\\{").length - 1);
+        assertTrue(all.body().startsWith("[{") && all.body().endsWith("}]"));
+
+        HttpResponse<String> first = send("GET", "/users?limit=3", null);
+        String next = first.headers().firstValue("X-Next-After").orElseThrow();
+        HttpResponse<String> second = send("GET", "/users?limit=3&after=" + next, null);
+        assertEquals(3, first.body().split("\\{").length - 1);
+        assertEquals(2, second.body().split("\\{").length - 1);
+        assertTrue(second.headers().firstValue("X-Next-After").isEmpty());
+        assertEquals(all.body(), first.body().substring(0, first.body().length() - 1) + ","
+                + second.body().substring(1));
+
+        userDao.deleteAllById(userDao.findAll().stream().map(User::getId).toList());
+        assertEquals("[]", send("GET", "/users", null).body());
+    }
+
+    @Test
+    void statistics_countsByAgeBucketAndSignupDay() throws Exception {
+        start(new UserService(userDao), Duration.ofSeconds(5));
+        LocalDateTime created = LocalDateTime.of(2024, 1, 1, 12, 0);
+        userDao.save(new User(null, "Ann", "ann@mail.com", 30, created));
+        userDao.save(new User(null, "Bob", "bob@mail.com", 34, created.plusDays(1)));
+        userDao.save(new User(null, "Cy", "cy@mail.com", 41, created.minusDays(1)));
+
+        HttpResponse<String> response = send("GET", "/users/statistics?since=2024-01-01&ageBucket=5", null);
+
+        assertEquals(200, response.statusCode());
+        assertTrue(response.body().startsWith("{\"totalUsers\":3,\"ageHistogram\":{\"30\":2,\"40\":1},"
+                + "\"signupsByDay\":{\"2024-01-01\":1,\"2024-01-02\":1},\"computedAt\":\""), response.body());
+        HttpResponse<String> encoded = send("GET", "/users/statistics?since=2024%2D01%2D01&age%42ucket=%35", null);
+        assertEquals(response.body().substring(0, response.body().indexOf("\"computedAt\"")),
+                encoded.body().substring(0, encoded.body().indexOf("\"computedAt\"")), "Query values are percent-decoded");
+        assertEquals(200, send("GET", "/users/statistics", null).statusCode());
+        assertEquals(400, send("GET", "/users/statistics?since=yesterday", null).statusCode());
+        assertEquals(400, send("GET", "/users/statistics?ageBucket=0", null).statusCode());
+        assertEquals(405, send("POST", "/users/statistics", "{}").statusCode());
+    }
+
+    @Test
+    void slowRequest_timesOutAndInterruptsTheWorker() throws Exception {
+        CountDownLatch interrupted = new CountDownLatch(1);
+        InMemoryUserDao blockingDao = new InMemoryUserDao() {
+            @Override
+            public Optional<User> findById(Long id) {
+                try {
+                    Thread.sleep(Duration.ofMinutes(1));
+                } catch (InterruptedException e) {
+                    interrupted.countDown();
+                    Thread.currentThread().interrupt();
+                }
+                return Optional.empty();
+            }
+        };
+        start(new UserService(blockingDao), Duration.ofMillis(200));
+
+        long started = System.nanoTime();
+        HttpResponse<String> response = send("GET", "/users/1", null);
+
+        assertError(503, "Request timed out", response);
+        assertTrue(System.nanoTime() - started < TimeUnit.SECONDS.toNanos(10));
+        assertTrue(interrupted.await(10, TimeUnit.SECONDS));
+        // Other requests are unaffected
+        assertEquals(200, send("GET", "/users", null).statusCode());
+    }
+
+    private void start(UserService userService, Duration timeout) {
+        server = UserHttpServer.start(0, userService, timeout);
+    }
+
+    private HttpResponse<String> send(String method, String path, String body)
+            throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + server.port() + path))
+                .method(method, body == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static void assertError(int status, String message, HttpResponse<String> response) {
+        assertEquals(status, response.statusCode());
+        assertEquals(message, FlatJson.parseObject(response.body()).get("error"));
+    }
+}
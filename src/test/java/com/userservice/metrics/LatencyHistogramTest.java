@@ -0,0 +1,68 @@
+package com.userservice.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+
+    @Test
+    void percentilesStayWithinBucketPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long i = 1; i <= 100_000; i++) {
+            histogram.record(i * 1_000);
+        }
+
+        assertEquals(100_000, histogram.count());
+        assertEquals(100_000_000, histogram.max());
+        assertWithin(50_000_000, histogram.percentile(0.5));
+        assertWithin(99_000_000, histogram.percentile(0.99));
+        assertWithin(99_900_000, histogram.percentile(0.999));
+        assertEquals(100_000_000, histogram.percentile(1.0));
+    }
+
+    @Test
+    void emptyHistogramReportsZero() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        assertEquals(0, histogram.count());
+        assertEquals(0, histogram.percentile(0.99));
+    }
+
+    @Test
+    void bucketsCoverEveryValue() {
+        long[] values = {0, 1, 7, 8, 9, 15, 16, 1_000, 123_456_789, Long.MAX_VALUE};
+        for (long value : values) {
+            int index = LatencyHistogram.bucketIndex(value);
+            assertTrue(LatencyHistogram.bucketUpperBound(index) >= value, "upper bound of " + value);
+            if (index > 0) {
+                assertTrue(LatencyHistogram.bucketUpperBound(index - 1) < value, "lower bound of " + value);
+            }
+        }
+    }
+
+    @Test
+    void recordingDoesNotAllocate() {
+        var threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        OperationMetrics metrics = new MetricsRegistry().operation("findById");
+        long threadId = Thread.currentThread().threadId();
+        for (int i = 0; i < 100_000; i++) {
+            metrics.record(i);
+        }
+
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < 100_000; i++) {
+            metrics.record(i);
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+        assertTrue(allocated < 1_024, "allocated " + allocated + " bytes for 100k recordings");
+    }
+
+    private static void assertWithin(long expected, long actual) {
+        assertTrue(actual >= expected && actual <= expected * 1.125,
+                "expected ~" + expected + " but was " + actual);
+    }
+}
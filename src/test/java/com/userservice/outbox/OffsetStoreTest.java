@@ -0,0 +1,41 @@
+package com.userservice.outbox;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OffsetStoreTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testInMemoryStoreStartsAtZero() {
+        OffsetStore store = OffsetStore.inMemory();
+
+        assertEquals(0, store.load("cache"));
+        store.save("cache", 42);
+        assertEquals(42, store.load("cache"));
+        assertEquals(0, store.load("search"));
+    }
+
+    @Test
+    void testFileStoreSurvivesReopening() {
+        Path file = directory.resolve("offsets.properties");
+        OffsetStore store = OffsetStore.file(file);
+        assertEquals(0, store.load("cache"));
+
+        store.save("cache", 42);
+        store.save("search", 7);
+        store.save("cache", 43);
+
+        OffsetStore reopened = OffsetStore.file(file);
+        assertEquals(43, reopened.load("cache"));
+        assertEquals(7, reopened.load("search"));
+        assertFalse(Files.exists(directory.resolve("offsets.properties.tmp")));
+    }
+}
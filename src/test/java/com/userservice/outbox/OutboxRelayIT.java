@@ -0,0 +1,232 @@
+package com.userservice.outbox;
+
+import com.userservice.dao.DuplicateEmailException;
+import com.userservice.dao.OptimisticLockConflictException;
+import com.userservice.dao.UserDao;
+import com.userservice.dao.UserDaoImpl;
+import com.userservice.model.ChangeType;
+import com.userservice.model.OutboxEvent;
+import com.userservice.model.User;
+import com.userservice.model.UserPatch;
+import com.userservice.util.TestHibernateUtil;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.io.TempDir;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Testcontainers
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class OutboxRelayIT {
+
+    @Container
+    private static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15.2")
+            .withDatabaseName("testdb")
+            .withUsername("test")
+            .withPassword("test");
+
+    private SessionFactory sessionFactory;
+    private UserDao userDao;
+
+    @TempDir
+    Path directory;
+
+    @BeforeAll
+    void setUpAll() {
+        System.setProperty("hibernate.connection.url", postgres.getJdbcUrl());
+        System.setProperty("hibernate.connection.username", postgres.getUsername());
+        System.setProperty("hibernate.connection.password", postgres.getPassword());
+        sessionFactory = TestHibernateUtil.getSessionFactory();
+        userDao = new UserDaoImpl(sessionFactory);
+    }
+
+    @AfterAll
+    void tearDownAll() {
+        TestHibernateUtil.shutdown();
+    }
+
+    @BeforeEach
+    void cleanDatabase() {
+        try (Session session = sessionFactory.openSession()) {
+            Transaction tx = session.beginTransaction();
+            session.createMutationQuery("DELETE FROM User").executeUpdate();
+            session.createMutationQuery("DELETE FROM OutboxEvent").executeUpdate();
+            session.createMutationQuery("DELETE FROM OutboxHead").executeUpdate();
+            tx.commit();
+        }
+    }
+
+    @Test
+    void testEveryWriteIsPublishedWithItsChangedFields() {
+        List<UserChange> received = new ArrayList<>();
+        OutboxRelay relay = new OutboxRelay(sessionFactory, OffsetStore.inMemory());
+        relay.subscribe("cache", received::addAll);
+
+        User ann = userDao.save(new User("Ann", "ann@mail.com", 30));
+        userDao.update(new User(ann.getId(), "Anna", "ann@mail.com", 30, null));
+        // Nothing changes, so nothing is published
+        userDao.update(new User(ann.getId(), "Anna", "ann@mail.com", 30, null));
+        userDao.patch(ann.getId(), 1, new UserPatch(null, null, 31));
+        userDao.patch(ann.getId(), new UserPatch(null, "anna@mail.com", null));
+        List<User> batch = userDao.saveAll(List.of(new User("Bob", "bob@mail.com", 40), new User("Cy", "cy@mail.com", 50)));
+        userDao.deleteById(ann.getId());
+        userDao.deleteById(ann.getId());
+        userDao.deleteAllById(List.of(batch.get(0).getId(), Long.MAX_VALUE));
+
+        assertEquals(8, relay.poll());
+
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L), received.stream().map(UserChange::position).toList());
+        assertChange(received.get(0), ChangeType.CREATE, ann.getId(), 0L,
+                Map.of("name", "Ann", "email", "ann@mail.com", "age", "30", "createdAt", ann.getCreatedAt().toString()));
+        assertChange(received.get(1), ChangeType.UPDATE, ann.getId(), 1L, Map.of("name", "Anna"));
+        assertChange(received.get(2), ChangeType.UPDATE, ann.getId(), 2L, Map.of("age", "31"));
+        assertChange(received.get(3), ChangeType.UPDATE, ann.getId(), null, Map.of("email", "anna@mail.com"));
+        assertEquals(List.of(batch.get(0).getId(), batch.get(1).getId()),
+                List.of(received.get(4).userId(), received.get(5).userId()));
+        assertChange(received.get(6), ChangeType.DELETE, ann.getId(), null, Map.of());
+        assertChange(received.get(7), ChangeType.DELETE, batch.get(0).getId(), null, Map.of());
+        assertEquals(0, relay.poll());
+        assertEquals(8, relay.offset("cache"));
+    }
+
+    @Test
+    void testRolledBackWritesPublishNothing() {
+        OutboxRelay relay = new OutboxRelay(sessionFactory, OffsetStore.inMemory());
+        List<UserChange> received = new ArrayList<>();
+        relay.subscribe("cache", received::addAll);
+        User ann = userDao.save(new User("Ann", "ann@mail.com", 30));
+
+        assertThrows(DuplicateEmailException.class, () -> userDao.save(new User("Copy", "ann@mail.com", 30)));
+        assertThrows(OptimisticLockConflictException.class,
+                () -> userDao.patch(ann.getId(), 7, new UserPatch("Stale", null, null)));
+
+        relay.poll();
+        assertEquals(List.of(ChangeType.CREATE), received.stream().map(UserChange::type).toList());
+    }
+
+    @Test
+    void testFailingSubscriberGetsTheSameChangesAgainWithoutBlockingOthers() {
+        OutboxRelay relay = new OutboxRelay(sessionFactory, OffsetStore.inMemory());
+        List<UserChange> healthy = new ArrayList<>();
+        List<List<UserChange>> flaky = new ArrayList<>();
+        AtomicInteger failuresLeft = new AtomicInteger(1);
+        relay.subscribe("healthy", healthy::addAll);
+        relay.subscribe("flaky", changes -> {
+            flaky.add(changes);
+            if (failuresLeft.getAndDecrement() > 0) {
+                throw new IllegalStateException("Index unavailable");
+            }
+        });
+        for (int i = 0; i < 3; i++) {
+            userDao.save(new User("User " + i, "user" + i + "@mail.com", 30));
+        }
+
+        assertEquals(3, relay.poll());
+        assertEquals(3, healthy.size());
+        assertEquals(0, relay.offset("flaky"));
+
+        assertEquals(3, relay.poll());
+        assertEquals(2, flaky.size());
+        assertEquals(flaky.get(0), flaky.get(1), "The failed batch is delivered again");
+        assertEquals(3, relay.offset("flaky"));
+        assertEquals(3, healthy.size());
+    }
+
+    @Test
+    void testRestartedSubscriberResumesFromStoredOffset() {
+        Path offsets = directory.resolve("offsets.properties");
+        try (OutboxRelay relay = new OutboxRelay(sessionFactory, OffsetStore.file(offsets))) {
+            relay.subscribe("search", changes -> { });
+            userDao.save(new User("Ann", "ann@mail.com", 30));
+            userDao.save(new User("Bob", "bob@mail.com", 40));
+            assertEquals(2, relay.poll());
+        }
+        User cy = userDao.save(new User("Cy", "cy@mail.com", 50));
+
+        List<UserChange> received = new ArrayList<>();
+        try (OutboxRelay restarted = new OutboxRelay(sessionFactory, OffsetStore.file(offsets))) {
+            restarted.subscribe("search", received::addAll);
+            assertEquals(1, restarted.poll());
+        }
+        assertEquals(List.of(cy.getId()), received.stream().map(UserChange::userId).toList());
+    }
+
+    @Test
+    void testLateCommitIsDeliveredAfterLaterCommits() {
+        OutboxRelay relay = new OutboxRelay(sessionFactory, OffsetStore.inMemory());
+        List<UserChange> received = new ArrayList<>();
+        relay.subscribe("cache", received::addAll);
+        User late = new User("Late", "late@mail.com", 30);
+
+        try (Session session = sessionFactory.openSession()) {
+            Transaction tx = session.beginTransaction();
+            // Written first, so its event is the older one, but committed last
+            session.persist(late);
+            session.persist(OutboxEvent.created(late));
+            session.flush();
+
+            User early = userDao.save(new User("Early", "early@mail.com", 40));
+            assertEquals(1, relay.poll());
+            assertEquals(List.of(early.getId()), received.stream().map(UserChange::userId).toList());
+
+            tx.commit();
+        }
+
+        assertEquals(1, relay.poll());
+        assertEquals(List.of(1L, 2L), received.stream().map(UserChange::position).toList());
+        assertEquals(late.getId(), received.get(1).userId());
+    }
+
+    @Test
+    void testBackgroundRelayDeliversInBatchesAndPurges() throws Exception {
+        int users = 25;
+        List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+        try (OutboxRelay relay = new OutboxRelay(() -> sessionFactory, OffsetStore.inMemory(), 10)) {
+            relay.subscribe("index", changes -> batchSizes.add(changes.size()));
+            for (int i = 0; i < users; i++) {
+                userDao.save(new User("User " + i, "user" + i + "@mail.com", 30));
+            }
+            relay.start(Duration.ofMillis(50));
+
+            // The offset moves once a batch is handled, so wait for it rather than for the subscriber
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+            while (relay.offset("index") < users && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(users, relay.offset("index"));
+            assertTrue(batchSizes.stream().allMatch(size -> size <= 10), batchSizes.toString());
+
+            assertEquals(users, relay.purgeThrough(users));
+        }
+        try (Session session = sessionFactory.openSession()) {
+            assertEquals(0L, session.createQuery("SELECT count(e) FROM OutboxEvent e", Long.class).getSingleResult());
+        }
+    }
+
+    private static void assertChange(UserChange change, ChangeType type, Long userId, Long version,
+                                     Map<String, String> changes) {
+        assertEquals(type, change.type());
+        assertEquals(userId, change.userId());
+        assertEquals(version, change.version());
+        assertEquals(changes, change.changes());
+        assertNotNull(change.occurredAt());
+    }
+}
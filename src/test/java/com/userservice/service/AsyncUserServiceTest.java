@@ -0,0 +1,162 @@
+package com.userservice.service;
+
+import com.userservice.dao.UserDao;
+import com.userservice.model.User;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class AsyncUserServiceTest {
+
+    private static final int REQUESTS = 2000;
+    private static final long DB_LATENCY_MS = 100;
+
+    @Mock
+    private UserDao userDao;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger peakInFlight = new AtomicInteger();
+
+    private void stubSlowFindById(long latencyMs) {
+        when(userDao.findById(anyLong())).thenAnswer(invocation -> {
+            peakInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(latencyMs);
+                return Optional.of(new User(invocation.getArgument(0), "User", "user@mail.com", 30, null));
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        });
+    }
+
+    private long runLoad(AsyncUserService service) throws Exception {
+        long start = System.nanoTime();
+        List<CompletableFuture<Optional<User>>> futures = new ArrayList<>();
+        for (long id = 0; id < REQUESTS; id++) {
+            futures.add(service.getUserById(id));
+        }
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get(60, TimeUnit.SECONDS);
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
+    @Test
+    void virtualThreads_reachFarHigherConcurrencyThanPlatformThreads() throws Exception {
+        stubSlowFindById(DB_LATENCY_MS);
+
+        long platformMillis;
+        int platformPeak;
+        try (AsyncUserService platform = new AsyncUserService(new UserService(userDao),
+                Executors.newFixedThreadPool(32), REQUESTS, Duration.ofMinutes(1))) {
+            platformMillis = runLoad(platform);
+            platformPeak = peakInFlight.getAndSet(0);
+        }
+
+        long virtualMillis;
+        int virtualPeak;
+        try (AsyncUserService virtual = new AsyncUserService(new UserService(userDao),
+                Executors.newVirtualThreadPerTaskExecutor(), REQUESTS, Duration.ofMinutes(1))) {
+            virtualMillis = runLoad(virtual);
+            virtualPeak = peakInFlight.get();
+        }
+
+        System.out.printf("%d blocking calls: platform pool peak concurrency %d in %d ms, virtual threads peak %d in %d ms%n",
+                REQUESTS, platformPeak, platformMillis, virtualPeak, virtualMillis);
+        assertTrue(platformPeak <= 32);
+        assertTrue(virtualPeak > 10 * platformPeak, "Virtual threads should keep far more calls in flight");
+        assertTrue(virtualMillis < platformMillis);
+    }
+
+    @Test
+    void concurrency_isBoundedByPermits() throws Exception {
+        stubSlowFindById(5);
+
+        try (AsyncUserService service = new AsyncUserService(new UserService(userDao), 8)) {
+            List<CompletableFuture<Optional<User>>> futures = new ArrayList<>();
+            for (long id = 0; id < 200; id++) {
+                futures.add(service.getUserById(id));
+            }
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get(30, TimeUnit.SECONDS);
+        }
+
+        assertTrue(peakInFlight.get() <= 8, "Peak concurrency " + peakInFlight.get() + " exceeded the permits");
+    }
+
+    @Test
+    void timeout_failsFutureAndInterruptsCall() throws Exception {
+        AtomicBoolean interrupted = new AtomicBoolean();
+        CountDownLatch finished = new CountDownLatch(1);
+        when(userDao.findById(1L)).thenAnswer(invocation -> {
+            try {
+                Thread.sleep(10_000);
+            } catch (InterruptedException e) {
+                interrupted.set(true);
+            } finally {
+                finished.countDown();
+            }
+            return Optional.empty();
+        });
+
+        try (AsyncUserService service = new AsyncUserService(new UserService(userDao),
+                Executors.newVirtualThreadPerTaskExecutor(), 4, Duration.ofMillis(100))) {
+            ExecutionException exception = assertThrows(ExecutionException.class,
+                    () -> service.getUserById(1L).get());
+            assertInstanceOf(TimeoutException.class, exception.getCause());
+            assertTrue(finished.await(5, TimeUnit.SECONDS));
+        }
+        assertTrue(interrupted.get());
+    }
+
+    @Test
+    void cancel_interruptsRunningCall() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        when(userDao.findById(1L)).thenAnswer(invocation -> {
+            started.countDown();
+            try {
+                Thread.sleep(10_000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+            return Optional.empty();
+        });
+
+        try (AsyncUserService service = new AsyncUserService(new UserService(userDao), 4)) {
+            CompletableFuture<Optional<User>> future = service.getUserById(1L);
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            future.cancel(true);
+
+            assertTrue(future.isCancelled());
+            assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    void validationErrors_completeFutureExceptionally() {
+        try (AsyncUserService service = new AsyncUserService(new UserService(userDao), 4)) {
+            ExecutionException exception = assertThrows(ExecutionException.class,
+                    () -> service.createUser("", "test@mail.com", 25).get());
+            assertInstanceOf(IllegalArgumentException.class, exception.getCause());
+            verify(userDao, never()).save(any());
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.userservice.service;
+
+import com.userservice.model.UserStatistics;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StatisticsCacheTest {
+
+    private static final LocalDate SINCE = LocalDate.of(2024, 1, 1);
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final AtomicInteger computations = new AtomicInteger();
+
+    private UserStatistics compute(LocalDate since) {
+        return new UserStatistics(computations.incrementAndGet(), new TreeMap<>(), new TreeMap<>(), Instant.now());
+    }
+
+    @Test
+    void get_recomputesOnlyOnceStalenessBoundHasPassed() {
+        StatisticsCache cache = new StatisticsCache(this::compute, Duration.ofSeconds(30), nanos::get);
+
+        assertEquals(1, cache.get(SINCE).totalUsers());
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(29));
+        assertEquals(1, cache.get(SINCE).totalUsers());
+        assertEquals(2, cache.get(SINCE.plusDays(1)).totalUsers(), "Each first day has its own entry");
+
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        assertEquals(3, cache.get(SINCE).totalUsers());
+    }
+
+    @Test
+    void get_withZeroStaleness_alwaysRecomputes() {
+        StatisticsCache cache = new StatisticsCache(this::compute, Duration.ZERO, nanos::get);
+
+        cache.get(SINCE);
+        cache.get(SINCE);
+
+        assertEquals(2, computations.get());
+    }
+
+    @Test
+    void get_doesNotCacheFailures() {
+        AtomicInteger failuresLeft = new AtomicInteger(1);
+        StatisticsCache cache = new StatisticsCache(since -> {
+            if (failuresLeft.getAndDecrement() > 0) {
+                throw new IllegalStateException("Database unavailable");
+            }
+            return compute(since);
+        }, Duration.ofSeconds(30), nanos::get);
+
+        assertThrows(IllegalStateException.class, () -> cache.get(SINCE));
+        assertEquals(1, cache.get(SINCE).totalUsers());
+    }
+}
@@ -0,0 +1,91 @@
+package com.userservice.service;
+
+import com.userservice.dao.UserDao;
+import com.userservice.dao.UserDaoImpl;
+import com.userservice.model.User;
+import com.userservice.model.UserPatch;
+import com.userservice.util.TestHibernateUtil;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Testcontainers
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class UserContentionIT {
+
+    private static final int THREADS = 16;
+    private static final int INCREMENTS_PER_THREAD = 25;
+
+    @Container
+    private static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15.2")
+            .withDatabaseName("testdb")
+            .withUsername("test")
+            .withPassword("test");
+
+    private SessionFactory sessionFactory;
+    private UserDao userDao;
+
+    @BeforeAll
+    void setUpAll() {
+        System.setProperty("hibernate.connection.url", postgres.getJdbcUrl());
+        System.setProperty("hibernate.connection.username", postgres.getUsername());
+        System.setProperty("hibernate.connection.password", postgres.getPassword());
+        sessionFactory = TestHibernateUtil.buildSessionFactory(Map.of("hibernate.hikari.maximumPoolSize", THREADS));
+        userDao = new UserDaoImpl(sessionFactory);
+    }
+
+    @AfterAll
+    void tearDownAll() {
+        sessionFactory.close();
+    }
+
+    @Test
+    void testConcurrentIncrementsOnOneUserAreNotLost() throws Exception {
+        RetryExecutor retryExecutor = new RetryExecutor(200, Duration.ofMillis(1), Duration.ofMillis(50));
+        UserService userService = new UserService(userDao, retryExecutor);
+        // The counter lives in the name: age is capped at 150 by UserValidator
+        Long id = userDao.save(new User("0", "hot@mail.com", 0)).getId();
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        long start = System.nanoTime();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < INCREMENTS_PER_THREAD; i++) {
+                    assertTrue(userService.patchUser(id,
+                            user -> new UserPatch(String.valueOf(Integer.parseInt(user.getName()) + 1), null, null)));
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        long elapsed = System.nanoTime() - start;
+        executor.shutdown();
+
+        int updates = THREADS * INCREMENTS_PER_THREAD;
+        long conflicts = retryExecutor.conflicts();
+        System.out.printf("%d contended updates: %.0f updates/s, %d conflicts (%.1f%% of %d attempts)%n",
+                updates, updates / (elapsed / 1_000_000_000.0), conflicts,
+                100.0 * conflicts / (updates + conflicts), updates + conflicts);
+
+        User result = userDao.findById(id).orElseThrow();
+        assertEquals(updates, Integer.parseInt(result.getName()), "No increment may be lost");
+        assertEquals(updates, result.getVersion());
+    }
+}
@@ -1,7 +1,13 @@
 package com.userservice.service;
 
+import com.userservice.dao.DuplicateEmailException;
+import com.userservice.dao.OptimisticLockConflictException;
 import com.userservice.dao.UserDao;
+import com.userservice.model.PageRequest;
 import com.userservice.model.User;
+import com.userservice.model.UserPatch;
+import com.userservice.model.UserQuery;
+import com.userservice.model.UserStatistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -10,9 +16,16 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.Instant;
+import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -31,6 +44,7 @@ public class UserServiceTest {
     @BeforeEach
     void setUp() {
         testUser = new User(1L, "Test User", "test@mail.com", 25, null);
+        lenient().when(userDao.inTransaction(any())).thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(0).get());
     }
 
     @Test
@@ -54,6 +68,36 @@ public class UserServiceTest {
         assertNotNull(capturedUser.getCreatedAt());
 
         assertEquals(testUser, result);
+        verify(userDao, times(1)).inTransaction(any());
+    }
+
+    @Test
+    void createUser_duplicateEmail_throwsWithoutSaving() {
+        when(userDao.existsByEmail("test@mail.com")).thenReturn(true);
+
+        DuplicateEmailException exception = assertThrows(
+                DuplicateEmailException.class,
+                () -> userService.createUser("Test User", "test@mail.com", 25)
+        );
+        assertEquals("test@mail.com", exception.getEmail());
+        verify(userDao, never()).save(any());
+    }
+
+    @Test
+    void getUsersByIds_delegatesToDao() {
+        List<User> users = List.of(testUser);
+        when(userDao.findAllByIds(List.of(1L, 2L))).thenReturn(users);
+
+        assertEquals(users, userService.getUsersByIds(List.of(1L, 2L)));
+        verify(userDao, times(1)).findAllByIds(List.of(1L, 2L));
+    }
+
+    @Test
+    void getUserByEmail_returnsUser() {
+        when(userDao.findByEmail("test@mail.com")).thenReturn(Optional.of(testUser));
+
+        assertEquals(Optional.of(testUser), userService.getUserByEmail("test@mail.com"));
+        verify(userDao, times(1)).findByEmail("test@mail.com");
     }
 
     @Test
@@ -82,7 +126,7 @@ public class UserServiceTest {
                 IllegalArgumentException.class,
                 () -> userService.createUser("Test", "test@example.com", -5)
         );
-        assertEquals("Age most be non-negative", exception.getMessage());
+        assertEquals("Age must be non-negative", exception.getMessage());
         verify(userDao, never()).save(any());
     }
 
@@ -109,6 +153,31 @@ public class UserServiceTest {
         verify(userDao, times(1)).findAll();
     }
 
+    @Test
+    void getUsersPage_delegatesToDao() {
+        when(userDao.findPage(1L, 10)).thenReturn(List.of(testUser));
+
+        List<User> result = userService.getUsersPage(1L, 10);
+
+        assertEquals(1, result.size());
+        verify(userDao, times(1)).findPage(1L, 10);
+    }
+
+    @Test
+    void getUsersPage_nonPositiveSize_throwsException() {
+        assertThrows(IllegalArgumentException.class, () -> userService.getUsersPage(null, 0));
+        verify(userDao, never()).findPage(any(), anyInt());
+    }
+
+    @Test
+    void streamAllUsers_returnsDaoStream() {
+        when(userDao.streamAll()).thenReturn(Stream.of(testUser));
+
+        try (Stream<User> result = userService.streamAllUsers()) {
+            assertEquals(List.of(testUser), result.toList());
+        }
+    }
+
     @Test
     void updateUser_callsDaoUpdate() {
         when(userDao.update(any(User.class))).thenReturn(testUser);
@@ -119,10 +188,132 @@ public class UserServiceTest {
         verify(userDao, times(1)).update(any(User.class));
     }
 
+    @Test
+    void updateUser_rejectsInvalidFieldsWithoutCallingDao() {
+        ValidationException exception = assertThrows(ValidationException.class,
+                () -> userService.updateUser(1L, " ", "updated@mail.com", null));
+
+        assertEquals(Set.of(Violation.NAME_EMPTY, Violation.AGE_REQUIRED), exception.getViolations());
+        verify(userDao, never()).update(any());
+    }
+
+    @Test
+    void saveAll_validatesEveryUserBeforeSaving() {
+        List<User> users = List.of(new User("Alice", "alice@mail.com", 30), new User("Bob", "bob-at-mail", 40));
+
+        assertThrows(IllegalArgumentException.class, () -> userService.saveAll(users));
+        verify(userDao, never()).saveAll(any());
+    }
+
+    @Test
+    void saveAll_callsDaoSaveAll() {
+        List<User> users = List.of(new User("Alice", "alice@mail.com", 30));
+        when(userDao.saveAll(users)).thenReturn(users);
+
+        assertEquals(users, userService.saveAll(users));
+        verify(userDao, times(1)).saveAll(users);
+    }
+
+    @Test
+    void updateAll_validatesEveryUserBeforeUpdating() {
+        List<User> invalid = List.of(new User(1L, "Alice", "alice@mail.com", 30, null),
+                new User(2L, "Bob", "bob-at-mail", 40, null));
+        List<User> withoutId = List.of(new User("Carol", "carol@mail.com", 50));
+
+        assertThrows(ValidationException.class, () -> userService.updateAll(invalid));
+        assertThrows(IllegalArgumentException.class, () -> userService.updateAll(withoutId));
+        verify(userDao, never()).updateAll(any());
+    }
+
+    @Test
+    void deleteAllById_rejectsNullIds() {
+        assertThrows(IllegalArgumentException.class, () -> userService.deleteAllById(Arrays.asList(1L, null)));
+        verify(userDao, never()).deleteAllById(any());
+    }
+
+    @Test
+    void deleteAllById_returnsDeletedCount() {
+        when(userDao.deleteAllById(List.of(1L, 2L))).thenReturn(2);
+
+        assertEquals(2, userService.deleteAllById(List.of(1L, 2L)));
+    }
+
     @Test
     void deleteUser_callsDaoDelete() {
         userService.deleteUser(1L);
 
         verify(userDao, times(1)).deleteById(1L);
     }
+
+    @Test
+    void deleteUser_returnsWhetherUserExisted() {
+        when(userDao.deleteById(1L)).thenReturn(1);
+        when(userDao.deleteById(2L)).thenReturn(0);
+
+        assertTrue(userService.deleteUser(1L));
+        assertFalse(userService.deleteUser(2L));
+    }
+
+    @Test
+    void patchUser_validatesOnlyGivenFields() {
+        UserPatch patch = new UserPatch(null, null, 30);
+        when(userDao.patch(1L, patch)).thenReturn(1);
+
+        assertTrue(userService.patchUser(1L, patch));
+        assertThrows(IllegalArgumentException.class, () -> userService.patchUser(1L, new UserPatch(" ", null, null)));
+        assertThrows(IllegalArgumentException.class, () -> userService.patchUser(1L, new UserPatch(null, "bad", null)));
+        assertThrows(IllegalArgumentException.class, () -> userService.patchUser(1L, new UserPatch(null, null, null)));
+        verify(userDao, times(1)).patch(anyLong(), any());
+    }
+
+    @Test
+    void patchUser_reappliesChangeOnConflict() {
+        User stale = new User(1L, "Test User", "test@mail.com", 25, null);
+        stale.setVersion(1L);
+        User fresh = new User(1L, "Test User", "test@mail.com", 26, null);
+        fresh.setVersion(2L);
+        when(userDao.findById(1L))
+                .thenReturn(Optional.of(stale))
+                .thenReturn(Optional.of(fresh));
+        when(userDao.patch(1L, 1L, new UserPatch(null, null, 26)))
+                .thenThrow(new OptimisticLockConflictException(1L, null));
+        when(userDao.patch(1L, 2L, new UserPatch(null, null, 27))).thenReturn(1);
+
+        assertTrue(userService.patchUser(1L, user -> new UserPatch(null, null, user.getAge() + 1)));
+        verify(userDao, times(2)).patch(eq(1L), anyLong(), any(UserPatch.class));
+    }
+
+    @Test
+    void patchUser_returnsFalseForMissingUser() {
+        when(userDao.findById(1L)).thenReturn(Optional.empty());
+
+        assertFalse(userService.patchUser(1L, user -> new UserPatch("Name", null, null)));
+        verify(userDao, never()).patch(anyLong(), anyLong(), any(UserPatch.class));
+    }
+
+    @Test
+    void getUserSummariesPage_rejectsNonPositivePageSize() {
+        assertThrows(IllegalArgumentException.class, () -> userService.getUserSummariesPage(null, 0));
+        verify(userDao, never()).findSummaryPage(any(), anyInt());
+    }
+
+    @Test
+    void getStatistics_reusesResultWithinStalenessBound() {
+        LocalDate since = LocalDate.of(2024, 1, 1);
+        UserStatistics statistics = new UserStatistics(1, new TreeMap<>(Map.of(25, 1L)), new TreeMap<>(), Instant.now());
+        when(userDao.statistics(since)).thenReturn(statistics);
+
+        assertSame(statistics, userService.getStatistics(since));
+        assertSame(statistics, userService.getStatistics(since));
+        verify(userDao, times(1)).statistics(since);
+        assertThrows(IllegalArgumentException.class, () -> userService.getStatistics(null));
+    }
+
+    @Test
+    void searchUsers_rejectsInvertedAgeRange() {
+        UserQuery query = UserQuery.builder().minAge(40).maxAge(30).build();
+
+        assertThrows(IllegalArgumentException.class, () -> userService.searchUsers(query, PageRequest.first(10)));
+        verify(userDao, never()).search(any(), any());
+    }
 }
@@ -0,0 +1,75 @@
+package com.userservice.service;
+
+import com.userservice.model.User;
+import com.userservice.model.UserPatch;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UserValidatorTest {
+
+    private final UserValidator validator = UserValidator.instance();
+
+    @ParameterizedTest
+    @ValueSource(strings = {"a@b.co", "first.last@mail.example.com", "x+tag@sub-domain.io",
+            "o'neil!#$%&*/=?^_`{|}~-@mail.com", "user@123.example"})
+    void checkEmail_acceptsDotAtomAddresses(String email) {
+        assertEquals(0, validator.checkEmail(email), email);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"plain", "@mail.com", "user@", "user@localhost", "a..b@mail.com", ".a@mail.com",
+            "a.@mail.com", "a@b@mail.com", "a@-mail.com", "a@mail-.com", "a@mail..com", "a b@mail.com",
+            "ü@mail.com", "\"quoted\"@mail.com"})
+    void checkEmail_rejectsMalformedAddresses(String email) {
+        assertEquals(Violation.EMAIL_INVALID.bit(), validator.checkEmail(email), email);
+    }
+
+    @Test
+    void checkEmail_enforcesLengthLimits() {
+        String local64 = "a".repeat(64);
+        assertEquals(0, validator.checkEmail(local64 + "@mail.com"));
+        assertEquals(Violation.EMAIL_INVALID.bit(), validator.checkEmail(local64 + "a@mail.com"));
+        assertEquals(Violation.EMAIL_INVALID.bit(), validator.checkEmail("a@" + "b".repeat(64) + ".com"));
+        String longest = "a@" + "b".repeat(63) + "." + "c".repeat(63) + "." + "d".repeat(63) + "." + "e".repeat(60);
+        assertEquals(User.EMAIL_MAX_LENGTH, longest.length());
+        assertEquals(0, validator.checkEmail(longest));
+        assertEquals(Violation.EMAIL_TOO_LONG.bit(), validator.checkEmail(longest + "e"));
+    }
+
+    @Test
+    void check_reportsEveryViolationAtOnce() {
+        int violations = validator.check(" \t", "invalid", -1);
+
+        assertEquals(Set.of(Violation.NAME_EMPTY, Violation.EMAIL_INVALID, Violation.AGE_NEGATIVE),
+                Violation.of(violations));
+        ValidationException exception = assertThrows(ValidationException.class,
+                () -> validator.validate("x".repeat(User.NAME_MAX_LENGTH + 1), "a@mail.com", (Integer) null));
+        assertEquals(Set.of(Violation.NAME_TOO_LONG, Violation.AGE_REQUIRED), exception.getViolations());
+        assertEquals("Name must be at most 255 characters; Age is required", exception.getMessage());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"Ann\nLee", "Ann\r", "\tAnn", "Ann\u0000", "Ann\u007f"})
+    void checkName_rejectsControlCharacters(String name) {
+        assertEquals(Violation.NAME_CONTROL_CHARACTER.bit(), validator.checkName(name));
+    }
+
+    @Test
+    void check_enforcesAgeRange() {
+        assertEquals(0, validator.check("Ann", "ann@mail.com", 0));
+        assertEquals(0, validator.check("Ann", "ann@mail.com", UserValidator.MAX_AGE));
+        assertEquals(Violation.AGE_TOO_HIGH.bit(), validator.check("Ann", "ann@mail.com", UserValidator.MAX_AGE + 1));
+    }
+
+    @Test
+    void checkPatch_onlyChecksGivenFields() {
+        assertEquals(0, validator.check(new UserPatch(null, null, 30)));
+        assertEquals(Violation.EMAIL_INVALID.bit() | Violation.AGE_TOO_HIGH.bit(),
+                validator.check(new UserPatch(null, "bad", 200)));
+    }
+}
@@ -0,0 +1,179 @@
+package com.userservice.service;
+
+import com.userservice.dao.UserDao;
+import com.userservice.model.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class WriteBehindUserWriterTest {
+
+    @Mock
+    private UserDao userDao;
+
+    private WriteBehindUserWriter writer;
+
+    @AfterEach
+    void tearDown() {
+        if (writer != null) {
+            writer.close();
+        }
+    }
+
+    @Test
+    void flushesWhenBatchIsFull() throws Exception {
+        when(userDao.saveAll(anyCollection())).thenAnswer(invocation -> new ArrayList<>(invocation.getArgument(0)));
+        writer = new WriteBehindUserWriter(userDao, 100, 3, Duration.ofMinutes(1), Duration.ofSeconds(1));
+
+        List<CompletableFuture<User>> futures = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            futures.add(writer.submit(new User("User" + i, "user" + i + "@mail.com", 30)));
+        }
+
+        for (CompletableFuture<User> future : futures) {
+            assertNotNull(future.get(5, TimeUnit.SECONDS));
+        }
+        verify(userDao, times(1)).saveAll(argThat((Collection<User> users) -> users.size() == 3));
+    }
+
+    @Test
+    void flushesPartialBatchAfterMaxDelay() throws Exception {
+        when(userDao.saveAll(anyCollection())).thenAnswer(invocation -> new ArrayList<>(invocation.getArgument(0)));
+        writer = new WriteBehindUserWriter(userDao, 100, 50, Duration.ofMillis(50), Duration.ofSeconds(1));
+
+        User saved = writer.submit(new User("Lonely", "lonely@mail.com", 30)).get(5, TimeUnit.SECONDS);
+
+        assertEquals("Lonely", saved.getName());
+    }
+
+    @Test
+    void failedBatchReportsErrorsPerUser() throws Exception {
+        when(userDao.saveAll(anyCollection())).thenThrow(new RuntimeException("Failed to save users"));
+        when(userDao.save(any(User.class))).thenAnswer(invocation -> {
+            User user = invocation.getArgument(0);
+            if (user.getEmail().equals("taken@mail.com")) {
+                throw new RuntimeException("Failed to save user");
+            }
+            return user;
+        });
+        writer = new WriteBehindUserWriter(userDao, 100, 2, Duration.ofMinutes(1), Duration.ofSeconds(1));
+
+        CompletableFuture<User> good = writer.submit(new User("Good", "good@mail.com", 30));
+        CompletableFuture<User> duplicate = writer.submit(new User("Dup", "taken@mail.com", 30));
+
+        assertEquals("Good", good.get(5, TimeUnit.SECONDS).getName());
+        ExecutionException error = assertThrows(ExecutionException.class, () -> duplicate.get(5, TimeUnit.SECONDS));
+        assertEquals("Failed to save user", error.getCause().getMessage());
+    }
+
+    @Test
+    void rejectsWhenQueueStaysFull() throws Exception {
+        CountDownLatch flushing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(userDao.saveAll(anyCollection())).thenAnswer(invocation -> {
+            flushing.countDown();
+            release.await();
+            return new ArrayList<>(invocation.getArgument(0));
+        });
+        writer = new WriteBehindUserWriter(userDao, 1, 1, Duration.ZERO, Duration.ofMillis(50));
+
+        writer.submit(new User("First", "first@mail.com", 30));
+        assertTrue(flushing.await(5, TimeUnit.SECONDS));
+        writer.submit(new User("Queued", "queued@mail.com", 30));
+
+        assertThrows(RejectedExecutionException.class,
+                () -> writer.submit(new User("Rejected", "rejected@mail.com", 30)));
+        release.countDown();
+    }
+
+    @Test
+    void closeDrainsQueuedUsers() throws Exception {
+        when(userDao.saveAll(anyCollection())).thenAnswer(invocation -> new ArrayList<>(invocation.getArgument(0)));
+        writer = new WriteBehindUserWriter(userDao, 100, 50, Duration.ofMinutes(1), Duration.ofSeconds(1));
+        List<CompletableFuture<User>> futures = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            futures.add(writer.submit(new User("User" + i, "user" + i + "@mail.com", 30)));
+        }
+
+        writer.close();
+
+        futures.forEach(future -> assertTrue(future.isDone() && !future.isCompletedExceptionally()));
+        assertThrows(RejectedExecutionException.class,
+                () -> writer.submit(new User("Late", "late@mail.com", 30)));
+    }
+
+    @Test
+    void interruptedFlusherRejectsNewUsersAndCloseWritesAccepted() throws Exception {
+        when(userDao.saveAll(anyCollection())).thenAnswer(invocation -> new ArrayList<>(invocation.getArgument(0)));
+        writer = new WriteBehindUserWriter(userDao, 100, 50, Duration.ofMinutes(1), Duration.ofSeconds(1));
+        CompletableFuture<User> accepted = writer.submit(new User("Accepted", "accepted@mail.com", 30));
+        Thread flusher = Thread.getAllStackTraces().keySet().stream()
+                .filter(thread -> thread.getName().equals("user-write-behind") && thread.isAlive())
+                .findFirst()
+                .orElseThrow();
+
+        flusher.interrupt();
+        flusher.join(5_000);
+
+        assertFalse(flusher.isAlive());
+        assertThrows(RejectedExecutionException.class,
+                () -> writer.submit(new User("Late", "late@mail.com", 30)));
+        writer.close();
+        assertEquals("Accepted", accepted.get(5, TimeUnit.SECONDS).getName());
+    }
+
+    @Test
+    void submitRacingCloseIsRejectedOrWritten() throws Exception {
+        when(userDao.saveAll(anyCollection())).thenAnswer(invocation -> new ArrayList<>(invocation.getArgument(0)));
+        writer = new WriteBehindUserWriter(userDao, 10_000, 10, Duration.ofMillis(1), Duration.ofSeconds(1));
+        List<CompletableFuture<User>> accepted = new CopyOnWriteArrayList<>();
+        int threads = 4;
+        CountDownLatch submitting = new CountDownLatch(threads);
+        ExecutorService submitters = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            submitters.execute(() -> {
+                for (int i = 0; ; i++) {
+                    try {
+                        accepted.add(writer.submit(new User("User" + i, "user" + thread + "_" + i + "@mail.com", 30)));
+                    } catch (RejectedExecutionException e) {
+                        return;
+                    }
+                    if (i == 0) {
+                        // Close only once every submitter has had a user accepted
+                        submitting.countDown();
+                    }
+                }
+            });
+        }
+        assertTrue(submitting.await(5, TimeUnit.SECONDS));
+
+        writer.close();
+        submitters.shutdown();
+        assertTrue(submitters.awaitTermination(5, TimeUnit.SECONDS), "Submits after close must be rejected");
+
+        assertFalse(accepted.isEmpty());
+        accepted.forEach(future -> assertTrue(future.isDone() && !future.isCompletedExceptionally(),
+                "Every accepted user must be written by the time close() returns"));
+    }
+}
@@ -0,0 +1,95 @@
+package com.userservice.util;
+
+import com.userservice.dao.UserDao;
+import com.userservice.dao.UserDaoImpl;
+import com.userservice.model.User;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Testcontainers
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class ConnectionPoolIT {
+
+    private static final int THREADS = 16;
+    private static final int LOOKUPS_PER_THREAD = 300;
+    private static final int USERS = 100;
+
+    @Container
+    private static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15.2")
+            .withDatabaseName("testdb")
+            .withUsername("test")
+            .withPassword("test");
+
+    @BeforeAll
+    void setUpAll() {
+        System.setProperty("hibernate.connection.url", postgres.getJdbcUrl());
+        System.setProperty("hibernate.connection.username", postgres.getUsername());
+        System.setProperty("hibernate.connection.password", postgres.getPassword());
+    }
+
+    @Test
+    void testFindByIdThroughputScalesWithPoolSize() throws Exception {
+        double singleConnection = measureFindByIdThroughput(1);
+        double pooled = measureFindByIdThroughput(THREADS / 2);
+
+        System.out.printf("findById throughput: %.0f ops/s with 1 connection, %.0f ops/s with %d connections%n",
+                singleConnection, pooled, THREADS / 2);
+        assertTrue(pooled > singleConnection, "A larger pool should serve parallel lookups faster");
+    }
+
+    private double measureFindByIdThroughput(int poolSize) throws Exception {
+        SessionFactory sessionFactory = TestHibernateUtil.buildSessionFactory(
+                Map.of("hibernate.hikari.maximumPoolSize", poolSize,
+                        "hibernate.hikari.minimumIdle", poolSize,
+                        // Cache hits don't touch the pool; measure lookups that do
+                        "hibernate.cache.use_second_level_cache", false));
+        try {
+            UserDao userDao = new UserDaoImpl(sessionFactory);
+            List<User> users = new ArrayList<>();
+            for (int i = 0; i < USERS; i++) {
+                users.add(new User("User" + i, "user" + i + "@mail.com", 30));
+            }
+            List<Long> ids = userDao.saveAll(users).stream().map(User::getId).toList();
+
+            ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+            long start = System.nanoTime();
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < LOOKUPS_PER_THREAD; i++) {
+                        assertTrue(userDao.findById(ids.get(i % ids.size())).isPresent());
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            long elapsed = System.nanoTime() - start;
+            executor.shutdown();
+
+            ConnectionPoolMetrics.Snapshot metrics = ConnectionPoolMetrics.snapshot(sessionFactory).orElseThrow();
+            System.out.println("Pool metrics: " + metrics);
+            assertEquals(poolSize, metrics.maxPoolSize());
+            assertTrue(metrics.connectionsAcquired() >= (long) THREADS * LOOKUPS_PER_THREAD);
+            assertEquals(0, metrics.activeConnections());
+
+            return (double) THREADS * LOOKUPS_PER_THREAD / elapsed * 1_000_000_000L;
+        } finally {
+            sessionFactory.close();
+        }
+    }
+}
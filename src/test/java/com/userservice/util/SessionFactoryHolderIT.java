@@ -0,0 +1,87 @@
+package com.userservice.util;
+
+import com.userservice.dao.UserDao;
+import com.userservice.dao.UserDaoImpl;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Testcontainers
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class SessionFactoryHolderIT {
+
+    private static final Logger logger = LogManager.getLogger(SessionFactoryHolderIT.class);
+
+    private static final String CONFIG = "test-hibernate.cfg.xml";
+    private static final Map<String, Object> QUIET = Map.of("hibernate.show_sql", false);
+
+    @Container
+    private static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15.2")
+            .withDatabaseName("testdb")
+            .withUsername("test")
+            .withPassword("test");
+
+    @BeforeAll
+    void setUpAll() {
+        System.setProperty("hibernate.connection.url", postgres.getJdbcUrl());
+        System.setProperty("hibernate.connection.username", postgres.getUsername());
+        System.setProperty("hibernate.connection.password", postgres.getPassword());
+    }
+
+    @Test
+    void testDaoCreationDoesNotBuildSessionFactory() {
+        try (SessionFactoryHolder holder = new SessionFactoryHolder(CONFIG, QUIET)) {
+            UserDao userDao = new UserDaoImpl(holder);
+
+            assertFalse(holder.isInitialized());
+            assertTrue(userDao.findById(1L).isEmpty());
+            assertTrue(holder.isInitialized());
+            assertNotNull(holder.bootstrapTime());
+        }
+    }
+
+    @Test
+    void testWarmUpShortensTimeToFirstQuery() throws Exception {
+        long cold;
+        try (SessionFactoryHolder holder = new SessionFactoryHolder(CONFIG, QUIET)) {
+            UserDao userDao = new UserDaoImpl(holder);
+            long start = System.nanoTime();
+            userDao.findById(1L);
+            cold = System.nanoTime() - start;
+        }
+
+        long warm;
+        try (SessionFactoryHolder holder = new SessionFactoryHolder(CONFIG, QUIET)) {
+            UserDao userDao = new UserDaoImpl(holder);
+            // Stands in for the time the user spends in the menu before the first query
+            holder.warmUp().get(60, TimeUnit.SECONDS);
+            long start = System.nanoTime();
+            userDao.findById(1L);
+            warm = System.nanoTime() - start;
+        }
+
+        logger.info("Time to first query: {} ms cold, {} ms after warm-up",
+                Duration.ofNanos(cold).toMillis(), Duration.ofNanos(warm).toMillis());
+        assertTrue(warm < cold, "A warmed-up SessionFactory should answer the first query sooner");
+    }
+
+    @Test
+    void testClosedHolderRejectsUse() {
+        SessionFactoryHolder holder = new SessionFactoryHolder(CONFIG, QUIET);
+        holder.close();
+
+        assertFalse(holder.isInitialized());
+        assertThrows(IllegalStateException.class, holder::get);
+    }
+}
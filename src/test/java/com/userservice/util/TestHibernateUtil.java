@@ -3,49 +3,42 @@ package com.userservice.util;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.hibernate.SessionFactory;
-import org.hibernate.boot.MetadataSources;
-import org.hibernate.boot.registry.StandardServiceRegistry;
-import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+
+import java.util.Map;
 
 public class TestHibernateUtil {
 
     private static final Logger logger = LogManager.getLogger(TestHibernateUtil.class);
 
-    private static SessionFactory sessionFactory;
+    private static final String CONFIG = "test-hibernate.cfg.xml";
+
+    private static SessionFactoryHolder holder;
 
     public static synchronized SessionFactory getSessionFactory() {
-        if (sessionFactory == null) {
-            sessionFactory = buildSessionFactory();
-        }
-        return sessionFactory;
+        return holder().get();
     }
 
-    private static SessionFactory buildSessionFactory() {
-        try {
-            StandardServiceRegistryBuilder builder = new StandardServiceRegistryBuilder()
-                    .configure("test-hibernate.cfg.xml");
-
-            String url = System.getProperty("hibernate.connection.url");
-            String username = System.getProperty("hibernate.connection.username");
-            String password = System.getProperty("hibernate.connection.password");
-
-            if (url != null) builder.applySetting("hibernate.connection.url", url);
-            if (username != null) builder.applySetting("hibernate.connection.username", username);
-            if (password != null) builder.applySetting("hibernate.connection.password", password);
-
-            final StandardServiceRegistry registry = builder.build();
-            return new MetadataSources(registry).buildMetadata().buildSessionFactory();
-        } catch (Exception e) {
-            logger.error("Initial SessionFactory creation failed.", e);
-            throw new ExceptionInInitializerError(e);
+    /** Lazily built shared test SessionFactory; settings are resolved when the holder is first requested. */
+    public static synchronized SessionFactoryHolder holder() {
+        if (holder == null) {
+            holder = new SessionFactoryHolder(CONFIG);
         }
+        return holder;
+    }
+
+    /**
+     * Builds a separate, caller-owned SessionFactory with extra settings applied on top of the
+     * test configuration and the system property overrides.
+     */
+    public static SessionFactory buildSessionFactory(Map<String, ?> settings) {
+        return SessionFactoryHolder.build(CONFIG, settings);
     }
 
-    public static void shutdown() {
-        if (sessionFactory != null) {
-            sessionFactory.close();
+    public static synchronized void shutdown() {
+        if (holder != null) {
+            holder.close();
             logger.info("Test SessionFactory closed.");
-            sessionFactory = null;
+            holder = null;
         }
     }
 }
\ No newline at end of file